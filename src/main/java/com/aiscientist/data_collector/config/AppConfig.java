@@ -1,7 +1,15 @@
 package com.aiscientist.data_collector.config;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 import lombok.Data;
 
@@ -14,7 +22,11 @@ public class AppConfig {
     private NoaaConfig noaa;
     private SchedulerConfig scheduler;
     private KafkaTopicsConfig kafka;
-    private CacheConfig cache;
+    private CacheConfig cache = new CacheConfig();
+    private HttpConfig http = new HttpConfig();
+    private PersistenceConfig persistence = new PersistenceConfig();
+    private ExportConfig export = new ExportConfig();
+    private LiveStreamConfig liveStream = new LiveStreamConfig();
     
     @Data
     public static class NasaConfig {
@@ -33,6 +45,7 @@ public class AppConfig {
     @Data
     public static class NoaaConfig {
         private ApiConfig api;
+        private TidesConfig tides;
         
         @Data
         public static class ApiConfig {
@@ -40,6 +53,14 @@ public class AppConfig {
             private String kpIndexUrl;
             private String solarWindUrl;
         }
+        
+        @Data
+        public static class TidesConfig {
+            private String baseUrl;
+            private String application;
+            private List<String> stations = new ArrayList<>();
+            private int concurrency = 8;
+        }
     }
     
     @Data
@@ -57,6 +78,9 @@ public class AppConfig {
     @Data
     public static class KafkaTopicsConfig {
         private TopicsConfig topics;
+        private SerializationConfig serialization = new SerializationConfig();
+        private OutboxConfig outbox = new OutboxConfig();
+        private PublishConfig publish = new PublishConfig();
         
         @Data
         public static class TopicsConfig {
@@ -64,16 +88,221 @@ public class AppConfig {
             private String rawSpaceWeatherCme;
             private String rawSpaceWeatherSolarFlare;
         }
+        
+        @Data
+        public static class SerializationConfig {
+            /**
+             * Event encoding of topics not listed in formats: json or avro
+             */
+            private String defaultFormat = "json";
+            /**
+             * Encoding per topic; dotted topic names need brackets: "[raw.waterlevel.data]": avro
+             */
+            private Map<String, String> formats = new HashMap<>();
+            /**
+             * Directory of the file-backed schema registry, one &lt;id&gt;.avsc per registered schema
+             */
+            private Path schemaRegistryDir = Path.of("schema-registry");
+            /**
+             * Kp/CME events embed the raw API payload; when false they only reference it by raw_payload_hash
+             */
+            private boolean embedRawData = true;
+        }
+        
+        @Data
+        public static class OutboxConfig {
+            /**
+             * Pause between relay runs; each run drains everything pending
+             */
+            private Duration relayInterval = Duration.ofSeconds(1);
+            /**
+             * Records read, sent and marked per relay transaction
+             */
+            private int batchSize = 1000;
+            /**
+             * Max wait for the broker to acknowledge a batch; unacknowledged records are retried
+             */
+            private Duration sendTimeout = Duration.ofSeconds(30);
+            /**
+             * How long sent records are kept before the hourly purge deletes them
+             */
+            private Duration retention = Duration.ofDays(3);
+            private int purgeBatchSize = 10000;
+        }
+        
+        @Data
+        public static class PublishConfig {
+            /**
+             * Events per collection run sent but not yet acknowledged; upstream is paused beyond it
+             */
+            private int maxInFlight = 256;
+        }
     }
     
     @Data
     public static class CacheConfig {
-        private TtlConfig ttl;
+        /**
+         * Time-to-live per cache name; caches not listed use defaultTtl
+         */
+        private Map<String, Duration> ttl = new HashMap<>();
+        private Duration defaultTtl = Duration.ofMinutes(5);
+        private long localMaxSize = 10000;
+        private String keyPrefix = "data-collector:";
+        /**
+         * Upper bound for a single Redis read or write before falling back to L1 only
+         */
+        private Duration redisTimeout = Duration.ofMillis(500);
+        /**
+         * How long to bypass Redis after a Redis error before trying it again
+         */
+        private Duration redisRetryInterval = Duration.ofSeconds(30);
+        
+        public Duration getTtl(String cacheName) {
+            return ttl.getOrDefault(cacheName, defaultTtl);
+        }
+    }
+    
+    @Data
+    public static class HttpConfig {
+        private Map<String, ClientConfig> clients = new HashMap<>();
+        
+        /**
+         * Pool settings for an external API provider, falling back to defaults when not configured
+         */
+        public ClientConfig getClient(String provider) {
+            return clients.getOrDefault(provider, new ClientConfig());
+        }
         
         @Data
-        public static class TtlConfig {
-            private int kpIndex;
-            private int cmeData;
+        public static class ClientConfig {
+            private int maxConnections = 20;
+            private int pendingAcquireMaxCount = 200;
+            private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+            private Duration maxIdleTime = Duration.ofSeconds(30);
+            private Duration maxLifeTime = Duration.ofMinutes(5);
+            private Duration evictionInterval = Duration.ofSeconds(30);
+            private Duration connectTimeout = Duration.ofSeconds(5);
+            private Duration responseTimeout = Duration.ofSeconds(30);
+            private boolean compress = true;
+            private DataSize maxInMemorySize = DataSize.ofMegabytes(16);
         }
     }
+    
+    @Data
+    public static class PersistenceConfig {
+        private WriteBehindConfig writeBehind = new WriteBehindConfig();
+        private PartitioningConfig partitioning = new PartitioningConfig();
+        private RollupConfig rollup = new RollupConfig();
+        private RawPayloadConfig rawPayloads = new RawPayloadConfig();
+        
+        @Data
+        public static class WriteBehindConfig {
+            private int capacity = 10000;
+            private int batchSize = 500;
+            private Duration flushInterval = Duration.ofSeconds(1);
+            private Duration offerTimeout = Duration.ofSeconds(5);
+            /**
+             * Retries of a batch failing on a transient database error, waiting retry-backoff,
+             * doubled each time, in between
+             */
+            private int maxRetries = 5;
+            private Duration retryBackoff = Duration.ofMillis(500);
+        }
+        
+        /**
+         * Monthly range partitioning of the time-series tables
+         */
+        @Data
+        public static class PartitioningConfig {
+            private boolean enabled = true;
+            /**
+             * Future monthly partitions kept created ahead of time
+             */
+            private int monthsAhead = 3;
+            /**
+             * Convert tables that already hold rows at startup (one-off migration, see README);
+             * empty tables are always converted
+             */
+            private boolean migrateExisting = false;
+            /**
+             * Rows copied per transaction by that migration
+             */
+            private int migrationBatchSize = 10000;
+            /**
+             * Whole months of raw water level readings to keep, dropped once rolled up; 0 keeps everything
+             */
+            private int waterLevelRetentionMonths = 0;
+            /**
+             * Whole months of earthquake history to keep; 0 keeps everything
+             */
+            private int earthquakeRetentionMonths = 0;
+        }
+        
+        /**
+         * Hourly/daily rollups of water levels and Kp, and expiry of the raw rows behind them
+         */
+        @Data
+        public static class RollupConfig {
+            private boolean enabled = true;
+            /**
+             * Recent buckets recomputed on every run, so late readings are folded in
+             */
+            private Duration lateArrival = Duration.ofHours(6);
+            /**
+             * Raw Kp index rows older than this are deleted once rolled up; zero keeps them
+             */
+            private Duration kpIndexRawRetention = Duration.ofDays(365);
+            /**
+             * Hourly buckets older than this are deleted (daily buckets are kept); zero keeps them
+             */
+            private Duration hourlyRetention = Duration.ofDays(730);
+            private int deleteBatchSize = 10000;
+        }
+        
+        /**
+         * Content-addressed store of upstream responses (raw_payloads)
+         */
+        @Data
+        public static class RawPayloadConfig {
+            /**
+             * Payloads no row has referenced for this long are purged; must exceed one hour
+             */
+            private Duration orphanGrace = Duration.ofDays(1);
+            private int purgeBatchSize = 1000;
+            /**
+             * Rows moved per statement when migrating inline raw_data columns
+             */
+            private int migrationBatchSize = 1000;
+        }
+    }
+    
+    /**
+     * Arrow IPC export of historical rows
+     */
+    @Data
+    public static class ExportConfig {
+        /**
+         * Rows per record batch, also the JDBC fetch size
+         */
+        private int batchSize = 8192;
+        /**
+         * Off-heap memory shared by all running exports
+         */
+        private DataSize maxMemory = DataSize.ofMegabytes(256);
+    }
+    
+    /**
+     * SSE / NDJSON streams of freshly collected events
+     */
+    @Data
+    public static class LiveStreamConfig {
+        /**
+         * Events buffered per subscriber before its overflow policy applies
+         */
+        private int subscriberBufferSize = 256;
+        /**
+         * SSE comment sent on idle connections
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+    }
 }
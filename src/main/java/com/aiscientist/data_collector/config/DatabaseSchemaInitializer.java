@@ -0,0 +1,212 @@
+package com.aiscientist.data_collector.config;
+
+import com.aiscientist.data_collector.service.PartitionMaintenanceService;
+import com.aiscientist.data_collector.service.RawPayloadService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Idempotent schema adjustments that Hibernate's ddl-auto=update cannot express.
+ * Runs once the EntityManagerFactory has created or updated the tables, and before
+ * the schedulers start writing.
+ */
+@Component
+@Slf4j
+public class DatabaseSchemaInitializer {
+
+    /**
+     * Must match allocationSize of the entities' @SequenceGenerator
+     */
+    static final int SEQUENCE_ALLOCATION_SIZE = 50;
+
+    /**
+     * Table -> id sequence for the metric entities
+     */
+    private static final Map<String, String> ID_SEQUENCES = Map.of(
+            "metrics", "metrics_seq",
+            "water_level_metrics", "water_level_metrics_seq",
+            "earthquake_metrics", "earthquake_metrics_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final RawPayloadService rawPayloadService;
+
+    // EntityManagerFactory injected only to order initialization after Hibernate's schema update
+    public DatabaseSchemaInitializer(JdbcTemplate jdbcTemplate,
+                                     EntityManagerFactory entityManagerFactory,
+                                     PartitionMaintenanceService partitionMaintenanceService,
+                                     RawPayloadService rawPayloadService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionMaintenanceService = partitionMaintenanceService;
+        this.rawPayloadService = rawPayloadService;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        ID_SEQUENCES.forEach(this::migrateIdentityToSequence);
+        dropEarthquakeIdUniqueKey();
+        partitionMaintenanceService.partitionTables();
+        ensureMetricNaturalKey("uk_metrics_kp_natural_key", "kp_index", "source", "metric_type", "timestamp");
+        ensureCmeNaturalKey();
+        rawPayloadService.migrateInlineRawData();
+        backfillStationLatest();
+        backfillEarthquakeGeoCells();
+        // OutboxRelay only ever reads the unsent head of the outbox
+        jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS idx_outbox_events_unsent ON outbox_events (id) WHERE sent_at IS NULL");
+    }
+
+    /**
+     * earthquake_id alone used to be unique. A partitioned table cannot enforce that, so the key
+     * is uk_earthquake_event (earthquake_id, event_time); drop the old constraint, or the plain
+     * index a partition conversion left of it, since idx_earthquake_id already covers lookups.
+     */
+    private void dropEarthquakeIdUniqueKey() {
+        jdbcTemplate.queryForList("""
+                SELECT con.conname FROM pg_constraint con
+                JOIN pg_class c ON c.oid = con.conrelid
+                JOIN pg_namespace n ON n.oid = c.relnamespace
+                JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum = con.conkey[1]
+                WHERE c.relname = 'earthquake_metrics' AND n.nspname = current_schema()
+                  AND con.contype = 'u' AND cardinality(con.conkey) = 1 AND a.attname = 'earthquake_id'
+                """, String.class).forEach(constraint -> {
+            jdbcTemplate.execute("ALTER TABLE earthquake_metrics DROP CONSTRAINT " + constraint);
+            log.info("Dropped unique constraint {} on earthquake_metrics (earthquake_id)", constraint);
+        });
+        jdbcTemplate.queryForList("""
+                SELECT indexname FROM pg_indexes
+                WHERE schemaname = current_schema() AND tablename = 'earthquake_metrics'
+                  AND indexname <> 'idx_earthquake_id' AND indexdef LIKE '% (earthquake_id)'
+                """, String.class).forEach(index -> {
+            jdbcTemplate.execute("DROP INDEX " + index);
+            log.info("Dropped redundant index {} on earthquake_metrics (earthquake_id)", index);
+        });
+    }
+
+    /**
+     * Same formula as GeoUtils.cellId; rows written since geo_cell was added already carry it
+     */
+    private void backfillEarthquakeGeoCells() {
+        int updated = jdbcTemplate.update("""
+                UPDATE earthquake_metrics
+                SET geo_cell = LEAST(GREATEST(FLOOR(latitude)::int + 90, 0), 179) * 360
+                             + MOD(MOD(FLOOR(longitude)::int + 180, 360) + 360, 360)
+                WHERE geo_cell IS NULL AND latitude IS NOT NULL AND longitude IS NOT NULL
+                """);
+        if (updated > 0) {
+            log.info("Backfilled geo_cell for {} earthquakes", updated);
+        }
+    }
+
+    /**
+     * station_latest is maintained on insert; seed it from the history the first time it is empty
+     */
+    private void backfillStationLatest() {
+        Boolean empty = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM station_latest)", Boolean.class);
+        if (!Boolean.TRUE.equals(empty)) {
+            return;
+        }
+        int seeded = jdbcTemplate.update("""
+                INSERT INTO station_latest (station_id, metric_id, timestamp, updated_at)
+                SELECT DISTINCT ON (station_id) station_id, id, timestamp, now()
+                FROM water_level_metrics
+                ORDER BY station_id, timestamp DESC, id DESC
+                """);
+        if (seeded > 0) {
+            log.info("Seeded station_latest with {} stations", seeded);
+        }
+    }
+
+    /**
+     * CME rows are keyed on the DONKI activityID. Rows stored before external_id existed get
+     * it, and their real start time, back from raw_data so the duplicates can be collapsed.
+     * Tables created after raw payloads moved to raw_payloads never had such rows.
+     */
+    private void ensureCmeNaturalKey() {
+        if (indexExists("uk_metrics_cme_activity")) {
+            return;
+        }
+        if (!columnExists("metrics", "raw_data")) {
+            ensureMetricNaturalKey("uk_metrics_cme_activity", "cme", "source", "metric_type", "external_id");
+            return;
+        }
+        int backfilled = jdbcTemplate.update("""
+                UPDATE metrics
+                SET external_id = raw_data ->> 'activityID',
+                    timestamp = COALESCE((raw_data ->> 'startTime')::timestamptz, timestamp)
+                WHERE metric_type = 'cme' AND external_id IS NULL AND raw_data ->> 'activityID' IS NOT NULL
+                """);
+        log.info("Backfilled external_id for {} CME metrics", backfilled);
+        ensureMetricNaturalKey("uk_metrics_cme_activity", "cme", "source", "metric_type", "external_id");
+    }
+
+    /**
+     * Tables created before the switch to sequence ids still carry a serial/IDENTITY default and
+     * rows whose ids the new sequence has not reserved. Drop the default and move the
+     * sequence past the highest existing id; a no-op once migrated.
+     */
+    private void migrateIdentityToSequence(String table, String sequence) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP DEFAULT");
+
+        // Next value the sequence would hand out; ids allocated by Hibernate are always below it
+        Long bumpedTo = jdbcTemplate.query("""
+                SELECT setval('%1$s', x.max_id + 1, false)
+                FROM (SELECT (SELECT COALESCE(MAX(id), 0) FROM %2$s) AS max_id,
+                             CASE WHEN s.is_called THEN s.last_value + %3$d ELSE s.last_value END AS next_value
+                      FROM %1$s s) x
+                WHERE x.max_id >= x.next_value
+                """.formatted(sequence, table, SEQUENCE_ALLOCATION_SIZE),
+                rs -> rs.next() ? rs.getLong(1) : null);
+
+        if (bumpedTo != null) {
+            log.info("Advanced sequence {} to {} past existing ids in {}", sequence, bumpedTo, table);
+        }
+    }
+
+    /**
+     * Partial unique index giving one metric type a natural key, used by the upserts in
+     * MetricRepositoryCustomImpl. Duplicates written before the index existed are removed
+     * first, keeping the most recent row.
+     */
+    private void ensureMetricNaturalKey(String indexName, String metricType, String... keyColumns) {
+        if (indexExists(indexName)) {
+            return;
+        }
+
+        String sameKey = Arrays.stream(keyColumns)
+                .map(column -> "a." + column + " = b." + column)
+                .collect(Collectors.joining(" AND "));
+        int removed = jdbcTemplate.update(
+                "DELETE FROM metrics a USING metrics b WHERE a.metric_type = ? AND b.metric_type = ? AND "
+                        + sameKey + " AND a.id < b.id",
+                metricType, metricType);
+
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + indexName + " ON metrics ("
+                + String.join(", ", keyColumns) + ") WHERE metric_type = '" + metricType + "'");
+        log.info("Created natural key {} for {} metrics ({} duplicate rows removed)", indexName, metricType, removed);
+    }
+
+    private boolean indexExists(String indexName) {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_indexes WHERE schemaname = current_schema() AND indexname = ?)",
+                Boolean.class, indexName);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private boolean columnExists(String table, String column) {
+        Boolean exists = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                               WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?)
+                """, Boolean.class, table, column);
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -0,0 +1,28 @@
+package com.aiscientist.data_collector.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.aiscientist.data_collector.dto.EarthquakeEvent;
+import com.aiscientist.data_collector.dto.WaterLevelEvent;
+import com.aiscientist.data_collector.service.LiveEventStream;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Live event streams served by the /stream endpoints, fed by the collection services.
+ * Settings are bound from app.live-stream.
+ */
+@Configuration
+public class LiveEventStreamConfig {
+
+    @Bean
+    public LiveEventStream<EarthquakeEvent> earthquakeLiveStream(AppConfig config, MeterRegistry meterRegistry) {
+        return new LiveEventStream<>("earthquakes", config.getLiveStream(), meterRegistry);
+    }
+
+    @Bean
+    public LiveEventStream<WaterLevelEvent> waterLevelLiveStream(AppConfig config, MeterRegistry meterRegistry) {
+        return new LiveEventStream<>("water-levels", config.getLiveStream(), meterRegistry);
+    }
+}
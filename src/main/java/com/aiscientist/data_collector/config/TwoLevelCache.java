@@ -0,0 +1,254 @@
+package com.aiscientist.data_collector.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Spring Cache backed by a per-instance Caffeine cache (L1) in front of Redis (L2).
+ *
+ * Reads check L1, then Redis; Redis hits are copied into L1. Writes go to L1 synchronously and
+ * to Redis without waiting. The reactive {@link #retrieve} methods never block, so @Cacheable
+ * works on methods returning Mono/Flux: Spring stores the resolved value (a Flux is stored as a
+ * List), never the publisher. Redis failures are logged and trip a shared {@link RedisBackoff};
+ * while it is open the cache serves from L1 only. An entry copied from Redis gets a fresh L1
+ * TTL, so it can outlive the Redis copy by up to one TTL.
+ *
+ * Metrics: cache.tiered.gets{cache, tier=l1|l2, result=hit|miss}, cache.tiered.redis.errors{cache}.
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<Object, Object> local;
+    private final ReactiveRedisOperations<String, Object> redis;
+    private final String redisKeyPrefix;
+    private final Duration ttl;
+    private final Duration redisTimeout;
+    private final RedisBackoff redisBackoff;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter redisErrors;
+
+    public TwoLevelCache(String name,
+                         ReactiveRedisOperations<String, Object> redis,
+                         RedisBackoff redisBackoff,
+                         AppConfig.CacheConfig settings,
+                         MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.redis = redis;
+        this.redisBackoff = redisBackoff;
+        this.ttl = settings.getTtl(name);
+        this.redisTimeout = settings.getRedisTimeout();
+        this.redisKeyPrefix = settings.getKeyPrefix() + name + "::";
+        this.local = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(settings.getLocalMaxSize())
+                .build();
+
+        this.l1Hits = getsCounter(meterRegistry, "l1", "hit");
+        this.l1Misses = getsCounter(meterRegistry, "l1", "miss");
+        this.l2Hits = getsCounter(meterRegistry, "l2", "hit");
+        this.l2Misses = getsCounter(meterRegistry, "l2", "miss");
+        this.redisErrors = Counter.builder("cache.tiered.redis.errors")
+                .tag("cache", name)
+                .description("Redis operations that failed or timed out")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Blocking lookup for non-reactive callers; must not be used on an event loop thread
+     */
+    @Override
+    protected Object lookup(Object key) {
+        Object value = lookupLocal(key);
+        if (value != null || !redisBackoff.allowRequest()) {
+            return value;
+        }
+        return lookupRemote(key).block();
+    }
+
+    /**
+     * Completes with the cached value, or with null on a late (Redis) miss. Returns null
+     * immediately when the value is not in L1 and Redis is backing off.
+     */
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        Object value = lookupLocal(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(fromStoreValue(value));
+        }
+        if (!redisBackoff.allowRequest()) {
+            return null;
+        }
+        return lookupRemote(key).toFuture();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        CompletableFuture<?> cached = retrieve(key);
+        CompletableFuture<Object> lookup = cached != null
+                ? (CompletableFuture<Object>) cached
+                : CompletableFuture.completedFuture(null);
+        return lookup.thenCompose(value -> value != null
+                ? CompletableFuture.completedFuture((T) value)
+                : valueLoader.get().thenApply(loaded -> {
+                    if (loaded != null) {
+                        put(key, loaded);
+                    }
+                    return loaded;
+                }));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper existing = get(key);
+        if (existing != null) {
+            return (T) existing.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object storeValue = toStoreValue(value);
+        local.put(key, storeValue);
+        if (redisBackoff.allowRequest()) {
+            redis.opsForValue().set(redisKey(key), storeValue, ttl)
+                    .timeout(redisTimeout)
+                    .subscribe(ok -> { }, error -> redisFailed("put", error));
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.invalidate(key);
+        if (redisBackoff.allowRequest()) {
+            redis.delete(redisKey(key))
+                    .timeout(redisTimeout)
+                    .subscribe(count -> { }, error -> redisFailed("evict", error));
+        }
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        if (redisBackoff.allowRequest()) {
+            redis.delete(redis.scan(ScanOptions.scanOptions().match(redisKeyPrefix + "*").build()))
+                    .subscribe(count -> log.debug("Cleared {} Redis entries of cache {}", count, name),
+                            error -> redisFailed("clear", error));
+        }
+    }
+
+    private Object lookupLocal(Object key) {
+        Object value = local.getIfPresent(key);
+        (value != null ? l1Hits : l1Misses).increment();
+        return value;
+    }
+
+    private Mono<Object> lookupRemote(Object key) {
+        return redis.opsForValue().get(redisKey(key))
+                .timeout(redisTimeout)
+                .doOnNext(value -> {
+                    l2Hits.increment();
+                    local.put(key, value);
+                })
+                .switchIfEmpty(Mono.fromRunnable(l2Misses::increment))
+                .onErrorResume(error -> {
+                    redisFailed("get", error);
+                    return Mono.empty();
+                })
+                .map(this::fromStoreValue);
+    }
+
+    private void redisFailed(String operation, Throwable error) {
+        redisErrors.increment();
+        if (redisBackoff.trip()) {
+            log.warn("Redis {} failed for cache {}, serving from local cache only for {}: {}",
+                    operation, name, redisBackoff.getRetryInterval(), error.toString());
+        }
+    }
+
+    private String redisKey(Object key) {
+        return redisKeyPrefix + key;
+    }
+
+    private Counter getsCounter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.tiered.gets")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Shared across all caches of a manager: after a Redis error, skip Redis entirely for
+     * retry-interval instead of paying the command timeout on every lookup.
+     */
+    public static class RedisBackoff {
+
+        private final Duration retryInterval;
+        private volatile long retryAtNanos;
+        private volatile boolean open;
+
+        public RedisBackoff(Duration retryInterval) {
+            this.retryInterval = retryInterval;
+        }
+
+        public boolean allowRequest() {
+            return !open || System.nanoTime() - retryAtNanos >= 0;
+        }
+
+        /**
+         * @return true when this call opened the backoff (used to log once per outage window)
+         */
+        public synchronized boolean trip() {
+            boolean wasAllowing = allowRequest();
+            open = true;
+            retryAtNanos = System.nanoTime() + retryInterval.toNanos();
+            return wasAllowing;
+        }
+
+        public Duration getRetryInterval() {
+            return retryInterval;
+        }
+    }
+}
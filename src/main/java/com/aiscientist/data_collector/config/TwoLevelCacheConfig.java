@@ -0,0 +1,60 @@
+package com.aiscientist.data_collector.config;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Enables Spring caching with Caffeine (L1) in front of Redis (L2).
+ * Cache names and TTLs are bound from app.cache; Redis connection settings from spring.data.redis.
+ */
+@Configuration
+@EnableCaching
+public class TwoLevelCacheConfig {
+
+    @Bean
+    public ReactiveRedisTemplate<String, Object> cacheRedisTemplate(
+            ReactiveRedisConnectionFactory connectionFactory,
+            ObjectMapper objectMapper) {
+        RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+                .<String, Object>newSerializationContext(StringRedisSerializer.UTF_8)
+                .value(cacheValueSerializer(objectMapper))
+                .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, serializationContext);
+    }
+
+    @Bean
+    public CacheManager cacheManager(
+            ReactiveRedisTemplate<String, Object> cacheRedisTemplate,
+            AppConfig config,
+            MeterRegistry meterRegistry) {
+        return new TwoLevelCacheManager(cacheRedisTemplate, config.getCache(), meterRegistry);
+    }
+
+    /**
+     * JSON with embedded type ids, so cached DTOs, entities and lists come back as the same types.
+     * Only our own classes and JDK collections/time types may be instantiated from Redis.
+     */
+    static GenericJackson2JsonRedisSerializer cacheValueSerializer(ObjectMapper objectMapper) {
+        BasicPolymorphicTypeValidator typeValidator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("com.aiscientist.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.time.")
+                .build();
+        ObjectMapper cacheMapper = objectMapper.copy()
+                .activateDefaultTyping(typeValidator, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return new GenericJackson2JsonRedisSerializer(cacheMapper);
+    }
+}
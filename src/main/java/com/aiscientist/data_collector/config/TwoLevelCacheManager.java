@@ -0,0 +1,44 @@
+package com.aiscientist.data_collector.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates a {@link TwoLevelCache} per cache name on first use, with the TTL from app.cache.ttl.
+ * All caches share one Redis backoff, since a Redis outage affects them all alike.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final ReactiveRedisOperations<String, Object> redis;
+    private final AppConfig.CacheConfig settings;
+    private final MeterRegistry meterRegistry;
+    private final TwoLevelCache.RedisBackoff redisBackoff;
+
+    public TwoLevelCacheManager(ReactiveRedisOperations<String, Object> redis,
+                                AppConfig.CacheConfig settings,
+                                MeterRegistry meterRegistry) {
+        this.redis = redis;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        this.redisBackoff = new TwoLevelCache.RedisBackoff(settings.getRedisRetryInterval());
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name,
+                cacheName -> new TwoLevelCache(cacheName, redis, redisBackoff, settings, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+}
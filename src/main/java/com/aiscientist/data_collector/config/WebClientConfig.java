@@ -1,35 +1,97 @@
 package com.aiscientist.data_collector.config;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * One WebClient per external provider, each backed by its own Reactor Netty
+ * connection pool so that a slow provider cannot starve the others.
+ * Pool settings are bound from app.http.clients.&lt;provider&gt;.
+ */
 @Configuration
+@Slf4j
 public class WebClientConfig {
 
+    private final List<ConnectionProvider> connectionProviders = new CopyOnWriteArrayList<>();
+
     @Bean
     public WebClient nasaWebClient(AppConfig config) {
-        return WebClient.builder()
-                .baseUrl(config.getNasa().getApi().getBaseUrl())
-                .defaultHeader("Accept", "application/json")
-                .build();
+        return buildWebClient("nasa", config.getNasa().getApi().getBaseUrl(), config);
     }
 
     @Bean
     public WebClient noaaWebClient(AppConfig config) {
-        return WebClient.builder()
-                .baseUrl(config.getNoaa().getApi().getBaseUrl())
-                .defaultHeader("Accept", "application/json")
-                .build();
+        return buildWebClient("noaa", config.getNoaa().getApi().getBaseUrl(), config);
+    }
+
+    @Bean
+    public WebClient noaaTidesWebClient(
+            AppConfig config,
+            @Value("${app.noaa.tides.base-url:https://api.tidesandcurrents.noaa.gov/api/prod}") String baseUrl) {
+        return buildWebClient("noaa-tides", baseUrl + "/datagetter", config);
+    }
+
+    @Bean
+    public WebClient usgsWaterWebClient(
+            AppConfig config,
+            @Value("${app.usgs.water.base-url:https://waterservices.usgs.gov/nwis/iv}") String baseUrl) {
+        return buildWebClient("usgs-water", baseUrl, config);
     }
 
     @Bean
     public WebClient usgsWebClient(
+            AppConfig config,
             @Value("${app.usgs.earthquake.base-url:https://earthquake.usgs.gov}") String baseUrl) {
+        return buildWebClient("usgs-earthquake", baseUrl, config);
+    }
+
+    private WebClient buildWebClient(String provider, String baseUrl, AppConfig config) {
+        AppConfig.HttpConfig.ClientConfig settings = config.getHttp().getClient(provider);
+
+        // Pool metrics are published as reactor.netty.connection.provider.* tagged with the pool name
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(provider)
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireMaxCount(settings.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(settings.getPendingAcquireTimeout())
+                .maxIdleTime(settings.getMaxIdleTime())
+                .maxLifeTime(settings.getMaxLifeTime())
+                .evictInBackground(settings.getEvictionInterval())
+                .metrics(true)
+                .build();
+        connectionProviders.add(connectionProvider);
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+                .responseTimeout(settings.getResponseTimeout())
+                .compress(settings.isCompress());
+
+        log.info("Configured HTTP pool '{}': maxConnections={}, pendingAcquireMaxCount={}, responseTimeout={}",
+                provider, settings.getMaxConnections(), settings.getPendingAcquireMaxCount(),
+                settings.getResponseTimeout());
+
         return WebClient.builder()
                 .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs()
+                        .maxInMemorySize((int) settings.getMaxInMemorySize().toBytes()))
                 .defaultHeader("Accept", "application/json")
                 .build();
     }
+
+    @PreDestroy
+    public void disposeConnectionProviders() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
 }
@@ -0,0 +1,42 @@
+package com.aiscientist.data_collector.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aiscientist.data_collector.model.Metric;
+import com.aiscientist.data_collector.model.WaterLevelMetric;
+import com.aiscientist.data_collector.repository.MetricRepository;
+import com.aiscientist.data_collector.repository.WaterLevelMetricRepository;
+import com.aiscientist.data_collector.service.WriteBehindBuffer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Write-behind buffers, one per entity type, so collectors never block on JDBC.
+ * Settings are bound from app.persistence.write-behind.
+ */
+@Configuration
+public class WriteBehindBufferConfig {
+
+    @Bean
+    public WriteBehindBuffer<Metric> metricWriteBehind(
+            MetricRepository metricRepository,
+            PlatformTransactionManager transactionManager,
+            AppConfig config,
+            MeterRegistry meterRegistry) {
+        return new WriteBehindBuffer<>("metrics", metricRepository::upsertAll,
+                new TransactionTemplate(transactionManager), config.getPersistence().getWriteBehind(), meterRegistry);
+    }
+
+    @Bean
+    public WriteBehindBuffer<WaterLevelMetric> waterLevelWriteBehind(
+            WaterLevelMetricRepository waterLevelRepository,
+            PlatformTransactionManager transactionManager,
+            AppConfig config,
+            MeterRegistry meterRegistry) {
+        return new WriteBehindBuffer<>("water-level-metrics", waterLevelRepository::insertAll,
+                new TransactionTemplate(transactionManager), config.getPersistence().getWriteBehind(), meterRegistry);
+    }
+}
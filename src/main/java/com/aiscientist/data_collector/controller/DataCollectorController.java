@@ -1,21 +1,29 @@
 package com.aiscientist.data_collector.controller;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.aiscientist.data_collector.dto.MetricDTO;
-import com.aiscientist.data_collector.repository.MetricRepository;
+import com.aiscientist.data_collector.dto.KeysetPage;
+import com.aiscientist.data_collector.dto.KeysetPageRequest;
+import com.aiscientist.data_collector.model.RollupResolution;
+import com.aiscientist.data_collector.repository.KeysetQueryRepository;
+import com.aiscientist.data_collector.repository.Projections;
 import com.aiscientist.data_collector.service.DataCollectorService;
 import com.aiscientist.data_collector.service.EarthquakeCollectionService;
+import com.aiscientist.data_collector.service.RawPayloadService;
+import com.aiscientist.data_collector.service.RollupService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,8 +35,10 @@ import lombok.extern.slf4j.Slf4j;
 public class DataCollectorController {
 
     private final DataCollectorService dataCollectorService;
-    private final MetricRepository metricRepository;
+    private final KeysetQueryRepository keysetQueryRepository;
     private final EarthquakeCollectionService earthquakeCollectionService;
+    private final RollupService rollupService;
+    private final RawPayloadService rawPayloadService;
 
     @PostMapping("/collect/kp-index")
     public ResponseEntity<String> triggerKpIndexCollection() {
@@ -51,30 +61,53 @@ public class DataCollectorController {
         return ResponseEntity.ok("Earthquake data collection triggered");
     }
 
+    /**
+     * Recent metrics of a source. With a resolution (e.g. 1h, 1d) the Kp index is served from the
+     * coarsest hourly/daily rollup no wider than it; other metric types are not rolled up.
+     * Raw metrics are keyset-paginated (cursor, limit, fields).
+     */
     @GetMapping("/metrics")
-    public ResponseEntity<List<MetricDTO>> getRecentMetrics(
+    public ResponseEntity<?> getRecentMetrics(
             @RequestParam(defaultValue = "noaa") String source,
-            @RequestParam(defaultValue = "24") int hours) {
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(required = false) String resolution,
+            KeysetPageRequest page) {
         
-        Instant since = Instant.now().minus(hours, ChronoUnit.HOURS);
+        Duration requested;
+        try {
+            requested = RollupService.parseResolution(resolution);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        Instant now = Instant.now();
+        Instant since = now.minus(hours, ChronoUnit.HOURS);
+        Optional<RollupResolution> rollup = requested == null
+                ? Optional.empty()
+                : rollupService.resolve(RollupService.Series.KP_INDEX, requested, since);
+        if (rollup.isPresent()) {
+            return ResponseEntity.ok(rollupService.history(
+                    RollupService.Series.KP_INDEX, source, rollup.get(), since, now));
+        }
         
-        List<MetricDTO> metrics = metricRepository.findRecentMetrics(source, since)
-                .stream()
-                .map(metric -> MetricDTO.builder()
-                        .id(metric.getId())
-                        .timestamp(metric.getTimestamp())
-                        .source(metric.getSource())
-                        .metricType(metric.getMetricType())
-                        .kpIndex(metric.getKpIndex())
-                        .cmeClass(metric.getCmeClass())
-                        .speedKmh(metric.getSpeedKmh())
-                        .processedAt(metric.getProcessedAt())
-                        .build())
-                .collect(Collectors.toList());
+        KeysetPage<Map<String, Object>> metrics = keysetQueryRepository.findPage(Projections.METRIC,
+                (root, query, cb) -> cb.and(
+                        cb.equal(root.get("source"), source),
+                        cb.greaterThanOrEqualTo(root.get("timestamp"), since)),
+                page);
         
         return ResponseEntity.ok(metrics);
     }
 
+    /**
+     * Upstream response a metric was parsed from, by the rawPayloadHash of the metric
+     */
+    @GetMapping(value = "/raw-payloads/{hash}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getRawPayload(@PathVariable String hash) {
+        return rawPayloadService.findContent(hash)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Data Collector is running");
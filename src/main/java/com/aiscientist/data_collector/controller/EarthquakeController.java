@@ -1,19 +1,31 @@
 package com.aiscientist.data_collector.controller;
 
+import com.aiscientist.data_collector.dto.EarthquakeEvent;
+import com.aiscientist.data_collector.dto.KeysetPage;
+import com.aiscientist.data_collector.dto.KeysetPageRequest;
 import com.aiscientist.data_collector.model.EarthquakeMetric;
 import com.aiscientist.data_collector.repository.EarthquakeRepository;
+import com.aiscientist.data_collector.repository.KeysetQueryRepository;
+import com.aiscientist.data_collector.repository.Projections;
 import com.aiscientist.data_collector.service.EarthquakeCollectionService;
+import com.aiscientist.data_collector.service.LiveEventStream;
+import com.aiscientist.data_collector.util.GeoUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * REST API controller for earthquake monitoring
@@ -26,6 +38,8 @@ public class EarthquakeController {
 
     private final EarthquakeCollectionService earthquakeCollectionService;
     private final EarthquakeRepository earthquakeRepository;
+    private final KeysetQueryRepository keysetQueryRepository;
+    private final LiveEventStream<EarthquakeEvent> earthquakeLiveStream;
 
     /**
      * Health check endpoint
@@ -84,17 +98,41 @@ public class EarthquakeController {
         ));
     }
 
+    /**
+     * Live earthquakes as server-sent events named by event type (earthquake.alert, tsunami.warning, ...).
+     * overflow=latest keeps the newest events for a slow client, overflow=drop the oldest.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<EarthquakeEvent>> streamEarthquakes(
+            @RequestParam(required = false) Double minMagnitude,
+            @RequestParam(defaultValue = "latest") String overflow) {
+        return earthquakeLiveStream.subscribeSse(streamFilter(minMagnitude), LiveEventStream.Overflow.parse(overflow),
+                event -> event.getEventType() != null ? event.getEventType() : "earthquake.data");
+    }
+
+    /**
+     * Live earthquakes as newline-delimited JSON, same filters as the SSE stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<EarthquakeEvent> streamEarthquakesNdjson(
+            @RequestParam(required = false) Double minMagnitude,
+            @RequestParam(defaultValue = "latest") String overflow) {
+        return earthquakeLiveStream.subscribe(streamFilter(minMagnitude), LiveEventStream.Overflow.parse(overflow));
+    }
+
     /**
      * Get recent earthquakes
      */
     @GetMapping("/recent")
-    public ResponseEntity<List<EarthquakeMetric>> getRecentEarthquakes(
-            @RequestParam(defaultValue = "24") int hours) {
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getRecentEarthquakes(
+            @RequestParam(defaultValue = "24") int hours,
+            KeysetPageRequest page) {
         
         Instant since = Instant.now().minus(hours, ChronoUnit.HOURS);
-        List<EarthquakeMetric> earthquakes = earthquakeRepository.findRecentEarthquakes(since);
+        KeysetPage<Map<String, Object>> earthquakes = findPage(
+                (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("eventTime"), since), page);
         
-        log.info("Retrieved {} earthquakes from last {} hours", earthquakes.size(), hours);
+        log.info("Retrieved {} earthquakes from last {} hours", earthquakes.getItems().size(), hours);
         return ResponseEntity.ok(earthquakes);
     }
 
@@ -102,13 +140,13 @@ public class EarthquakeController {
      * Get earthquakes by minimum magnitude
      */
     @GetMapping("/magnitude/{minMagnitude}")
-    public ResponseEntity<List<EarthquakeMetric>> getEarthquakesByMagnitude(
-            @PathVariable Double minMagnitude) {
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getEarthquakesByMagnitude(
+            @PathVariable Double minMagnitude,
+            KeysetPageRequest page) {
         
-        List<EarthquakeMetric> earthquakes = earthquakeRepository
-                .findByMagnitudeGreaterThanEqualOrderByEventTimeDesc(minMagnitude);
+        KeysetPage<Map<String, Object>> earthquakes = findPage(minMagnitude(minMagnitude), page);
         
-        log.info("Retrieved {} earthquakes with magnitude >= {}", earthquakes.size(), minMagnitude);
+        log.info("Retrieved {} earthquakes with magnitude >= {}", earthquakes.getItems().size(), minMagnitude);
         return ResponseEntity.ok(earthquakes);
     }
 
@@ -116,9 +154,9 @@ public class EarthquakeController {
      * Get dangerous earthquakes (magnitude >= 5.0)
      */
     @GetMapping("/dangerous")
-    public ResponseEntity<List<EarthquakeMetric>> getDangerousEarthquakes() {
-        List<EarthquakeMetric> earthquakes = earthquakeRepository.findDangerousEarthquakes();
-        log.info("Retrieved {} dangerous earthquakes", earthquakes.size());
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getDangerousEarthquakes(KeysetPageRequest page) {
+        KeysetPage<Map<String, Object>> earthquakes = findPage(minMagnitude(5.0), page);
+        log.info("Retrieved {} dangerous earthquakes", earthquakes.getItems().size());
         return ResponseEntity.ok(earthquakes);
     }
 
@@ -126,9 +164,9 @@ public class EarthquakeController {
      * Get catastrophic earthquakes (magnitude >= 7.0)
      */
     @GetMapping("/catastrophic")
-    public ResponseEntity<List<EarthquakeMetric>> getCatastrophicEarthquakes() {
-        List<EarthquakeMetric> earthquakes = earthquakeRepository.findCatastrophicEarthquakes();
-        log.info("Retrieved {} catastrophic earthquakes", earthquakes.size());
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getCatastrophicEarthquakes(KeysetPageRequest page) {
+        KeysetPage<Map<String, Object>> earthquakes = findPage(minMagnitude(7.0), page);
+        log.info("Retrieved {} catastrophic earthquakes", earthquakes.getItems().size());
         return ResponseEntity.ok(earthquakes);
     }
 
@@ -136,9 +174,10 @@ public class EarthquakeController {
      * Get earthquakes with tsunami warnings
      */
     @GetMapping("/tsunami-warnings")
-    public ResponseEntity<List<EarthquakeMetric>> getTsunamiWarnings() {
-        List<EarthquakeMetric> earthquakes = earthquakeRepository.findByTsunamiWarningTrueOrderByEventTimeDesc();
-        log.info("Retrieved {} earthquakes with tsunami warnings", earthquakes.size());
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getTsunamiWarnings(KeysetPageRequest page) {
+        KeysetPage<Map<String, Object>> earthquakes = findPage(
+                (root, query, cb) -> cb.isTrue(root.get("tsunamiWarning")), page);
+        log.info("Retrieved {} earthquakes with tsunami warnings", earthquakes.getItems().size());
         return ResponseEntity.ok(earthquakes);
     }
 
@@ -146,13 +185,16 @@ public class EarthquakeController {
      * Get earthquakes in a specific region
      */
     @GetMapping("/region/{regionName}")
-    public ResponseEntity<List<EarthquakeMetric>> getEarthquakesByRegion(
-            @PathVariable String regionName) {
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getEarthquakesByRegion(
+            @PathVariable String regionName,
+            KeysetPageRequest page) {
         
-        List<EarthquakeMetric> earthquakes = earthquakeRepository
-                .findByRegionContainingIgnoreCaseOrderByEventTimeDesc(regionName);
+        String pattern = "%" + regionName.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        KeysetPage<Map<String, Object>> earthquakes = findPage(
+                (root, query, cb) -> cb.like(cb.lower(root.get("region")), pattern, '\\'), page);
         
-        log.info("Retrieved {} earthquakes in region: {}", earthquakes.size(), regionName);
+        log.info("Retrieved {} earthquakes in region: {}", earthquakes.getItems().size(), regionName);
         return ResponseEntity.ok(earthquakes);
     }
 
@@ -160,36 +202,36 @@ public class EarthquakeController {
      * Get earthquakes by alert level
      */
     @GetMapping("/alert/{alertLevel}")
-    public ResponseEntity<List<EarthquakeMetric>> getEarthquakesByAlertLevel(
-            @PathVariable String alertLevel) {
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getEarthquakesByAlertLevel(
+            @PathVariable String alertLevel,
+            KeysetPageRequest page) {
         
-        List<EarthquakeMetric> earthquakes = earthquakeRepository
-                .findByAlertLevelOrderByEventTimeDesc(alertLevel);
+        KeysetPage<Map<String, Object>> earthquakes = findPage(
+                (root, query, cb) -> cb.equal(root.get("alertLevel"), alertLevel), page);
         
-        log.info("Retrieved {} earthquakes with alert level: {}", earthquakes.size(), alertLevel);
+        log.info("Retrieved {} earthquakes with alert level: {}", earthquakes.getItems().size(), alertLevel);
         return ResponseEntity.ok(earthquakes);
     }
 
     /**
-     * Get earthquakes near a location (within bounding box)
+     * Get earthquakes within a great-circle radius of a location.
+     * radiusKm takes precedence; radiusDegrees is kept for existing clients (1° = 111.2 km).
      */
     @GetMapping("/location/nearby")
-    public ResponseEntity<List<EarthquakeMetric>> getNearbyEarthquakes(
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getNearbyEarthquakes(
             @RequestParam Double latitude,
             @RequestParam Double longitude,
-            @RequestParam(defaultValue = "5.0") Double radiusDegrees) {
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "5.0") Double radiusDegrees,
+            KeysetPageRequest page) {
         
-        // Calculate bounding box
-        Double minLat = latitude - radiusDegrees;
-        Double maxLat = latitude + radiusDegrees;
-        Double minLon = longitude - radiusDegrees;
-        Double maxLon = longitude + radiusDegrees;
+        double radius = radiusKm != null ? radiusKm : radiusDegrees * GeoUtils.KM_PER_DEGREE;
         
-        List<EarthquakeMetric> earthquakes = earthquakeRepository.findEarthquakesInBoundingBox(
-                minLat, maxLat, minLon, maxLon);
+        KeysetPage<Map<String, Object>> earthquakes = findPage(
+                EarthquakeRepository.withinRadius(latitude, longitude, radius), page);
         
-        log.info("Retrieved {} earthquakes near ({}, {}) within {}°", 
-                earthquakes.size(), latitude, longitude, radiusDegrees);
+        log.info("Retrieved {} earthquakes within {} km of ({}, {})", 
+                earthquakes.getItems().size(), Math.round(radius), latitude, longitude);
         return ResponseEntity.ok(earthquakes);
     }
 
@@ -197,9 +239,10 @@ public class EarthquakeController {
      * Get shallow earthquakes (depth < 70km) which cause more surface damage
      */
     @GetMapping("/shallow")
-    public ResponseEntity<List<EarthquakeMetric>> getShallowEarthquakes() {
-        List<EarthquakeMetric> earthquakes = earthquakeRepository.findShallowEarthquakes();
-        log.info("Retrieved {} shallow earthquakes", earthquakes.size());
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getShallowEarthquakes(KeysetPageRequest page) {
+        KeysetPage<Map<String, Object>> earthquakes = findPage(
+                (root, query, cb) -> cb.lessThan(root.get("depthKm"), 70.0), page);
+        log.info("Retrieved {} shallow earthquakes", earthquakes.getItems().size());
         return ResponseEntity.ok(earthquakes);
     }
 
@@ -260,23 +303,29 @@ public class EarthquakeController {
      * Get high tsunami risk earthquakes
      */
     @GetMapping("/tsunami-risk/high")
-    public ResponseEntity<List<Map<String, Object>>> getHighTsunamiRiskEarthquakes() {
-        List<EarthquakeMetric> allEarthquakes = earthquakeRepository
-                .findRecentEarthquakes(Instant.now().minus(30, ChronoUnit.DAYS));
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getHighTsunamiRiskEarthquakes(KeysetPageRequest page) {
+        Instant since = Instant.now().minus(30, ChronoUnit.DAYS);
+        Specification<EarthquakeMetric> recent = (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("eventTime"), since);
+        KeysetPage<Map<String, Object>> highRiskEarthquakes = findPage(
+                recent.and(EarthquakeRepository.minTsunamiRiskScore(50)), page);
         
-        List<Map<String, Object>> highRiskEarthquakes = allEarthquakes.stream()
-                .filter(eq -> eq.getTsunamiRiskScore() >= 50)
-                .map(eq -> Map.of(
-                        "earthquakeId", (Object) eq.getEarthquakeId(),
-                        "magnitude", eq.getMagnitude(),
-                        "location", eq.getLocation(),
-                        "tsunamiRiskScore", eq.getTsunamiRiskScore(),
-                        "tsunamiWarning", eq.getTsunamiWarning() != null ? eq.getTsunamiWarning() : false,
-                        "eventTime", eq.getEventTime()
-                ))
-                .toList();
-        
-        log.info("Retrieved {} high tsunami risk earthquakes", highRiskEarthquakes.size());
+        log.info("Retrieved {} high tsunami risk earthquakes", highRiskEarthquakes.getItems().size());
         return ResponseEntity.ok(highRiskEarthquakes);
     }
+
+    /**
+     * Keyset page of earthquakes, newest first, without materializing entities
+     */
+    private KeysetPage<Map<String, Object>> findPage(Specification<EarthquakeMetric> filter, KeysetPageRequest page) {
+        return keysetQueryRepository.findPage(Projections.EARTHQUAKE, filter, page);
+    }
+
+    private static Predicate<EarthquakeEvent> streamFilter(Double minMagnitude) {
+        return event -> minMagnitude == null
+                || (event.getMagnitude() != null && event.getMagnitude() >= minMagnitude);
+    }
+
+    private static Specification<EarthquakeMetric> minMagnitude(double magnitude) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("magnitude"), magnitude);
+    }
 }
@@ -0,0 +1,59 @@
+package com.aiscientist.data_collector.controller;
+
+import com.aiscientist.data_collector.exception.InvalidRequestException;
+import com.aiscientist.data_collector.service.ArrowExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+
+/**
+ * Bulk download of history as a compressed Arrow IPC stream, e.g. in Python:
+ * {@code pyarrow.ipc.open_stream(urlopen(url)).read_pandas()}
+ */
+@RestController
+@RequestMapping("/api/v1/export")
+@RequiredArgsConstructor
+@Slf4j
+public class ExportController {
+
+    private final ArrowExportService arrowExportService;
+
+    /**
+     * Rows of a dataset (water-level, earthquakes, metrics) with time in [from, to), oldest first.
+     * Streamed while the query runs, so any range is served in constant memory.
+     */
+    @GetMapping("/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String dataset,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "zstd") String compression) {
+
+        ArrowExportService.Dataset source = ArrowExportService.Dataset.fromPath(dataset);
+        ArrowExportService.Compression codec = ArrowExportService.Compression.parse(compression);
+        Instant end = to != null ? to : Instant.now();
+        if (!from.isBefore(end)) {
+            throw new InvalidRequestException("from must be before to");
+        }
+        log.info("Exporting {} from {} to {} ({})", dataset, from, end, codec);
+
+        String filename = dataset + "_" + from + "_" + end + ".arrows";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ArrowExportService.MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename.replace(':', '-')).build().toString())
+                .body(out -> arrowExportService.export(source, from, end, codec, out));
+    }
+}
@@ -0,0 +1,30 @@
+package com.aiscientist.data_collector.controller;
+
+import com.aiscientist.data_collector.kafka.FileSchemaRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Read side of the file-backed schema registry, shaped like the Confluent schema registry API
+ * so consumers of Avro-encoded topics can resolve the schema id in each message
+ */
+@RestController
+@RequestMapping("/api/v1/schemas")
+@RequiredArgsConstructor
+public class SchemaRegistryController {
+
+    private final FileSchemaRegistry schemaRegistry;
+
+    @GetMapping("/ids/{id}")
+    public ResponseEntity<Map<String, String>> getSchema(@PathVariable int id) {
+        return schemaRegistry.findById(id)
+                .map(schema -> ResponseEntity.ok(Map.of("schema", schema.toString())))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,20 +1,36 @@
 package com.aiscientist.data_collector.controller;
 
+import com.aiscientist.data_collector.dto.KeysetPage;
+import com.aiscientist.data_collector.dto.KeysetPageRequest;
+import com.aiscientist.data_collector.dto.WaterLevelEvent;
+import com.aiscientist.data_collector.model.RollupResolution;
 import com.aiscientist.data_collector.model.WaterLevelMetric;
+import com.aiscientist.data_collector.repository.KeysetQueryRepository;
+import com.aiscientist.data_collector.repository.Projections;
 import com.aiscientist.data_collector.repository.WaterLevelMetricRepository;
+import com.aiscientist.data_collector.service.LiveEventStream;
 import com.aiscientist.data_collector.service.NoaaTidesApiService;
+import com.aiscientist.data_collector.service.RollupService;
+import com.aiscientist.data_collector.service.StationStateStore;
 import com.aiscientist.data_collector.service.UsgsWaterApiService;
 import com.aiscientist.data_collector.service.WaterLevelCollectionService;
+import com.aiscientist.data_collector.util.GeoUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * REST API controller for water level and flood monitoring
@@ -26,9 +42,13 @@ import java.util.Map;
 public class WaterLevelController {
 
     private final WaterLevelMetricRepository waterLevelRepository;
+    private final KeysetQueryRepository keysetQueryRepository;
     private final WaterLevelCollectionService waterLevelCollectionService;
     private final NoaaTidesApiService noaaTidesApiService;
     private final UsgsWaterApiService usgsWaterApiService;
+    private final StationStateStore stationStateStore;
+    private final RollupService rollupService;
+    private final LiveEventStream<WaterLevelEvent> waterLevelLiveStream;
 
     /**
      * Manual trigger to collect water level data from all sources
@@ -77,13 +97,39 @@ public class WaterLevelController {
     }
 
     /**
-     * Get all stations currently in flood condition
+     * Live readings as server-sent events, named flood.alert for flooding stations and water-level otherwise.
+     * overflow=latest keeps the newest readings for a slow client, overflow=drop the oldest.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<WaterLevelEvent>> streamWaterLevels(
+            @RequestParam(required = false) String stationId,
+            @RequestParam(defaultValue = "false") boolean floodingOnly,
+            @RequestParam(defaultValue = "latest") String overflow) {
+        return waterLevelLiveStream.subscribeSse(streamFilter(stationId, floodingOnly),
+            LiveEventStream.Overflow.parse(overflow),
+            event -> event.isFlooding() ? "flood.alert" : "water-level");
+    }
+
+    /**
+     * Live readings as newline-delimited JSON, same filters as the SSE stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<WaterLevelEvent> streamWaterLevelsNdjson(
+            @RequestParam(required = false) String stationId,
+            @RequestParam(defaultValue = "false") boolean floodingOnly,
+            @RequestParam(defaultValue = "latest") String overflow) {
+        return waterLevelLiveStream.subscribe(streamFilter(stationId, floodingOnly),
+            LiveEventStream.Overflow.parse(overflow));
+    }
+
+    /**
+     * Get all stations currently in flood condition (served from the in-memory station state)
      */
     @GetMapping("/flooding")
     public ResponseEntity<List<WaterLevelMetric>> getFloodingStations() {
-        log.info("Fetching all stations currently flooding");
+        log.debug("Fetching all stations currently flooding");
         
-        List<WaterLevelMetric> flooding = waterLevelRepository.findCurrentlyFlooding();
+        List<WaterLevelMetric> flooding = stationStateStore.findFlooding();
         
         return ResponseEntity.ok(flooding);
     }
@@ -94,25 +140,46 @@ public class WaterLevelController {
     @GetMapping("/station/{stationId}/latest")
     public ResponseEntity<WaterLevelMetric> getLatestWaterLevel(
             @PathVariable String stationId) {
-        log.info("Fetching latest water level for station: {}", stationId);
+        log.debug("Fetching latest water level for station: {}", stationId);
         
-        return waterLevelRepository.findFirstByStationIdOrderByTimestampDesc(stationId)
+        return stationStateStore.getLatest(stationId)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Get water level history for a specific station
+     * Get water level history for a specific station.
+     * With a resolution (e.g. 1h, 6h, 1d) the coarsest hourly/daily rollup no wider than it is
+     * returned instead of raw readings; windows older than the raw retention always use rollups.
+     * Raw readings are keyset-paginated (cursor, limit, fields).
      */
     @GetMapping("/station/{stationId}/history")
-    public ResponseEntity<List<WaterLevelMetric>> getWaterLevelHistory(
+    public ResponseEntity<?> getWaterLevelHistory(
             @PathVariable String stationId,
-            @RequestParam(required = false, defaultValue = "24") int hours) {
-        log.info("Fetching water level history for station {} (last {} hours)", stationId, hours);
+            @RequestParam(required = false, defaultValue = "24") int hours,
+            @RequestParam(required = false) String resolution,
+            KeysetPageRequest page) {
+        log.info("Fetching water level history for station {} (last {} hours, resolution {})",
+            stationId, hours, resolution);
         
-        Instant since = Instant.now().minus(hours, ChronoUnit.HOURS);
-        List<WaterLevelMetric> history = waterLevelRepository
-            .findByStationIdAndTimestampBetweenOrderByTimestampDesc(stationId, since, Instant.now());
+        Duration requested;
+        try {
+            requested = RollupService.parseResolution(resolution);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        Instant now = Instant.now();
+        Instant since = now.minus(hours, ChronoUnit.HOURS);
+        Optional<RollupResolution> rollup = rollupService.resolve(RollupService.Series.WATER_LEVEL, requested, since);
+        if (rollup.isPresent()) {
+            return ResponseEntity.ok(rollupService.history(
+                RollupService.Series.WATER_LEVEL, stationId, rollup.get(), since, now));
+        }
+        KeysetPage<Map<String, Object>> history = keysetQueryRepository.findPage(Projections.WATER_LEVEL,
+            (root, query, cb) -> cb.and(
+                cb.equal(root.get("stationId"), stationId),
+                cb.between(root.get("timestamp"), since, now)),
+            page);
         
         return ResponseEntity.ok(history);
     }
@@ -121,14 +188,18 @@ public class WaterLevelController {
      * Get water levels by location type
      */
     @GetMapping("/type/{locationType}")
-    public ResponseEntity<List<WaterLevelMetric>> getByLocationType(
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getByLocationType(
             @PathVariable String locationType,
-            @RequestParam(required = false, defaultValue = "24") int hours) {
+            @RequestParam(required = false, defaultValue = "24") int hours,
+            KeysetPageRequest page) {
         log.info("Fetching water levels for location type: {}", locationType);
         
         Instant since = Instant.now().minus(hours, ChronoUnit.HOURS);
-        List<WaterLevelMetric> metrics = waterLevelRepository
-            .findByLocationTypeAndTimestampBetweenOrderByTimestampDesc(locationType, since, Instant.now());
+        KeysetPage<Map<String, Object>> metrics = keysetQueryRepository.findPage(Projections.WATER_LEVEL,
+            (root, query, cb) -> cb.and(
+                cb.equal(root.get("locationType"), locationType),
+                cb.between(root.get("timestamp"), since, Instant.now())),
+            page);
         
         return ResponseEntity.ok(metrics);
     }
@@ -137,35 +208,36 @@ public class WaterLevelController {
      * Get water levels by source
      */
     @GetMapping("/source/{source}")
-    public ResponseEntity<List<WaterLevelMetric>> getBySource(
+    public ResponseEntity<KeysetPage<Map<String, Object>>> getBySource(
             @PathVariable String source,
-            @RequestParam(required = false, defaultValue = "24") int hours) {
+            @RequestParam(required = false, defaultValue = "24") int hours,
+            KeysetPageRequest page) {
         log.info("Fetching water levels from source: {}", source);
         
         Instant since = Instant.now().minus(hours, ChronoUnit.HOURS);
-        List<WaterLevelMetric> metrics = waterLevelRepository
-            .findBySourceAndTimestampAfterOrderByTimestampDesc(source, since);
+        KeysetPage<Map<String, Object>> metrics = keysetQueryRepository.findPage(Projections.WATER_LEVEL,
+            (root, query, cb) -> cb.and(
+                cb.equal(root.get("source"), source),
+                cb.greaterThan(root.get("timestamp"), since)),
+            page);
         
         return ResponseEntity.ok(metrics);
     }
 
     /**
-     * Get stations near a geographic location
+     * Get stations within a great-circle radius of a location.
+     * radiusKm takes precedence; radiusDegrees is kept for existing clients (1° = 111.2 km).
      */
     @GetMapping("/nearby")
     public ResponseEntity<List<WaterLevelMetric>> getStationsNearby(
             @RequestParam double latitude,
             @RequestParam double longitude,
+            @RequestParam(required = false) Double radiusKm,
             @RequestParam(defaultValue = "1.0") double radiusDegrees) {
-        log.info("Fetching stations near lat={}, lon={}, radius={}", latitude, longitude, radiusDegrees);
+        double radius = radiusKm != null ? radiusKm : radiusDegrees * GeoUtils.KM_PER_DEGREE;
+        log.debug("Fetching stations within {} km of lat={}, lon={}", radius, latitude, longitude);
         
-        double minLat = latitude - radiusDegrees;
-        double maxLat = latitude + radiusDegrees;
-        double minLon = longitude - radiusDegrees;
-        double maxLon = longitude + radiusDegrees;
-        
-        List<WaterLevelMetric> stations = waterLevelRepository
-            .findStationsInBoundingBox(minLat, maxLat, minLon, maxLon);
+        List<WaterLevelMetric> stations = stationStateStore.findWithinRadius(latitude, longitude, radius);
         
         return ResponseEntity.ok(stations);
     }
@@ -179,7 +251,7 @@ public class WaterLevelController {
         
         Instant last30Min = Instant.now().minus(30, ChronoUnit.MINUTES);
         long activeStations = waterLevelRepository.countActiveStationsSince(last30Min);
-        long floodingCount = waterLevelRepository.findCurrentlyFlooding().size();
+        long floodingCount = stationStateStore.findFlooding().size();
         
         return ResponseEntity.ok(Map.of(
             "activeStations", activeStations,
@@ -200,4 +272,9 @@ public class WaterLevelController {
             "service", "water-level-api"
         ));
     }
+
+    private static Predicate<WaterLevelEvent> streamFilter(String stationId, boolean floodingOnly) {
+        return event -> (stationId == null || stationId.equals(event.getStationId()))
+            && (!floodingOnly || event.isFlooding());
+    }
 }
@@ -3,6 +3,8 @@ package com.aiscientist.data_collector.dto;
 import java.time.Instant;
 import java.util.List;
 
+import org.apache.avro.reflect.AvroName;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
@@ -11,15 +13,17 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class CMEEvent {
     
     @JsonProperty("activity_id")
+    @AvroName("activity_id")
     private String activityId;
     
     @JsonProperty("start_time")
+    @AvroName("start_time")
     private String startTime;
     
     private Integer speed;
@@ -27,19 +31,37 @@ public class CMEEvent {
     private String type;
     
     @JsonProperty("source_location")
+    @AvroName("source_location")
     private String sourceLocation;
     
     @JsonProperty("catalog")
     private String catalog;
     
     @JsonProperty("cme_analyses")
+    @AvroName("cme_analyses")
     private List<CMEAnalysis> cmeAnalyses;
     
+    /**
+     * SHA-256 (hex) of the DONKI cmeAnalyses array; changes when NASA revises the analyses
+     */
+    @JsonProperty("analyses_hash")
+    @AvroName("analyses_hash")
+    private String analysesHash;
+    
     private String source;
     private Instant timestamp;
     
     @JsonProperty("raw_data")
+    @AvroName("raw_data")
     private String rawData;
+
+    /**
+     * SHA-256 of rawData; the payload is served at /api/v1/collector/raw-payloads/{hash} once the
+     * row is flushed, so events can reference it instead of embedding it
+     */
+    @JsonProperty("raw_payload_hash")
+    @AvroName("raw_payload_hash")
+    private String rawPayloadHash;
     
     @Data
     @NoArgsConstructor
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.With;
 
 import java.time.Instant;
 
@@ -122,7 +123,9 @@ public class EarthquakeEvent {
     private Instant collectedAt;
 
     /**
-     * Event type: data or alert
+     * Event type: data or alert.
+     * Routed variants are copies via withEventType, never mutations of an event already sent.
      */
+    @With
     private String eventType;
 }
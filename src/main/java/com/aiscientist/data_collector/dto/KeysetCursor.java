@@ -0,0 +1,39 @@
+package com.aiscientist.data_collector.dto;
+
+import com.aiscientist.data_collector.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a page, ordered by (time DESC, id DESC).
+ * Travels as an opaque URL-safe token.
+ */
+public record KeysetCursor(Instant time, long id) {
+
+    public String encode() {
+        String raw = time.getEpochSecond() + "." + time.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or null for a missing one (first page)
+     * @throws InvalidRequestException when the token was not produced by {@link #encode}
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int dot = raw.indexOf('.');
+            int colon = raw.indexOf(':');
+            Instant time = Instant.ofEpochSecond(Long.parseLong(raw.substring(0, dot)),
+                    Long.parseLong(raw.substring(dot + 1, colon)));
+            return new KeysetCursor(time, Long.parseLong(raw.substring(colon + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidRequestException("Malformed cursor: " + token);
+        }
+    }
+}
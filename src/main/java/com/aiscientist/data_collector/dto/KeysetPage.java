@@ -0,0 +1,29 @@
+package com.aiscientist.data_collector.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated result; pass nextCursor back as ?cursor= for the following page
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    private List<T> items;
+
+    /**
+     * Cursor of the next page, null on the last page
+     */
+    private String nextCursor;
+
+    private boolean hasMore;
+
+    private int limit;
+}
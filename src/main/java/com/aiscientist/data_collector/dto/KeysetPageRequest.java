@@ -0,0 +1,38 @@
+package com.aiscientist.data_collector.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Query parameters of a keyset-paginated endpoint: ?cursor=...&amp;limit=100&amp;fields=id,magnitude
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageRequest {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * nextCursor of the previous page; absent for the first page
+     */
+    private String cursor;
+
+    private int limit = DEFAULT_LIMIT;
+
+    /**
+     * Fields to return; absent returns the default projection
+     */
+    private List<String> fields;
+
+    /**
+     * Requested page size clamped to 1..{@link #MAX_LIMIT}
+     */
+    public int effectiveLimit() {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -2,6 +2,8 @@ package com.aiscientist.data_collector.dto;
 
 import java.time.Instant;
 
+import org.apache.avro.reflect.AvroName;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
@@ -10,23 +12,35 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class KpIndexEvent {
     
     @JsonProperty("time_tag")
+    @AvroName("time_tag")
     private String timeTag;
     
     @JsonProperty("kp_index")
+    @AvroName("kp_index")
     private Double kpIndex;
     
     @JsonProperty("estimated_kp")
+    @AvroName("estimated_kp")
     private Double estimatedKp;
     
     private String source;
     private Instant timestamp;
     
     @JsonProperty("raw_data")
+    @AvroName("raw_data")
     private String rawData;
+
+    /**
+     * SHA-256 of rawData; the payload is served at /api/v1/collector/raw-payloads/{hash} once the
+     * row is flushed, so events can reference it instead of embedding it
+     */
+    @JsonProperty("raw_payload_hash")
+    @AvroName("raw_payload_hash")
+    private String rawPayloadHash;
 }
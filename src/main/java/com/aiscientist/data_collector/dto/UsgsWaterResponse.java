@@ -30,6 +30,7 @@ public class UsgsWaterResponse {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class TimeSeries {
+        private String name;         // "USGS:<siteCode>:<parameterCd>:<statCd>"
         private SourceInfo sourceInfo;
         private Variable variable;
         private TimeSeriesValue[] values;
@@ -40,11 +41,21 @@ public class UsgsWaterResponse {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class SourceInfo {
-        private String siteCode;
+        private SiteCode[] siteCode;
         private String siteName;
         private GeoLocation geoLocation;
     }
 
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SiteCode {
+        private String value;        // Site number, e.g. "01646500"
+        private String network;
+        private String agencyCode;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -67,10 +78,27 @@ public class UsgsWaterResponse {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class Variable {
-        private String variableCode;
+        private VariableCode[] variableCode;
         private String variableName;
         private String variableDescription;
-        private String unit;
+        private Unit unit;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class VariableCode {
+        private String value;        // Parameter code, e.g. "00065"
+        private String network;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Unit {
+        private String unitCode;
     }
 
     @Data
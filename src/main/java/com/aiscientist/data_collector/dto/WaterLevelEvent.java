@@ -1,5 +1,7 @@
 package com.aiscientist.data_collector.dto;
 
+import org.apache.avro.reflect.AvroName;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -30,6 +32,7 @@ public class WaterLevelEvent {
     private Double gageHeightFeet;
     private Double floodStageFeet;
     private String floodSeverity;
+    @AvroName("flooding")
     private boolean isFlooding;
     private String qualityCode;
 }
@@ -0,0 +1,11 @@
+package com.aiscientist.data_collector.exception;
+
+/**
+ * A query parameter the client can fix, e.g. an unknown field or a malformed cursor; answered with 400
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
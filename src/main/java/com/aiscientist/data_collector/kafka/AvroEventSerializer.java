@@ -0,0 +1,87 @@
+package com.aiscientist.data_collector.kafka;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Avro binary in the Confluent wire format: magic byte 0, the 4-byte big-endian schema id from
+ * {@link FileSchemaRegistry}, then the datum.
+ *
+ * The schema of an event class is src/main/resources/avro/&lt;SimpleName&gt;.avsc. Its field names are
+ * the event's JSON property names, so both formats carry the same fields. The datum is written
+ * straight from the event's fields by reflection; a field whose JSON name differs from its Java
+ * name carries an {@link org.apache.avro.reflect.AvroName}. Instants are written as epoch
+ * milliseconds (timestamp-millis).
+ */
+@Component
+@RequiredArgsConstructor
+public class AvroEventSerializer implements EventSerializer {
+
+    private static final byte MAGIC_BYTE = 0;
+
+    private final FileSchemaRegistry schemaRegistry;
+
+    private static final ReflectData REFLECT_DATA = new ReflectData();
+
+    static {
+        REFLECT_DATA.addLogicalTypeConversion(new TimeConversions.TimestampMillisConversion());
+    }
+
+    private final Map<Class<?>, Writer> writers = new ConcurrentHashMap<>();
+
+    private record Writer(int schemaId, Schema schema, ReflectDatumWriter<Object> datumWriter) {
+    }
+
+    @Override
+    public String format() {
+        return "avro";
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object event, Headers headers) {
+        Writer writer = writers.computeIfAbsent(event.getClass(), this::writer);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(MAGIC_BYTE);
+        out.writeBytes(ByteBuffer.allocate(Integer.BYTES).putInt(writer.schemaId()).array());
+        try {
+            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+            writer.datumWriter().write(event, encoder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cannot encode " + event.getClass().getSimpleName()
+                    + " as " + writer.schema().getFullName() + ": " + e.getMessage(), e);
+        }
+        return out.toByteArray();
+    }
+
+    private Writer writer(Class<?> eventClass) {
+        String resource = "/avro/" + eventClass.getSimpleName() + ".avsc";
+        try (InputStream in = AvroEventSerializer.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No Avro schema " + resource + " for " + eventClass.getName());
+            }
+            Schema schema = new Schema.Parser().parse(in);
+            return new Writer(schemaRegistry.register(schema), schema, new ReflectDatumWriter<>(schema, REFLECT_DATA));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read Avro schema " + resource, e);
+        }
+    }
+}
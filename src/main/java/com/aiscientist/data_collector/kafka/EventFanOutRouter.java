@@ -0,0 +1,120 @@
+package com.aiscientist.data_collector.kafka;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.aiscientist.data_collector.model.OutboxEvent;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Publishes events as pre-serialized records, encoded by the {@link EventSerializer} of each topic.
+ *
+ * For a routing table, each distinct variant is serialized once per format and the bytes are
+ * shared by all topics it goes to.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventFanOutRouter {
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final EventSerializers eventSerializers;
+
+    /**
+     * Send the event to all matching routes, in table order, without waiting for the broker;
+     * failed sends are counted by PublishMetricsListener
+     *
+     * @return the variant sent to the last matching route (the most specific one), or the event
+     * itself if no route matched
+     */
+    public <T> T route(List<FanOutRoute<T>> routes, T event, String key) {
+        return route(routes, event, key, new ArrayList<>(routes.size()));
+    }
+
+    /**
+     * {@link #route}, completing with the routed variant once the broker has acknowledged or
+     * failed every record. Sends may block on producer buffer space, so subscribe to this off
+     * the event loop (see KafkaPublishStage).
+     */
+    public <T> Mono<T> publish(List<FanOutRoute<T>> routes, T event, String key) {
+        return Mono.defer(() -> {
+            List<CompletableFuture<?>> acks = new ArrayList<>(routes.size());
+            T routed = route(routes, event, key, acks);
+            return Mono.fromFuture(CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new))
+                    .handle((ignored, error) -> routed));
+        });
+    }
+
+    private <T> T route(List<FanOutRoute<T>> routes, T event, String key, List<CompletableFuture<?>> acks) {
+        Map<Encoding, Serialized> serialized = new HashMap<>(4);
+        T last = event;
+        for (FanOutRoute<T> route : routes) {
+            if (!route.matches().test(event)) {
+                continue;
+            }
+            T variant = route.variant().apply(event);
+            EventSerializer serializer = eventSerializers.forTopic(route.topic());
+            Serialized value = serialized.computeIfAbsent(new Encoding(variant, serializer),
+                    encoding -> serialize(serializer, route.topic(), variant));
+            acks.add(send(route.topic(), key, value));
+            last = variant;
+        }
+        return last;
+    }
+
+    /**
+     * Encode the event for a topic as an outbox record, to be written with the rows it describes
+     * and published later by OutboxRelay
+     */
+    public OutboxEvent toOutbox(String topic, String key, Object event) {
+        Serialized value = serialize(eventSerializers.forTopic(topic), topic, event);
+        Map<String, byte[]> headers = new LinkedHashMap<>();
+        for (Header header : value.headers()) {
+            headers.put(header.key(), header.value());
+        }
+        return OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payload(value.bytes())
+                .headers(headers)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private Serialized serialize(EventSerializer serializer, String topic, Object event) {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] bytes = serializer.serialize(topic, event, headers);
+        return new Serialized(bytes, headers.toArray());
+    }
+
+    private CompletableFuture<?> send(String topic, String key, Serialized value) {
+        // Headers are per record: the producer marks them read-only once sent
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, null, key, value.bytes(),
+                new RecordHeaders(value.headers()));
+        try {
+            return kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            // Immediate failure (e.g. no metadata within max.block.ms), already seen by the listener;
+            // the remaining routes are still attempted
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private record Encoding(Object event, EventSerializer serializer) {
+    }
+
+    private record Serialized(byte[] bytes, Header[] headers) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.aiscientist.data_collector.kafka;
+
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Encoding of outgoing events, selected per topic by name through app.kafka.serialization
+ */
+public interface EventSerializer {
+
+    /**
+     * Name used in app.kafka.serialization, e.g. json or avro
+     */
+    String format();
+
+    /**
+     * Value bytes of the event; may add the headers consumers of this format need
+     */
+    byte[] serialize(String topic, Object event, Headers headers);
+}
@@ -0,0 +1,49 @@
+package com.aiscientist.data_collector.kafka;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.aiscientist.data_collector.config.AppConfig;
+
+/**
+ * Picks the {@link EventSerializer} of each topic from app.kafka.serialization.
+ * Unknown formats fail at startup rather than on the first send.
+ */
+@Component
+public class EventSerializers {
+
+    private final Map<String, EventSerializer> serializersByFormat;
+    private final EventSerializer defaultSerializer;
+    private final Map<String, EventSerializer> serializersByTopic;
+
+    @Autowired
+    public EventSerializers(List<EventSerializer> serializers, AppConfig config) {
+        this(serializers, config.getKafka().getSerialization());
+    }
+
+    EventSerializers(List<EventSerializer> serializers, AppConfig.KafkaTopicsConfig.SerializationConfig settings) {
+        this.serializersByFormat = serializers.stream()
+                .collect(Collectors.toMap(EventSerializer::format, Function.identity()));
+        this.defaultSerializer = lookup(settings.getDefaultFormat(), "default-format");
+        this.serializersByTopic = settings.getFormats().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> lookup(entry.getValue(), entry.getKey())));
+    }
+
+    public EventSerializer forTopic(String topic) {
+        return serializersByTopic.getOrDefault(topic, defaultSerializer);
+    }
+
+    private EventSerializer lookup(String format, String setting) {
+        EventSerializer serializer = serializersByFormat.get(format);
+        if (serializer == null) {
+            throw new IllegalStateException("Unknown event format '" + format + "' for " + setting
+                    + ", expected one of " + serializersByFormat.keySet());
+        }
+        return serializer;
+    }
+}
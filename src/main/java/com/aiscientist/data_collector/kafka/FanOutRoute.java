@@ -0,0 +1,44 @@
+package com.aiscientist.data_collector.kafka;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * One row of a fan-out routing table: events matching the rule go to the topic as the given variant.
+ * Variants must return a copy (or the event itself), never mutate it.
+ */
+public record FanOutRoute<T>(String topic, Predicate<? super T> matches, UnaryOperator<T> variant) {
+
+    /**
+     * Every event, unchanged
+     */
+    public static <T> FanOutRoute<T> always(String topic) {
+        return new FanOutRoute<>(topic, event -> true, UnaryOperator.identity());
+    }
+
+    /**
+     * Matching events, unchanged
+     */
+    public static <T> FanOutRoute<T> when(String topic, Predicate<? super T> matches) {
+        return new FanOutRoute<>(topic, matches, UnaryOperator.identity());
+    }
+
+    public static <T> FanOutRoute<T> when(String topic, Predicate<? super T> matches, UnaryOperator<T> variant) {
+        return new FanOutRoute<>(topic, matches, variant);
+    }
+
+    /**
+     * The variant of the last route matching the event (the most specific one), or the event
+     * itself if no route matched
+     */
+    public static <T> T mostSpecific(List<FanOutRoute<T>> routes, T event) {
+        T last = event;
+        for (FanOutRoute<T> route : routes) {
+            if (route.matches().test(event)) {
+                last = route.variant().apply(event);
+            }
+        }
+        return last;
+    }
+}
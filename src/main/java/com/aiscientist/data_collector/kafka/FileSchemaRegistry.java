@@ -0,0 +1,142 @@
+package com.aiscientist.data_collector.kafka;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stand-in for a schema registry: a schema's id is derived from the 64-bit fingerprint of its
+ * parsing canonical form, so every instance and every restart assigns the same id to the same
+ * schema regardless of registration order. Schemas are stored as &lt;id&gt;.avsc in
+ * app.kafka.serialization.schema-registry-dir, which only consumers resolving ids need; keep it
+ * on a persistent volume shared with them (the Docker image declares /app/schema-registry).
+ * Files of other ids, such as sequential ids of earlier versions, remain readable.
+ */
+@Component
+@Slf4j
+public class FileSchemaRegistry {
+
+    private static final String EXTENSION = ".avsc";
+    // Ids looked up without a file; rechecked after a while, as another instance may register them
+    private static final int MAX_MISSING_IDS = 10_000;
+    private static final Duration MISSING_ID_RECHECK = Duration.ofMinutes(1);
+
+    private final Path directory;
+    private final Map<Integer, Schema> schemasById = new ConcurrentHashMap<>();
+    private final Cache<Integer, Boolean> missingIds = Caffeine.newBuilder()
+            .maximumSize(MAX_MISSING_IDS)
+            .expireAfterWrite(MISSING_ID_RECHECK)
+            .build();
+
+    @Autowired
+    public FileSchemaRegistry(AppConfig config) {
+        this(config.getKafka().getSerialization().getSchemaRegistryDir());
+    }
+
+    FileSchemaRegistry(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Id of the schema, registering it if new
+     *
+     * @throws IllegalStateException if a different schema is registered under the same id
+     */
+    public synchronized int register(Schema schema) {
+        int id = idOf(schema);
+        Schema known = schemasById.get(id);
+        if (known != null) {
+            return requireSameSchema(id, known, schema);
+        }
+        try {
+            Files.createDirectories(directory);
+            if (store(id, schema)) {
+                log.info("Registered schema {} as id {} in {}", schema.getFullName(), id, directory);
+                schemasById.put(id, schema);
+                missingIds.invalidate(id);
+                return id;
+            }
+            // Registered before, by this or another instance
+            Schema stored = new Schema.Parser().parse(directory.resolve(id + EXTENSION).toFile());
+            schemasById.put(id, stored);
+            missingIds.invalidate(id);
+            return requireSameSchema(id, stored, schema);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot register schema " + schema.getFullName() + " in " + directory, e);
+        }
+    }
+
+    /**
+     * Non-negative id from the parsing-form fingerprint; schemas differing only in docs,
+     * aliases or defaults share an id
+     */
+    static int idOf(Schema schema) {
+        long fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+        return (int) ((fingerprint ^ (fingerprint >>> 32)) & Integer.MAX_VALUE);
+    }
+
+    private static int requireSameSchema(int id, Schema registered, Schema schema) {
+        if (!SchemaNormalization.toParsingForm(registered).equals(SchemaNormalization.toParsingForm(schema))) {
+            throw new IllegalStateException("Schema id " + id + " of " + schema.getFullName()
+                    + " is already taken by " + registered.getFullName());
+        }
+        return id;
+    }
+
+    /**
+     * Schema registered under the id, reading only that id's file when it is not held yet
+     */
+    public Optional<Schema> findById(int id) {
+        Schema schema = schemasById.get(id);
+        if (schema != null || missingIds.getIfPresent(id) != null) {
+            return Optional.ofNullable(schema);
+        }
+        Path file = directory.resolve(id + EXTENSION);
+        if (!Files.isRegularFile(file)) {
+            missingIds.put(id, Boolean.TRUE);
+            return Optional.empty();
+        }
+        try {
+            Schema stored = new Schema.Parser().parse(file.toFile());
+            Schema known = schemasById.putIfAbsent(id, stored);
+            return Optional.of(known != null ? known : stored);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read schema " + file, e);
+        }
+    }
+
+    /**
+     * Written under a temporary name and renamed, so readers never see a partial file
+     *
+     * @return false if the id is already stored
+     */
+    private boolean store(int id, Schema schema) throws IOException {
+        Path temp = Files.createTempFile(directory, "schema", ".tmp");
+        try {
+            Files.writeString(temp, schema.toString(true));
+            Files.move(temp, directory.resolve(id + EXTENSION));
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
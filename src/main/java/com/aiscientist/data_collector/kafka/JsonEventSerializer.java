@@ -0,0 +1,38 @@
+package com.aiscientist.data_collector.kafka;
+
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spring Kafka's JsonSerializer, configured from spring.kafka.producer like the value-serializer
+ * it replaces, type header included
+ */
+@Component
+public class JsonEventSerializer implements EventSerializer {
+
+    private final JsonSerializer<Object> serializer = new JsonSerializer<>();
+
+    @Autowired
+    public JsonEventSerializer(ProducerFactory<?, ?> producerFactory) {
+        serializer.configure(producerFactory.getConfigurationProperties(), false);
+    }
+
+    /**
+     * Default JsonSerializer settings
+     */
+    JsonEventSerializer() {
+    }
+
+    @Override
+    public String format() {
+        return "json";
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object event, Headers headers) {
+        return serializer.serialize(topic, headers, event);
+    }
+}
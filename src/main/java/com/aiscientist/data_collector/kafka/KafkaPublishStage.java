@@ -0,0 +1,88 @@
+package com.aiscientist.data_collector.kafka;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.aiscientist.data_collector.config.AppConfig;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Backpressure between the collection pipelines and the Kafka producer.
+ *
+ * Each pipeline run sends from its own boundedElastic worker, so a producer waiting for
+ * buffer.memory never blocks an event loop. At most max-in-flight events per run wait for their
+ * acknowledgements; beyond that nothing more is requested from upstream, so a slow broker slows
+ * collection down instead of piling up unacknowledged records.
+ *
+ * Metrics, tagged stage=&lt;name&gt;: kafka.publish.in.flight, kafka.publish.queue.wait (time from
+ * an event reaching the stage until it is sent).
+ */
+@Component
+public class KafkaPublishStage {
+
+    private final EventFanOutRouter eventFanOutRouter;
+    private final MeterRegistry meterRegistry;
+    private final int maxInFlight;
+    private final Map<String, StageMeters> stageMeters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public KafkaPublishStage(EventFanOutRouter eventFanOutRouter, AppConfig config, MeterRegistry meterRegistry) {
+        this(eventFanOutRouter, config.getKafka().getPublish(), meterRegistry);
+    }
+
+    KafkaPublishStage(EventFanOutRouter eventFanOutRouter, AppConfig.KafkaTopicsConfig.PublishConfig settings,
+                      MeterRegistry meterRegistry) {
+        this.eventFanOutRouter = eventFanOutRouter;
+        this.meterRegistry = meterRegistry;
+        this.maxInFlight = settings.getMaxInFlight();
+    }
+
+    /**
+     * Operator for {@link Flux#transform}: routes each event and emits its routed variant (see
+     * {@link EventFanOutRouter#route}) once its records are acknowledged or failed, in arrival order
+     */
+    public <T> Function<Flux<T>, Flux<T>> fanOut(String stage, List<FanOutRoute<T>> routes,
+                                                  Function<? super T, String> key) {
+        StageMeters meters = stageMeters.computeIfAbsent(stage, this::register);
+        return source -> source
+                .map(event -> new Arrival<>(event, System.nanoTime()))
+                .publishOn(Schedulers.boundedElastic(), maxInFlight)
+                .flatMapSequential(arrival -> {
+                    meters.queueWait().record(System.nanoTime() - arrival.nanoTime(), TimeUnit.NANOSECONDS);
+                    meters.inFlight().incrementAndGet();
+                    return eventFanOutRouter.publish(routes, arrival.event(), key.apply(arrival.event()))
+                            .doFinally(signal -> meters.inFlight().decrementAndGet());
+                }, maxInFlight);
+    }
+
+    private StageMeters register(String stage) {
+        AtomicInteger inFlight = new AtomicInteger();
+        Gauge.builder("kafka.publish.in.flight", inFlight, AtomicInteger::get)
+                .tag("stage", stage)
+                .description("Events sent and waiting for broker acknowledgement")
+                .register(meterRegistry);
+        Timer queueWait = Timer.builder("kafka.publish.queue.wait")
+                .tag("stage", stage)
+                .description("Time an event waited for a free in-flight slot")
+                .register(meterRegistry);
+        return new StageMeters(inFlight, queueWait);
+    }
+
+    private record Arrival<T>(T event, long nanoTime) {
+    }
+
+    private record StageMeters(AtomicInteger inFlight, Timer queueWait) {
+    }
+}
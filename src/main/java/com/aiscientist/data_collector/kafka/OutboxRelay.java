@@ -0,0 +1,168 @@
+package com.aiscientist.data_collector.kafka;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.model.OutboxEvent;
+import com.aiscientist.data_collector.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes committed outbox records to Kafka, oldest first.
+ *
+ * Each batch is read, handed to the producer in one go and marked sent within one transaction
+ * that holds an advisory lock, so only one instance relays at a time and order is kept across
+ * instances. Delivery is at-least-once: a record whose acknowledgement is lost is sent again.
+ *
+ * Metrics: outbox.events.sent, outbox.events.failed, outbox.lag (age of the oldest pending
+ * record at the last run).
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AppConfig.KafkaTopicsConfig.OutboxConfig settings;
+    private final Clock clock;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, KafkaTemplate<String, byte[]> kafkaTemplate,
+                       PlatformTransactionManager transactionManager, AppConfig config, MeterRegistry meterRegistry) {
+        this(outboxEventRepository, kafkaTemplate, new TransactionTemplate(transactionManager),
+                config.getKafka().getOutbox(), meterRegistry, Clock.systemUTC());
+    }
+
+    OutboxRelay(OutboxEventRepository outboxEventRepository, KafkaTemplate<String, byte[]> kafkaTemplate,
+                TransactionTemplate transactionTemplate, AppConfig.KafkaTopicsConfig.OutboxConfig settings,
+                MeterRegistry meterRegistry, Clock clock) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.settings = settings;
+        this.clock = clock;
+
+        Gauge.builder("outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .baseUnit("seconds")
+                .description("Age of the oldest unsent outbox record at the last relay run")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("outbox.events.sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.events.failed")
+                .description("Records left pending by a failed or timed-out send, retried on the next run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publish pending records batch by batch until the outbox is drained or a send fails;
+     * returns the number of records sent
+     */
+    public long relay() {
+        long total = 0;
+        int sent;
+        do {
+            sent = transactionTemplate.execute(status -> relayBatch());
+            total += sent;
+        } while (sent >= settings.getBatchSize());
+        if (total > 0) {
+            log.debug("Relayed {} outbox records", total);
+        }
+        return total;
+    }
+
+    private int relayBatch() {
+        if (!outboxEventRepository.tryLockRelay()) {
+            // Another instance is relaying
+            return 0;
+        }
+        List<OutboxEvent> pending = outboxEventRepository.findPending(settings.getBatchSize());
+        lagMillis.set(pending.isEmpty() ? 0
+                : Duration.between(pending.get(0).getCreatedAt(), clock.instant()).toMillis());
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // The whole batch goes to the producer before waiting, so it can fill its own batches
+        List<CompletableFuture<?>> acks = new ArrayList<>(pending.size());
+        for (OutboxEvent event : pending) {
+            try {
+                acks.add(kafkaTemplate.send(toRecord(event)));
+            } catch (RuntimeException e) {
+                acks.add(CompletableFuture.failedFuture(e));
+                break;
+            }
+        }
+
+        // Only the acknowledged prefix is marked sent: everything after a failure is sent again,
+        // so records of one key never overtake each other
+        long deadline = System.nanoTime() + settings.getSendTimeout().toNanos();
+        List<Long> sentIds = new ArrayList<>(acks.size());
+        for (int i = 0; i < acks.size(); i++) {
+            try {
+                acks.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sentIds.add(pending.get(i).getId());
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Outbox relay stopped at record {} ({}), {} records left pending: {}",
+                        pending.get(i).getId(), pending.get(i).getTopic(), pending.size() - i, e.toString());
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        outboxEventRepository.markSent(sentIds, clock.instant());
+        sentCounter.increment(sentIds.size());
+        failedCounter.increment(pending.size() - sentIds.size());
+        return sentIds.size();
+    }
+
+    private static ProducerRecord<String, byte[]> toRecord(OutboxEvent event) {
+        RecordHeaders headers = new RecordHeaders();
+        if (event.getHeaders() != null) {
+            event.getHeaders().forEach(headers::add);
+        }
+        return new ProducerRecord<>(event.getTopic(), null, event.getMessageKey(), event.getPayload(), headers);
+    }
+
+    /**
+     * Delete records sent longer ago than the retention; returns the number deleted
+     */
+    public long purgeSent() {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = outboxEventRepository.deleteSentBefore(clock.instant().minus(settings.getRetention()),
+                    settings.getPurgeBatchSize());
+            total += deleted;
+        } while (deleted >= settings.getPurgeBatchSize());
+        if (total > 0) {
+            log.info("Purged {} sent outbox records", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,49 @@
+package com.aiscientist.data_collector.kafka;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.kafka.support.ProducerListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outcome of every record sent through the Kafka templates, as counters instead of a log line
+ * per record: kafka.publish.records tagged topic and result=success|failure.
+ * Failures are still logged; successes only at DEBUG.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PublishMetricsListener implements ProducerListener<Object, Object> {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> successCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> failureCounters = new ConcurrentHashMap<>();
+
+    @Override
+    public void onSuccess(ProducerRecord<Object, Object> record, RecordMetadata metadata) {
+        successCounters.computeIfAbsent(record.topic(), topic -> counter(topic, "success")).increment();
+        log.debug("Published to {}-{}@{}: key={}", record.topic(), metadata.partition(), metadata.offset(),
+                record.key());
+    }
+
+    @Override
+    public void onError(ProducerRecord<Object, Object> record, RecordMetadata metadata, Exception exception) {
+        failureCounters.computeIfAbsent(record.topic(), topic -> counter(topic, "failure")).increment();
+        log.error("Failed to publish to {}: key={}", record.topic(), record.key(), exception);
+    }
+
+    private Counter counter(String topic, String result) {
+        return Counter.builder("kafka.publish.records")
+                .tag("topic", topic)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
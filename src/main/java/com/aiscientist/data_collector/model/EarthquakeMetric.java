@@ -8,16 +8,21 @@ import lombok.NoArgsConstructor;
 
 import java.time.Instant;
 
+import com.aiscientist.data_collector.util.GeoUtils;
+
 /**
  * Entity representing earthquake event data
  * Data source: USGS Earthquake API
  */
 @Entity
 @Table(name = "earthquake_metrics", indexes = {
-    @Index(name = "idx_earthquake_id", columnList = "earthquake_id", unique = true),
+    @Index(name = "idx_earthquake_id", columnList = "earthquake_id"),
+    // Unique keys must include the partition key (event_time), see PartitionMaintenanceService
+    @Index(name = "uk_earthquake_event", columnList = "earthquake_id,event_time", unique = true),
     @Index(name = "idx_event_time", columnList = "event_time"),
     @Index(name = "idx_magnitude", columnList = "magnitude"),
-    @Index(name = "idx_tsunami_warning", columnList = "tsunami_warning")
+    @Index(name = "idx_tsunami_warning", columnList = "tsunami_warning"),
+    @Index(name = "idx_earthquake_geo_cell", columnList = "geo_cell,event_time")
 })
 @Data
 @Builder
@@ -26,13 +31,14 @@ import java.time.Instant;
 public class EarthquakeMetric {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "earthquake_metrics_seq")
+    @SequenceGenerator(name = "earthquake_metrics_seq", sequenceName = "earthquake_metrics_seq", allocationSize = 50)
     private Long id;
 
     /**
      * USGS unique event identifier (e.g., "us7000m123")
      */
-    @Column(name = "earthquake_id", unique = true, nullable = false)
+    @Column(name = "earthquake_id", nullable = false)
     private String earthquakeId;
 
     /**
@@ -66,6 +72,12 @@ public class EarthquakeMetric {
     @Column(name = "longitude", nullable = false)
     private Double longitude;
 
+    /**
+     * 1°x1° grid cell of the epicenter, see GeoUtils.cellId
+     */
+    @Column(name = "geo_cell")
+    private Integer geoCell;
+
     /**
      * Time of earthquake occurrence
      */
@@ -128,6 +140,12 @@ public class EarthquakeMetric {
     @Column(name = "event_url", length = 1000)
     private String eventUrl;
 
+    /**
+     * Last time USGS updated the event (properties.updated); revisions bump this
+     */
+    @Column(name = "source_updated_at")
+    private Instant sourceUpdatedAt;
+
     /**
      * Timestamp when data was collected
      */
@@ -139,6 +157,12 @@ public class EarthquakeMetric {
         if (collectedAt == null) {
             collectedAt = Instant.now();
         }
+        geoCell = GeoUtils.cellId(latitude, longitude);
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        geoCell = GeoUtils.cellId(latitude, longitude);
     }
 
     /**
@@ -2,14 +2,19 @@ package com.aiscientist.data_collector.model;
 
 import java.time.Instant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
-@Table(name = "metrics")
+@Table(name = "metrics", indexes = {
+    @Index(name = "idx_metrics_raw_payload", columnList = "raw_payload_hash")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,7 +22,8 @@ import lombok.NoArgsConstructor;
 public class Metric {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "metrics_seq")
+    @SequenceGenerator(name = "metrics_seq", sequenceName = "metrics_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -38,9 +44,41 @@ public class Metric {
     @Column(name = "speed_kmh")
     private Integer speedKmh;
 
-    @Column(name = "raw_data", columnDefinition = "jsonb")
+    @Column(name = "external_id", length = 100)
+    private String externalId; // upstream identifier, e.g. DONKI activityID for 'cme'
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // SHA-256 of the revisable upstream content, e.g. cmeAnalyses
+
+    /**
+     * Upstream JSON, not a column: upsertAll stores it in raw_payloads and keeps the hash
+     */
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
     private String rawData;
 
+    @Column(name = "raw_payload_hash", length = 64)
+    private String rawPayloadHash;
+
+    /**
+     * Kafka record announcing this metric, not a column: upsertAll appends it to outbox_events
+     * in the same transaction as the row
+     */
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private OutboxEvent outboxEvent;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "raw_payload_hash", referencedColumnName = "hash", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private RawPayload rawPayload;
+
     @Column(name = "processed_at")
     private Instant processedAt;
 
@@ -0,0 +1,81 @@
+package com.aiscientist.data_collector.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Pre-aggregated min/max/avg/last of one series over a UTC hour or day.
+ * Written by RollupService; serves history queries once raw rows have expired.
+ */
+@Entity
+@Table(name = "metric_rollups")
+@IdClass(MetricRollup.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricRollup {
+
+    /**
+     * Aggregated series, e.g. "water_level" or "kp_index"
+     */
+    @Id
+    @Column(name = "series", length = 32)
+    private String series;
+
+    /**
+     * Station id for water levels, source for Kp
+     */
+    @Id
+    @Column(name = "series_key", length = 50)
+    private String seriesKey;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", length = 8)
+    private RollupResolution resolution;
+
+    @Id
+    @Column(name = "bucket_start")
+    private Instant bucketStart;
+
+    @Column(name = "min_value")
+    private Double minValue;
+
+    @Column(name = "max_value")
+    private Double maxValue;
+
+    @Column(name = "avg_value")
+    private Double avgValue;
+
+    /**
+     * Value of the most recent sample in the bucket
+     */
+    @Column(name = "last_value")
+    private Double lastValue;
+
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount;
+
+    @Column(name = "last_timestamp")
+    private Instant lastTimestamp;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String series;
+        private String seriesKey;
+        private RollupResolution resolution;
+        private Instant bucketStart;
+    }
+}
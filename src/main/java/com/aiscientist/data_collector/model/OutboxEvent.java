@@ -0,0 +1,63 @@
+package com.aiscientist.data_collector.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Kafka record written in the same transaction as the rows it describes (transactional outbox).
+ *
+ * The value is stored already encoded for its topic, so OutboxRelay only ships bytes; rows are
+ * published in id order and stamped with sent_at, then purged after a retention period.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(name = "message_key")
+    private String messageKey;
+
+    /**
+     * Record value as produced by the topic's EventSerializer
+     */
+    @ToString.Exclude
+    @Column(nullable = false)
+    private byte[] payload;
+
+    /**
+     * Record headers, name -> value (base64 in the JSON column)
+     */
+    @ToString.Exclude
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "headers")
+    private Map<String, byte[]> headers;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * When the broker acknowledged the record; null while pending
+     */
+    @Column(name = "sent_at")
+    private Instant sentAt;
+}
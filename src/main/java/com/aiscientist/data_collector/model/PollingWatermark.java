@@ -0,0 +1,41 @@
+package com.aiscientist.data_collector.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Persisted high-water mark for incremental polling of an external feed.
+ * One row per query profile (e.g. "usgs-earthquake:24h:m4.5").
+ */
+@Entity
+@Table(name = "polling_watermarks")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PollingWatermark {
+
+    /**
+     * Query profile the watermark belongs to
+     */
+    @Id
+    @Column(name = "profile", length = 100)
+    private String profile;
+
+    /**
+     * Largest source "updated" timestamp fully processed for this profile
+     */
+    @Column(name = "high_water_mark", nullable = false)
+    private Instant highWaterMark;
+
+    /**
+     * When the watermark was last advanced
+     */
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
@@ -0,0 +1,125 @@
+package com.aiscientist.data_collector.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Upstream API response kept for audit and reprocessing, out of the hot metric tables.
+ *
+ * Content-addressed: the id is the SHA-256 of the uncompressed content, so identical responses
+ * (re-polls, repeated feed rows) are stored once and metric rows only carry the 64-char hash.
+ * The content is stored gzip-compressed.
+ */
+@Entity
+@Table(name = "raw_payloads")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RawPayload {
+
+    public static final String GZIP = "gzip";
+
+    /**
+     * Hex SHA-256 of the uncompressed UTF-8 content
+     */
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Column(name = "content_encoding", nullable = false, length = 16)
+    private String contentEncoding;
+
+    @ToString.Exclude
+    @Column(name = "payload", nullable = false)
+    private byte[] payload;
+
+    @Column(name = "original_size", nullable = false)
+    private Integer originalSize;
+
+    @Column(name = "stored_size", nullable = false)
+    private Integer storedSize;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    /**
+     * Last time a write referenced this payload; unreferenced payloads are purged after a grace period
+     */
+    @Column(name = "last_seen_at")
+    private Instant lastSeenAt;
+
+    /**
+     * Hash and compress a payload; null for null content
+     */
+    public static RawPayload of(String content) {
+        if (content == null) {
+            return null;
+        }
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = gzip(bytes);
+        Instant now = Instant.now();
+        return RawPayload.builder()
+                .hash(hash(bytes))
+                .contentEncoding(GZIP)
+                .payload(compressed)
+                .originalSize(bytes.length)
+                .storedSize(compressed.length)
+                .createdAt(now)
+                .lastSeenAt(now)
+                .build();
+    }
+
+    public static String hash(String content) {
+        return content == null ? null : hash(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Uncompressed content
+     */
+    public String getContent() {
+        if (!GZIP.equals(contentEncoding)) {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt raw payload " + hash, e);
+        }
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,27 @@
+package com.aiscientist.data_collector.model;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket widths of the metric_rollups table, finest first
+ */
+public enum RollupResolution {
+
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupResolution(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    public Duration getWidth() {
+        return unit.getDuration();
+    }
+}
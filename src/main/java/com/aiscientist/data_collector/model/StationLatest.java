@@ -0,0 +1,42 @@
+package com.aiscientist.data_collector.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Pointer to the most recent water level reading of each station.
+ * Maintained on every write-behind flush, so "current state" queries touch one row per
+ * station instead of scanning the whole water_level_metrics history.
+ */
+@Entity
+@Table(name = "station_latest")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StationLatest {
+
+    @Id
+    @Column(name = "station_id", length = 50)
+    private String stationId;
+
+    /**
+     * id of the latest reading in water_level_metrics
+     */
+    @Column(name = "metric_id", nullable = false)
+    private Long metricId;
+
+    /**
+     * Timestamp of the latest reading; also lets joins prune by time
+     */
+    @Column(name = "timestamp", nullable = false)
+    private Instant timestamp;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
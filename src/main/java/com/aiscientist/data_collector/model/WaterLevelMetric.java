@@ -2,26 +2,31 @@ package com.aiscientist.data_collector.model;
 
 import java.time.Instant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Table(name = "water_level_metrics", indexes = {
     @Index(name = "idx_station_timestamp", columnList = "station_id,timestamp"),
     @Index(name = "idx_location_type", columnList = "location_type,timestamp"),
-    @Index(name = "idx_timestamp", columnList = "timestamp")
+    @Index(name = "idx_timestamp", columnList = "timestamp"),
+    @Index(name = "idx_water_level_raw_payload", columnList = "raw_payload_hash")
 })
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class WaterLevelMetric {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "water_level_metrics_seq")
+    @SequenceGenerator(name = "water_level_metrics_seq", sequenceName = "water_level_metrics_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -78,9 +83,31 @@ public class WaterLevelMetric {
     @Column(name = "quality_code", length = 10)
     private String qualityCode; // Data quality indicator
 
-    @Column(name = "raw_data", columnDefinition = "TEXT")
+    /**
+     * Upstream response, set by the collectors; insertAll moves it to raw_payloads
+     */
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
     private String rawData;
 
+    /**
+     * SHA-256 of the raw payload in raw_payloads
+     */
+    @Column(name = "raw_payload_hash", length = 64)
+    private String rawPayloadHash;
+
+    /**
+     * Raw payload, loaded on first access
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "raw_payload_hash", referencedColumnName = "hash", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private RawPayload rawPayload;
+
     @Column(name = "processed_at")
     private Instant processedAt;
 
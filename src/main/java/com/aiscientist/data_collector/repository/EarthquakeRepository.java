@@ -1,6 +1,11 @@
 package com.aiscientist.data_collector.repository;
 
 import com.aiscientist.data_collector.model.EarthquakeMetric;
+import com.aiscientist.data_collector.util.GeoUtils;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,57 +19,19 @@ import java.util.Optional;
  * Repository for earthquake metrics
  */
 @Repository
-public interface EarthquakeRepository extends JpaRepository<EarthquakeMetric, Long> {
+public interface EarthquakeRepository extends JpaRepository<EarthquakeMetric, Long>, EarthquakeRepositoryCustom {
 
     /**
      * Find earthquake by USGS event ID
      */
     Optional<EarthquakeMetric> findByEarthquakeId(String earthquakeId);
 
-    /**
-     * Find earthquakes with magnitude greater than or equal to threshold
-     */
-    List<EarthquakeMetric> findByMagnitudeGreaterThanEqualOrderByEventTimeDesc(Double magnitude);
-
     /**
      * Find recent earthquakes since a given time
      */
     @Query("SELECT e FROM EarthquakeMetric e WHERE e.eventTime >= :since ORDER BY e.eventTime DESC")
     List<EarthquakeMetric> findRecentEarthquakes(@Param("since") Instant since);
 
-    /**
-     * Find earthquakes in a specific region
-     */
-    List<EarthquakeMetric> findByRegionContainingIgnoreCaseOrderByEventTimeDesc(String region);
-
-    /**
-     * Find earthquakes with tsunami warning
-     */
-    List<EarthquakeMetric> findByTsunamiWarningTrueOrderByEventTimeDesc();
-
-    /**
-     * Find dangerous earthquakes (magnitude >= 5.0)
-     */
-    @Query("SELECT e FROM EarthquakeMetric e WHERE e.magnitude >= 5.0 ORDER BY e.eventTime DESC")
-    List<EarthquakeMetric> findDangerousEarthquakes();
-
-    /**
-     * Find catastrophic earthquakes (magnitude >= 7.0)
-     */
-    @Query("SELECT e FROM EarthquakeMetric e WHERE e.magnitude >= 7.0 ORDER BY e.eventTime DESC")
-    List<EarthquakeMetric> findCatastrophicEarthquakes();
-
-    /**
-     * Find shallow earthquakes (depth < 70km) which cause more surface damage
-     */
-    @Query("SELECT e FROM EarthquakeMetric e WHERE e.depthKm < 70.0 ORDER BY e.eventTime DESC")
-    List<EarthquakeMetric> findShallowEarthquakes();
-
-    /**
-     * Find earthquakes by alert level
-     */
-    List<EarthquakeMetric> findByAlertLevelOrderByEventTimeDesc(String alertLevel);
-
     /**
      * Find earthquakes near a location (within a bounding box)
      * @param minLat Minimum latitude
@@ -82,6 +49,56 @@ public interface EarthquakeRepository extends JpaRepository<EarthquakeMetric, Lo
             @Param("minLon") Double minLon,
             @Param("maxLon") Double maxLon);
 
+    /**
+     * Earthquakes whose epicenter lies within radiusKm (great-circle distance) of a point.
+     * The indexed geo_cell grid and latitude band narrow the candidates; the haversine term is
+     * then compared in SQL against sin²(d/2R), so no arcsine is evaluated per row.
+     */
+    static Specification<EarthquakeMetric> withinRadius(double latitude, double longitude, double radiusKm) {
+        GeoUtils.BoundingBox box = GeoUtils.boundingBox(latitude, longitude, radiusKm);
+        List<Integer> cells = box.cells();
+        double halfAngle = Math.min(radiusKm / (2 * GeoUtils.EARTH_RADIUS_KM), Math.PI / 2);
+        double threshold = Math.sin(halfAngle) * Math.sin(halfAngle);
+        double latRad = Math.toRadians(latitude);
+        double lonRad = Math.toRadians(longitude);
+        return (root, query, cb) -> {
+            Expression<Double> rowLat = cb.prod(root.<Double>get("latitude"), Math.PI / 180);
+            Expression<Double> rowLon = cb.prod(root.<Double>get("longitude"), Math.PI / 180);
+            Expression<Double> sinHalfDLat = cb.function("sin", Double.class, cb.prod(cb.diff(rowLat, latRad), 0.5));
+            Expression<Double> sinHalfDLon = cb.function("sin", Double.class, cb.prod(cb.diff(rowLon, lonRad), 0.5));
+            Expression<Double> haversine = cb.sum(cb.prod(sinHalfDLat, sinHalfDLat),
+                    cb.prod(cb.prod(cb.function("cos", Double.class, rowLat), Math.cos(latRad)),
+                            cb.prod(sinHalfDLon, sinHalfDLon)));
+            Predicate band = cb.between(root.get("latitude"), box.minLat(), box.maxLat());
+            Predicate candidates = cells.isEmpty() ? band : cb.and(root.get("geoCell").in(cells), band);
+            return cb.and(candidates, cb.lessThanOrEqualTo(haversine, threshold));
+        };
+    }
+
+    /**
+     * Earthquakes scoring at least minScore on {@link EarthquakeMetric#getTsunamiRiskScore()},
+     * with the score computed in SQL by the same rules
+     */
+    static Specification<EarthquakeMetric> minTsunamiRiskScore(int minScore) {
+        return (root, query, cb) -> {
+            Path<Double> magnitude = root.get("magnitude");
+            Path<Double> depthKm = root.get("depthKm");
+            Expression<Integer> magnitudeRisk = cb.<Integer>selectCase()
+                    .when(cb.greaterThanOrEqualTo(magnitude, 7.5), 50)
+                    .when(cb.greaterThanOrEqualTo(magnitude, 6.5), 30)
+                    .otherwise(0);
+            Expression<Integer> depthRisk = cb.<Integer>selectCase()
+                    .when(cb.lessThan(depthKm, 30.0), 25)
+                    .when(cb.lessThan(depthKm, 70.0), 15)
+                    .otherwise(0);
+            Expression<Integer> warningRisk = cb.<Integer>selectCase()
+                    .when(cb.isTrue(root.get("tsunamiWarning")), 25)
+                    .otherwise(0);
+            return cb.and(cb.isNotNull(magnitude), cb.isNotNull(depthKm),
+                    cb.greaterThanOrEqualTo(cb.sum(cb.sum(magnitudeRisk, depthRisk), warningRisk), minScore));
+        };
+    }
+
     /**
      * Count earthquakes by severity level in a time range
      */
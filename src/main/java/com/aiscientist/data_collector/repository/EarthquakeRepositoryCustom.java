@@ -0,0 +1,19 @@
+package com.aiscientist.data_collector.repository;
+
+import com.aiscientist.data_collector.model.EarthquakeMetric;
+
+import java.util.List;
+
+/**
+ * Bulk write operations for earthquake metrics that bypass per-entity JPA round trips
+ */
+public interface EarthquakeRepositoryCustom {
+
+    /**
+     * Insert new earthquakes and overwrite stored ones whose source revision (sourceUpdatedAt) is newer.
+     * Uses one existence query and one batched upsert for the whole chunk.
+     *
+     * @return the metrics that were inserted or revised; unchanged events are left out
+     */
+    List<EarthquakeMetric> upsertRevisions(List<EarthquakeMetric> metrics);
+}
@@ -0,0 +1,149 @@
+package com.aiscientist.data_collector.repository;
+
+import com.aiscientist.data_collector.model.EarthquakeMetric;
+import com.aiscientist.data_collector.util.GeoUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of {@link EarthquakeRepositoryCustom} using PostgreSQL INSERT ... ON CONFLICT
+ */
+@RequiredArgsConstructor
+public class EarthquakeRepositoryCustomImpl implements EarthquakeRepositoryCustom {
+
+    private static final String SELECT_REVISIONS_SQL =
+            "SELECT earthquake_id, event_time, source_updated_at FROM earthquake_metrics WHERE earthquake_id IN (:ids)";
+
+    private static final String DELETE_SQL = "DELETE FROM earthquake_metrics WHERE earthquake_id IN (:ids)";
+
+    // Keyed on (earthquake_id, event_time) because the table is partitioned by event_time.
+    // The WHERE clause keeps a concurrent older revision from overwriting a newer one
+    private static final String UPSERT_SQL = """
+            INSERT INTO earthquake_metrics (
+                id, earthquake_id, magnitude, magnitude_type, depth_km, latitude, longitude, event_time,
+                location, region, tsunami_warning, alert_level, significance, felt_reports,
+                max_intensity, data_source, event_url, source_updated_at, collected_at, geo_cell)
+            VALUES (nextval('earthquake_metrics_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (earthquake_id, event_time) DO UPDATE SET
+                magnitude = EXCLUDED.magnitude,
+                magnitude_type = EXCLUDED.magnitude_type,
+                depth_km = EXCLUDED.depth_km,
+                latitude = EXCLUDED.latitude,
+                longitude = EXCLUDED.longitude,
+                location = EXCLUDED.location,
+                region = EXCLUDED.region,
+                tsunami_warning = EXCLUDED.tsunami_warning,
+                alert_level = EXCLUDED.alert_level,
+                significance = EXCLUDED.significance,
+                felt_reports = EXCLUDED.felt_reports,
+                max_intensity = EXCLUDED.max_intensity,
+                data_source = EXCLUDED.data_source,
+                event_url = EXCLUDED.event_url,
+                source_updated_at = EXCLUDED.source_updated_at,
+                collected_at = EXCLUDED.collected_at,
+                geo_cell = EXCLUDED.geo_cell
+            WHERE earthquake_metrics.source_updated_at IS NULL
+               OR earthquake_metrics.source_updated_at < EXCLUDED.source_updated_at
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<EarthquakeMetric> upsertRevisions(List<EarthquakeMetric> metrics) {
+        if (metrics.isEmpty()) {
+            return List.of();
+        }
+
+        // Collapse duplicates within the chunk to the latest revision
+        Map<String, EarthquakeMetric> latestById = new LinkedHashMap<>();
+        for (EarthquakeMetric metric : metrics) {
+            latestById.merge(metric.getEarthquakeId(), metric,
+                    (current, candidate) -> isNewer(candidate.getSourceUpdatedAt(), current.getSourceUpdatedAt())
+                            ? candidate : current);
+        }
+
+        Map<String, StoredRevision> stored = findStoredRevisions(latestById.keySet());
+
+        List<EarthquakeMetric> changed = new ArrayList<>();
+        List<String> relocated = new ArrayList<>();
+        for (EarthquakeMetric metric : latestById.values()) {
+            StoredRevision revision = stored.get(metric.getEarthquakeId());
+            if (revision == null || isNewer(metric.getSourceUpdatedAt(), revision.sourceUpdatedAt())) {
+                changed.add(metric);
+                if (revision != null && !revision.eventTime().equals(metric.getEventTime())) {
+                    // A revised origin time moves the event to another key (and possibly partition)
+                    relocated.add(metric.getEarthquakeId());
+                }
+            }
+        }
+
+        if (!relocated.isEmpty()) {
+            jdbcTemplate.update(DELETE_SQL, new MapSqlParameterSource("ids", relocated));
+        }
+        if (!changed.isEmpty()) {
+            jdbcTemplate.getJdbcOperations().batchUpdate(UPSERT_SQL, changed, changed.size(), this::bind);
+        }
+        return changed;
+    }
+
+    private Map<String, StoredRevision> findStoredRevisions(Collection<String> earthquakeIds) {
+        Map<String, StoredRevision> revisions = new HashMap<>();
+        jdbcTemplate.query(SELECT_REVISIONS_SQL, new MapSqlParameterSource("ids", earthquakeIds), rs -> {
+            OffsetDateTime updated = rs.getObject("source_updated_at", OffsetDateTime.class);
+            revisions.put(rs.getString("earthquake_id"), new StoredRevision(
+                    rs.getObject("event_time", OffsetDateTime.class).toInstant(),
+                    updated != null ? updated.toInstant() : null));
+        });
+        return revisions;
+    }
+
+    private record StoredRevision(Instant eventTime, Instant sourceUpdatedAt) {
+    }
+
+    private void bind(PreparedStatement ps, EarthquakeMetric metric) throws SQLException {
+        ps.setString(1, metric.getEarthquakeId());
+        ps.setObject(2, metric.getMagnitude(), Types.DOUBLE);
+        ps.setString(3, metric.getMagnitudeType());
+        ps.setObject(4, metric.getDepthKm(), Types.DOUBLE);
+        ps.setObject(5, metric.getLatitude(), Types.DOUBLE);
+        ps.setObject(6, metric.getLongitude(), Types.DOUBLE);
+        ps.setObject(7, toTimestamp(metric.getEventTime()), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setString(8, metric.getLocation());
+        ps.setString(9, metric.getRegion());
+        ps.setObject(10, metric.getTsunamiWarning(), Types.BOOLEAN);
+        ps.setString(11, metric.getAlertLevel());
+        ps.setObject(12, metric.getSignificance(), Types.INTEGER);
+        ps.setObject(13, metric.getFeltReports(), Types.INTEGER);
+        ps.setString(14, metric.getMaxIntensity());
+        ps.setString(15, metric.getDataSource());
+        ps.setString(16, metric.getEventUrl());
+        ps.setObject(17, toTimestamp(metric.getSourceUpdatedAt()), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setObject(18, toTimestamp(metric.getCollectedAt() != null ? metric.getCollectedAt() : Instant.now()),
+                Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setObject(19, GeoUtils.cellId(metric.getLatitude(), metric.getLongitude()), Types.INTEGER);
+    }
+
+    private static OffsetDateTime toTimestamp(Instant instant) {
+        return instant != null ? instant.atOffset(ZoneOffset.UTC) : null;
+    }
+
+    private static boolean isNewer(Instant candidate, Instant stored) {
+        return candidate != null && (stored == null || candidate.isAfter(stored));
+    }
+}
@@ -0,0 +1,104 @@
+package com.aiscientist.data_collector.repository;
+
+import com.aiscientist.data_collector.dto.KeysetCursor;
+import com.aiscientist.data_collector.dto.KeysetPage;
+import com.aiscientist.data_collector.dto.KeysetPageRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset (seek) pagination over (time DESC, id DESC) with column projections.
+ *
+ * Only the attributes behind the requested fields are selected, as a tuple query, so no entity
+ * is materialized and large columns are never read. Each page seeks past the previous page's
+ * last (time, id) instead of using OFFSET, so deep pages cost the same as the first one.
+ */
+@Repository
+public class KeysetQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * One page of rows matching the filter, newest first
+     */
+    @Transactional(readOnly = true)
+    public <E> KeysetPage<Map<String, Object>> findPage(ProjectionSpec<E> spec, Specification<E> filter,
+                                                        KeysetPageRequest request) {
+        List<String> fields = spec.resolveFields(request.getFields());
+        List<String> attributes = spec.attributesFor(fields);
+        KeysetCursor after = KeysetCursor.decode(request.getCursor());
+        int limit = request.effectiveLimit();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(spec.getEntityClass());
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        for (String attribute : attributes) {
+            selections.add(root.get(attribute).alias(attribute));
+        }
+        query.multiselect(selections);
+
+        Path<Instant> time = root.get(spec.getTimeAttribute());
+        Path<Long> id = root.get("id");
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(time, after.time()),
+                    cb.and(cb.equal(time, after.time()), cb.lessThan(id, after.id()))));
+        }
+        query.where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(time), cb.desc(id));
+
+        // One extra row tells whether another page exists
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        boolean hasMore = tuples.size() > limit;
+        List<Tuple> page = hasMore ? tuples.subList(0, limit) : tuples;
+
+        List<Map<String, Object>> items = new ArrayList<>(page.size());
+        for (Tuple tuple : page) {
+            Map<String, Object> values = new HashMap<>();
+            for (String attribute : attributes) {
+                values.put(attribute, tuple.get(attribute));
+            }
+            items.add(spec.toRow(fields, values));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Tuple last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.get(spec.getTimeAttribute(), Instant.class),
+                    last.get("id", Long.class)).encode();
+        }
+        return KeysetPage.<Map<String, Object>>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .limit(limit)
+                .build();
+    }
+}
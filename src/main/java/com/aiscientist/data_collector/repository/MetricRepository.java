@@ -2,6 +2,7 @@ package com.aiscientist.data_collector.repository;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -11,15 +12,31 @@ import org.springframework.stereotype.Repository;
 import com.aiscientist.data_collector.model.Metric;
 
 @Repository
-public interface MetricRepository extends JpaRepository<Metric, Long> {
+public interface MetricRepository extends JpaRepository<Metric, Long>, MetricRepositoryCustom {
 
     List<Metric> findBySourceAndMetricType(String source, String metricType);
 
     List<Metric> findByTimestampBetween(Instant start, Instant end);
 
-    @Query("SELECT m FROM Metric m WHERE m.source = :source AND m.timestamp >= :since ORDER BY m.timestamp DESC")
-    List<Metric> findRecentMetrics(@Param("source") String source, @Param("since") Instant since);
-
     @Query("SELECT m FROM Metric m WHERE m.kpIndex >= :threshold AND m.timestamp >= :since")
     List<Metric> findHighKpIndexMetrics(@Param("threshold") Double threshold, @Param("since") Instant since);
+
+    @Query("SELECT m.externalId AS externalId, m.contentHash AS contentHash, m.timestamp AS timestamp " +
+           "FROM Metric m WHERE m.source = :source AND m.metricType = :metricType " +
+           "AND m.externalId IS NOT NULL AND m.timestamp >= :since")
+    List<ContentFingerprint> findContentFingerprints(@Param("source") String source,
+                                                     @Param("metricType") String metricType,
+                                                     @Param("since") Instant since);
+
+    @Query("SELECT MAX(m.timestamp) FROM Metric m WHERE m.source = :source AND m.metricType = :metricType")
+    Optional<Instant> findLatestTimestamp(@Param("source") String source, @Param("metricType") String metricType);
+
+    /**
+     * Upstream identity and content hash of a stored metric, used to skip unchanged re-polls
+     */
+    interface ContentFingerprint {
+        String getExternalId();
+        String getContentHash();
+        Instant getTimestamp();
+    }
 }
@@ -0,0 +1,19 @@
+package com.aiscientist.data_collector.repository;
+
+import java.util.List;
+
+import com.aiscientist.data_collector.model.Metric;
+
+/**
+ * Bulk write operations for metrics that need natural-key upserts
+ */
+public interface MetricRepositoryCustom {
+
+    /**
+     * Store a batch of metrics. Kp index rows are upserted on their natural key
+     * (source, metric_type, timestamp) and CME rows on (source, metric_type, external_id),
+     * so re-polled rows never duplicate; other metric types are persisted as new rows.
+     * Attached outbox events are written in the same transaction.
+     */
+    void upsertAll(List<Metric> metrics);
+}
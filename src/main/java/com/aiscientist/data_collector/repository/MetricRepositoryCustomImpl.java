@@ -0,0 +1,156 @@
+package com.aiscientist.data_collector.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aiscientist.data_collector.model.Metric;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC implementation of {@link MetricRepositoryCustom}; relies on the partial unique indexes
+ * created by DatabaseSchemaInitializer
+ */
+@RequiredArgsConstructor
+public class MetricRepositoryCustomImpl implements MetricRepositoryCustom {
+
+    static final String KP_INDEX = "kp_index";
+    static final String CME = "cme";
+
+    // Only touches the stored row when NOAA actually revised it. INSERT ... SELECT rather than
+    // VALUES: reWriteBatchedInserts folds VALUES batches into one statement and then reports
+    // SUCCESS_NO_INFO instead of the per-row counts that say which rows changed
+    private static final String UPSERT_KP_SQL = """
+            INSERT INTO metrics (id, timestamp, source, metric_type, kp_index, raw_payload_hash, processed_at)
+            SELECT nextval('metrics_seq'), ?, ?, ?, ?, ?, ?
+            ON CONFLICT (source, metric_type, timestamp) WHERE metric_type = 'kp_index' DO UPDATE SET
+                kp_index = EXCLUDED.kp_index,
+                raw_payload_hash = EXCLUDED.raw_payload_hash,
+                processed_at = EXCLUDED.processed_at
+            WHERE metrics.kp_index IS DISTINCT FROM EXCLUDED.kp_index
+               OR metrics.raw_payload_hash IS DISTINCT FROM EXCLUDED.raw_payload_hash
+            """;
+
+    // Keyed on the DONKI activityID; only rewritten when the analyses hash changed
+    private static final String UPSERT_CME_SQL = """
+            INSERT INTO metrics (id, timestamp, source, metric_type, speed_kmh, cme_class,
+                                 external_id, content_hash, raw_payload_hash, processed_at)
+            SELECT nextval('metrics_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?
+            ON CONFLICT (source, metric_type, external_id) WHERE metric_type = 'cme' DO UPDATE SET
+                timestamp = EXCLUDED.timestamp,
+                speed_kmh = EXCLUDED.speed_kmh,
+                cme_class = EXCLUDED.cme_class,
+                content_hash = EXCLUDED.content_hash,
+                raw_payload_hash = EXCLUDED.raw_payload_hash,
+                processed_at = EXCLUDED.processed_at
+            WHERE metrics.content_hash IS DISTINCT FROM EXCLUDED.content_hash
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RawPayloadRepository rawPayloadRepository;
+    private final OutboxEventRepository outboxEventRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void upsertAll(List<Metric> metrics) {
+        List<String> hashes = rawPayloadRepository.storeAll(metrics.stream().map(Metric::getRawData).toList());
+        for (int i = 0; i < metrics.size(); i++) {
+            if (hashes.get(i) != null) {
+                metrics.get(i).setRawPayloadHash(hashes.get(i));
+            }
+        }
+
+        // Keyed by natural key: a multi-row upsert may not touch the same row twice
+        Map<String, Metric> kpIndexByKey = new LinkedHashMap<>();
+        Map<String, Metric> cmeByKey = new LinkedHashMap<>();
+        Set<Metric> written = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Metric metric : metrics) {
+            if (KP_INDEX.equals(metric.getMetricType())) {
+                kpIndexByKey.put(metric.getSource() + '|' + metric.getTimestamp(), metric);
+            } else if (CME.equals(metric.getMetricType()) && metric.getExternalId() != null) {
+                cmeByKey.put(metric.getSource() + '|' + metric.getExternalId(), metric);
+            } else {
+                // Discard an id left by a rolled-back attempt of the same batch
+                metric.setId(null);
+                entityManager.persist(metric);
+                written.add(metric);
+            }
+        }
+
+        List<Metric> kpIndex = new ArrayList<>(kpIndexByKey.values());
+        if (!kpIndex.isEmpty()) {
+            addWritten(written, kpIndex, jdbcTemplate.batchUpdate(UPSERT_KP_SQL, kpIndex, kpIndex.size(), this::bindKpIndex));
+        }
+        List<Metric> cme = new ArrayList<>(cmeByKey.values());
+        if (!cme.isEmpty()) {
+            addWritten(written, cme, jdbcTemplate.batchUpdate(UPSERT_CME_SQL, cme, cme.size(), this::bindCme));
+        }
+
+        // Committed or rolled back together with the rows, in arrival order; duplicates dropped above
+        // and readings the change-only upserts left untouched are not published again
+        outboxEventRepository.insertAll(metrics.stream()
+                .filter(written::contains)
+                .map(Metric::getOutboxEvent)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    // A count of 0 means the upsert's WHERE skipped an unchanged row; SUCCESS_NO_INFO counts as written
+    private static void addWritten(Set<Metric> written, List<Metric> rows, int[][] counts) {
+        int row = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count != 0) {
+                    written.add(rows.get(row));
+                }
+                row++;
+            }
+        }
+    }
+
+    private void bindKpIndex(PreparedStatement ps, Metric metric) throws SQLException {
+        ps.setObject(1, metric.getTimestamp().atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setString(2, metric.getSource());
+        ps.setString(3, metric.getMetricType());
+        ps.setObject(4, metric.getKpIndex(), Types.DOUBLE);
+        ps.setString(5, metric.getRawPayloadHash());
+        ps.setObject(6, processedAt(metric), Types.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    private void bindCme(PreparedStatement ps, Metric metric) throws SQLException {
+        ps.setObject(1, metric.getTimestamp().atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setString(2, metric.getSource());
+        ps.setString(3, metric.getMetricType());
+        ps.setObject(4, metric.getSpeedKmh(), Types.INTEGER);
+        ps.setString(5, metric.getCmeClass());
+        ps.setString(6, metric.getExternalId());
+        ps.setString(7, metric.getContentHash());
+        ps.setString(8, metric.getRawPayloadHash());
+        ps.setObject(9, processedAt(metric), Types.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    private static OffsetDateTime processedAt(Metric metric) {
+        Instant processedAt = metric.getProcessedAt() != null ? metric.getProcessedAt() : Instant.now();
+        return processedAt.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,29 @@
+package com.aiscientist.data_collector.repository;
+
+import com.aiscientist.data_collector.model.MetricRollup;
+import com.aiscientist.data_collector.model.RollupResolution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MetricRollupRepository extends JpaRepository<MetricRollup, MetricRollup.Key> {
+
+    /**
+     * Buckets of one series starting within a time range, newest first
+     */
+    List<MetricRollup> findBySeriesAndSeriesKeyAndResolutionAndBucketStartBetweenOrderByBucketStartDesc(
+        String series, String seriesKey, RollupResolution resolution, Instant start, Instant end);
+
+    /**
+     * Start of the newest bucket written for a series and resolution
+     */
+    @Query("SELECT MAX(r.bucketStart) FROM MetricRollup r WHERE r.series = :series AND r.resolution = :resolution")
+    Optional<Instant> findLatestBucketStart(@Param("series") String series,
+                                            @Param("resolution") RollupResolution resolution);
+}
@@ -0,0 +1,9 @@
+package com.aiscientist.data_collector.repository;
+
+import com.aiscientist.data_collector.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventRepositoryCustom {
+}
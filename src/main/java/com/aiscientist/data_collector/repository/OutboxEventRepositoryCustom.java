@@ -0,0 +1,34 @@
+package com.aiscientist.data_collector.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.aiscientist.data_collector.model.OutboxEvent;
+
+/**
+ * Bulk access to the transactional outbox, used by the metric upserts and OutboxRelay
+ */
+public interface OutboxEventRepositoryCustom {
+
+    /**
+     * Append records to the outbox in list order; joins the caller's transaction
+     */
+    void insertAll(List<OutboxEvent> events);
+
+    /**
+     * Take the transaction-scoped relay lock; false when another relay holds it
+     */
+    boolean tryLockRelay();
+
+    /**
+     * Oldest unsent records, in id order
+     */
+    List<OutboxEvent> findPending(int limit);
+
+    void markSent(List<Long> ids, Instant sentAt);
+
+    /**
+     * Delete up to limit records sent before the cutoff; returns the number deleted
+     */
+    int deleteSentBefore(Instant cutoff, int limit);
+}
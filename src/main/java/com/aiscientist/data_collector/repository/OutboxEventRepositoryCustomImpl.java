@@ -0,0 +1,124 @@
+package com.aiscientist.data_collector.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aiscientist.data_collector.model.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC implementation of {@link OutboxEventRepositoryCustom}; unsent rows are found through the
+ * partial index created by DatabaseSchemaInitializer
+ */
+@RequiredArgsConstructor
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO outbox_events (id, topic, message_key, payload, headers, created_at)
+            VALUES (nextval('outbox_events_seq'), ?, ?, ?, ?::jsonb, ?)
+            """;
+
+    private static final String SELECT_PENDING_SQL = """
+            SELECT id, topic, message_key, payload, headers::text, created_at FROM outbox_events
+            WHERE sent_at IS NULL ORDER BY id LIMIT ?
+            """;
+
+    private static final String DELETE_SENT_SQL = """
+            DELETE FROM outbox_events WHERE id IN (
+                SELECT id FROM outbox_events WHERE sent_at < ? LIMIT ?)
+            """;
+
+    private static final TypeReference<Map<String, byte[]>> HEADERS_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional
+    public void insertAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.getTopic());
+            ps.setString(2, event.getMessageKey());
+            ps.setBytes(3, event.getPayload());
+            ps.setString(4, writeHeaders(event.getHeaders()));
+            ps.setObject(5, event.getCreatedAt().atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+        });
+    }
+
+    @Override
+    public boolean tryLockRelay() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('outbox_events'))", Boolean.class));
+    }
+
+    @Override
+    public List<OutboxEvent> findPending(int limit) {
+        return jdbcTemplate.query(SELECT_PENDING_SQL, (rs, rowNum) -> mapRow(rs), limit);
+    }
+
+    @Override
+    public void markSent(List<Long> ids, Instant sentAt) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE outbox_events SET sent_at = ? WHERE id = ANY (?)", ps -> {
+            ps.setObject(1, sentAt.atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+        });
+    }
+
+    @Override
+    public int deleteSentBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_SENT_SQL, Timestamp.from(cutoff), limit);
+    }
+
+    private OutboxEvent mapRow(ResultSet rs) throws SQLException {
+        return OutboxEvent.builder()
+                .id(rs.getLong(1))
+                .topic(rs.getString(2))
+                .messageKey(rs.getString(3))
+                .payload(rs.getBytes(4))
+                .headers(readHeaders(rs.getString(5)))
+                .createdAt(rs.getTimestamp(6).toInstant())
+                .build();
+    }
+
+    private String writeHeaders(Map<String, byte[]> headers) {
+        if (headers == null || headers.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(headers);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox headers not serializable", e);
+        }
+    }
+
+    private Map<String, byte[]> readHeaders(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, HEADERS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt outbox headers: " + json, e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.aiscientist.data_collector.repository;
+
+import com.aiscientist.data_collector.model.PollingWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for incremental polling watermarks
+ */
+@Repository
+public interface PollingWatermarkRepository extends JpaRepository<PollingWatermark, String> {
+}
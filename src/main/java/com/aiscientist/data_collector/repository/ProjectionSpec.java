@@ -0,0 +1,117 @@
+package com.aiscientist.data_collector.repository;
+
+import com.aiscientist.data_collector.exception.InvalidRequestException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Fields a paginated read API may select from an entity. Plain fields map 1:1 to entity
+ * attributes and are the only columns ever loaded; derived fields are computed from plain ones.
+ * Large payload columns are simply never registered.
+ */
+public final class ProjectionSpec<E> {
+
+    /**
+     * A field computed from the listed attributes
+     */
+    record DerivedField(List<String> requires, Function<Map<String, Object>, Object> compute) {
+    }
+
+    private final Class<E> entityClass;
+    private final String timeAttribute;
+    private final Set<String> attributes = new LinkedHashSet<>();
+    private final Map<String, DerivedField> derived = new LinkedHashMap<>();
+
+    private ProjectionSpec(Class<E> entityClass, String timeAttribute) {
+        this.entityClass = entityClass;
+        this.timeAttribute = timeAttribute;
+        attributes.add("id");
+        attributes.add(timeAttribute);
+    }
+
+    /**
+     * Spec ordered by (timeAttribute DESC, id DESC); both are always selected
+     */
+    public static <E> ProjectionSpec<E> of(Class<E> entityClass, String timeAttribute) {
+        return new ProjectionSpec<>(entityClass, timeAttribute);
+    }
+
+    public ProjectionSpec<E> fields(String... names) {
+        attributes.addAll(List.of(names));
+        return this;
+    }
+
+    public ProjectionSpec<E> derived(String name, Function<Map<String, Object>, Object> compute, String... requires) {
+        derived.put(name, new DerivedField(List.of(requires), compute));
+        return this;
+    }
+
+    public Class<E> getEntityClass() {
+        return entityClass;
+    }
+
+    public String getTimeAttribute() {
+        return timeAttribute;
+    }
+
+    /**
+     * Requested field names in request order, or every field when none were requested
+     *
+     * @throws InvalidRequestException for a field that is not part of this spec
+     */
+    List<String> resolveFields(Collection<String> requested) {
+        if (requested == null || requested.stream().allMatch(String::isBlank)) {
+            List<String> all = new ArrayList<>(attributes);
+            all.addAll(derived.keySet());
+            return all;
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : requested) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!attributes.contains(name) && !derived.containsKey(name)) {
+                throw new InvalidRequestException("Unknown field '" + name + "', expected any of "
+                        + String.join(",", attributes) + "," + String.join(",", derived.keySet()));
+            }
+            fields.add(name);
+        }
+        return List.copyOf(fields);
+    }
+
+    /**
+     * Entity attributes to select for the given fields; id and time are always included for the cursor
+     */
+    List<String> attributesFor(List<String> fields) {
+        Set<String> selected = new LinkedHashSet<>(List.of("id", timeAttribute));
+        for (String field : fields) {
+            DerivedField derivedField = derived.get(field);
+            if (derivedField == null) {
+                selected.add(field);
+            } else {
+                selected.addAll(derivedField.requires());
+            }
+        }
+        return List.copyOf(selected);
+    }
+
+    /**
+     * Output row with exactly the requested fields, in request order
+     */
+    Map<String, Object> toRow(List<String> fields, Map<String, Object> values) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            DerivedField derivedField = derived.get(field);
+            row.put(field, derivedField == null ? values.get(field) : derivedField.compute().apply(values));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,49 @@
+package com.aiscientist.data_collector.repository;
+
+import com.aiscientist.data_collector.model.EarthquakeMetric;
+import com.aiscientist.data_collector.model.Metric;
+import com.aiscientist.data_collector.model.WaterLevelMetric;
+
+/**
+ * Field sets of the paginated read APIs. Raw payloads are only exposed by hash (rawPayloadHash).
+ */
+public final class Projections {
+
+    public static final ProjectionSpec<EarthquakeMetric> EARTHQUAKE = ProjectionSpec
+            .of(EarthquakeMetric.class, "eventTime")
+            .fields("earthquakeId", "magnitude", "magnitudeType", "depthKm", "latitude", "longitude",
+                    "location", "region", "tsunamiWarning", "alertLevel", "significance", "feltReports",
+                    "maxIntensity", "dataSource", "eventUrl", "sourceUpdatedAt", "collectedAt")
+            .derived("severity", values -> EarthquakeMetric.builder()
+                    .magnitude((Double) values.get("magnitude"))
+                    .build().getSeverity(), "magnitude")
+            .derived("tsunamiRiskScore", values -> EarthquakeMetric.builder()
+                    .magnitude((Double) values.get("magnitude"))
+                    .depthKm((Double) values.get("depthKm"))
+                    .tsunamiWarning((Boolean) values.get("tsunamiWarning"))
+                    .build().getTsunamiRiskScore(), "magnitude", "depthKm", "tsunamiWarning");
+
+    public static final ProjectionSpec<WaterLevelMetric> WATER_LEVEL = ProjectionSpec
+            .of(WaterLevelMetric.class, "timestamp")
+            .fields("stationId", "stationName", "source", "locationType", "latitude", "longitude",
+                    "waterLevelMeters", "waterLevelFeet", "datum", "dischargeCfs", "gageHeightFeet",
+                    "floodStageFeet", "actionStageFeet", "minorFloodStageFeet", "moderateFloodStageFeet",
+                    "majorFloodStageFeet", "qualityCode", "rawPayloadHash", "processedAt")
+            .derived("floodSeverity", values -> WaterLevelMetric.builder()
+                    .waterLevelFeet((Double) values.get("waterLevelFeet"))
+                    .actionStageFeet((Double) values.get("actionStageFeet"))
+                    .minorFloodStageFeet((Double) values.get("minorFloodStageFeet"))
+                    .moderateFloodStageFeet((Double) values.get("moderateFloodStageFeet"))
+                    .majorFloodStageFeet((Double) values.get("majorFloodStageFeet"))
+                    .build().getFloodSeverity(),
+                    "waterLevelFeet", "actionStageFeet", "minorFloodStageFeet", "moderateFloodStageFeet",
+                    "majorFloodStageFeet");
+
+    public static final ProjectionSpec<Metric> METRIC = ProjectionSpec
+            .of(Metric.class, "timestamp")
+            .fields("source", "metricType", "kpIndex", "cmeClass", "speedKmh", "externalId", "rawPayloadHash",
+                    "processedAt");
+
+    private Projections() {
+    }
+}
@@ -0,0 +1,15 @@
+package com.aiscientist.data_collector.repository;
+
+import java.util.List;
+
+/**
+ * Bulk writes of content-addressed raw payloads
+ */
+public interface RawPayloadRepositoryCustom {
+
+    /**
+     * Store the given contents, once per distinct content, and return their hashes in input order
+     * (null for null content). Contents already stored are only marked as seen.
+     */
+    List<String> storeAll(List<String> contents);
+}
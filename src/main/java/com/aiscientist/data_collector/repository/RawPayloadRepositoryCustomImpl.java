@@ -0,0 +1,67 @@
+package com.aiscientist.data_collector.repository;
+
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aiscientist.data_collector.model.RawPayload;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC implementation of {@link RawPayloadRepositoryCustom}
+ */
+@RequiredArgsConstructor
+public class RawPayloadRepositoryCustomImpl implements RawPayloadRepositoryCustom {
+
+    // Re-seen payloads get last_seen_at bumped (at most hourly), which also row-locks them
+    // against a concurrent orphan purge until the referencing rows are committed
+    private static final String INSERT_SQL = """
+            INSERT INTO raw_payloads (hash, content_encoding, payload, original_size, stored_size,
+                                      created_at, last_seen_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (hash) DO UPDATE SET last_seen_at = EXCLUDED.last_seen_at
+            WHERE raw_payloads.last_seen_at < EXCLUDED.last_seen_at - INTERVAL '1 hour'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<String> storeAll(List<String> contents) {
+        // Collectors often attach the same response to every row of a batch: hash and compress it once
+        Map<String, RawPayload> byContent = new HashMap<>();
+        Map<String, RawPayload> byHash = new LinkedHashMap<>();
+        List<String> hashes = new ArrayList<>(contents.size());
+        for (String content : contents) {
+            if (content == null) {
+                hashes.add(null);
+                continue;
+            }
+            RawPayload payload = byContent.computeIfAbsent(content, RawPayload::of);
+            byHash.putIfAbsent(payload.getHash(), payload);
+            hashes.add(payload.getHash());
+        }
+
+        List<RawPayload> payloads = new ArrayList<>(byHash.values());
+        if (!payloads.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, payloads, payloads.size(), (ps, payload) -> {
+                ps.setString(1, payload.getHash());
+                ps.setString(2, payload.getContentEncoding());
+                ps.setBytes(3, payload.getPayload());
+                ps.setInt(4, payload.getOriginalSize());
+                ps.setInt(5, payload.getStoredSize());
+                ps.setObject(6, payload.getCreatedAt().atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+                ps.setObject(7, payload.getLastSeenAt().atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+            });
+        }
+        return hashes;
+    }
+}
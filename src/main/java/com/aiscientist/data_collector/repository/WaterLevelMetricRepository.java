@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface WaterLevelMetricRepository extends JpaRepository<WaterLevelMetric, Long> {
+public interface WaterLevelMetricRepository extends JpaRepository<WaterLevelMetric, Long>, WaterLevelMetricRepositoryCustom {
 
     /**
      * Find latest water level for a specific station
@@ -19,33 +19,22 @@ public interface WaterLevelMetricRepository extends JpaRepository<WaterLevelMetr
     Optional<WaterLevelMetric> findFirstByStationIdOrderByTimestampDesc(String stationId);
 
     /**
-     * Find all water levels for a station within time range
+     * Latest reading of every station
      */
-    List<WaterLevelMetric> findByStationIdAndTimestampBetweenOrderByTimestampDesc(
-        String stationId, Instant start, Instant end);
+    @Query("SELECT w FROM StationLatest s JOIN WaterLevelMetric w " +
+           "ON w.id = s.metricId AND w.timestamp = s.timestamp")
+    List<WaterLevelMetric> findLatestPerStation();
 
     /**
-     * Find all recent water levels from a specific source
+     * Find all stations currently in flood condition, based on each station's latest reading
      */
-    List<WaterLevelMetric> findBySourceAndTimestampAfterOrderByTimestampDesc(
-        String source, Instant since);
-
-    /**
-     * Find all stations currently in flood condition
-     */
-    @Query("SELECT w FROM WaterLevelMetric w WHERE " +
-           "w.id IN (SELECT MAX(w2.id) FROM WaterLevelMetric w2 GROUP BY w2.stationId) " +
-           "AND (w.waterLevelFeet >= w.minorFloodStageFeet " +
+    @Query("SELECT w FROM StationLatest s JOIN WaterLevelMetric w " +
+           "ON w.id = s.metricId AND w.timestamp = s.timestamp WHERE " +
+           "(w.waterLevelFeet >= w.minorFloodStageFeet " +
            "OR w.waterLevelFeet >= w.moderateFloodStageFeet " +
            "OR w.waterLevelFeet >= w.majorFloodStageFeet)")
     List<WaterLevelMetric> findCurrentlyFlooding();
 
-    /**
-     * Find all water levels by location type in time range
-     */
-    List<WaterLevelMetric> findByLocationTypeAndTimestampBetweenOrderByTimestampDesc(
-        String locationType, Instant start, Instant end);
-
     /**
      * Count stations reporting in last N minutes
      */
@@ -54,11 +43,11 @@ public interface WaterLevelMetricRepository extends JpaRepository<WaterLevelMetr
     long countActiveStationsSince(@Param("since") Instant since);
 
     /**
-     * Find stations near a geographic location
+     * Find stations near a geographic location, with their latest reading
      */
-    @Query("SELECT w FROM WaterLevelMetric w WHERE " +
-           "w.id IN (SELECT MAX(w2.id) FROM WaterLevelMetric w2 GROUP BY w2.stationId) " +
-           "AND w.latitude BETWEEN :minLat AND :maxLat " +
+    @Query("SELECT w FROM StationLatest s JOIN WaterLevelMetric w " +
+           "ON w.id = s.metricId AND w.timestamp = s.timestamp WHERE " +
+           "w.latitude BETWEEN :minLat AND :maxLat " +
            "AND w.longitude BETWEEN :minLon AND :maxLon")
     List<WaterLevelMetric> findStationsInBoundingBox(
         @Param("minLat") double minLat, 
@@ -0,0 +1,17 @@
+package com.aiscientist.data_collector.repository;
+
+import java.util.List;
+
+import com.aiscientist.data_collector.model.WaterLevelMetric;
+
+/**
+ * Bulk write operations for water level readings
+ */
+public interface WaterLevelMetricRepositoryCustom {
+
+    /**
+     * Persist a batch of new readings and, in the same transaction, point station_latest
+     * at the newest reading of each station. Older readings never replace a newer pointer.
+     */
+    void insertAll(List<WaterLevelMetric> metrics);
+}
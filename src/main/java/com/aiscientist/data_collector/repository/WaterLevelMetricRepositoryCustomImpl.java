@@ -0,0 +1,90 @@
+package com.aiscientist.data_collector.repository;
+
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aiscientist.data_collector.model.WaterLevelMetric;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JPA + JDBC implementation of {@link WaterLevelMetricRepositoryCustom}
+ */
+@RequiredArgsConstructor
+public class WaterLevelMetricRepositoryCustomImpl implements WaterLevelMetricRepositoryCustom {
+
+    // Ties on timestamp go to the higher id, matching the old MAX(id) semantics
+    private static final String UPSERT_LATEST_SQL = """
+            INSERT INTO station_latest (station_id, metric_id, timestamp, updated_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (station_id) DO UPDATE SET
+                metric_id = EXCLUDED.metric_id,
+                timestamp = EXCLUDED.timestamp,
+                updated_at = EXCLUDED.updated_at
+            WHERE station_latest.timestamp < EXCLUDED.timestamp
+               OR (station_latest.timestamp = EXCLUDED.timestamp AND station_latest.metric_id < EXCLUDED.metric_id)
+            """;
+
+    private static final Comparator<WaterLevelMetric> NEWEST_FIRST = Comparator
+            .comparing(WaterLevelMetric::getTimestamp)
+            .thenComparing(WaterLevelMetric::getId)
+            .reversed();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RawPayloadRepository rawPayloadRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void insertAll(List<WaterLevelMetric> metrics) {
+        storeRawPayloads(metrics);
+
+        // persist() assigns the sequence id (and @PrePersist timestamp) right away. An id left by
+        // a rolled-back attempt of the same batch is discarded, or persist() would reject the row.
+        Map<String, WaterLevelMetric> latestByStation = new LinkedHashMap<>();
+        for (WaterLevelMetric metric : metrics) {
+            metric.setId(null);
+            entityManager.persist(metric);
+            latestByStation.merge(metric.getStationId(), metric,
+                    (current, candidate) -> NEWEST_FIRST.compare(candidate, current) < 0 ? candidate : current);
+        }
+        if (latestByStation.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        List<WaterLevelMetric> latest = new ArrayList<>(latestByStation.values());
+        jdbcTemplate.batchUpdate(UPSERT_LATEST_SQL, latest, latest.size(), (ps, metric) -> {
+            ps.setString(1, metric.getStationId());
+            ps.setLong(2, metric.getId());
+            ps.setObject(3, metric.getTimestamp().atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+            ps.setObject(4, now.atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+        });
+    }
+
+    /**
+     * Responses shared by a batch (a whole USGS response per reading) end up as one raw_payloads row
+     */
+    private void storeRawPayloads(List<WaterLevelMetric> metrics) {
+        List<String> hashes = rawPayloadRepository.storeAll(
+                metrics.stream().map(WaterLevelMetric::getRawData).toList());
+        for (int i = 0; i < metrics.size(); i++) {
+            if (hashes.get(i) != null) {
+                metrics.get(i).setRawPayloadHash(hashes.get(i));
+            }
+        }
+    }
+}
@@ -4,8 +4,13 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.aiscientist.data_collector.config.SchedulingConfig;
+import com.aiscientist.data_collector.kafka.OutboxRelay;
 import com.aiscientist.data_collector.service.DataCollectorService;
 import com.aiscientist.data_collector.service.EarthquakeCollectionService;
+import com.aiscientist.data_collector.service.PartitionMaintenanceService;
+import com.aiscientist.data_collector.service.RawPayloadService;
+import com.aiscientist.data_collector.service.RollupService;
 import com.aiscientist.data_collector.service.WaterLevelCollectionService;
 
 import lombok.RequiredArgsConstructor;
@@ -19,6 +24,10 @@ public class DataCollectionScheduler {
     private final DataCollectorService dataCollectorService;
     private final WaterLevelCollectionService waterLevelCollectionService;
     private final EarthquakeCollectionService earthquakeCollectionService;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final RollupService rollupService;
+    private final RawPayloadService rawPayloadService;
+    private final OutboxRelay outboxRelay;
 
     @Scheduled(cron = "${app.scheduler.noaa-kp.cron}")
     @ConditionalOnProperty(value = "app.scheduler.noaa-kp.enabled", havingValue = "true", matchIfMissing = true)
@@ -74,4 +83,40 @@ public class DataCollectionScheduler {
             log.error("Error in scheduled earthquake collection", e);
         }
     }
+
+    @Scheduled(cron = "${app.scheduler.partition-maintenance.cron:0 15 3 * * *}")
+    @ConditionalOnProperty(value = "app.scheduler.partition-maintenance.enabled", havingValue = "true", matchIfMissing = true)
+    public void schedulePartitionMaintenance() {
+        log.info("Scheduled task: Maintaining monthly table partitions");
+        try {
+            partitionMaintenanceService.maintain();
+        } catch (Exception e) {
+            log.error("Error in scheduled partition maintenance", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.scheduler.rollup.cron:0 5 * * * *}")
+    @ConditionalOnProperty(value = "app.scheduler.rollup.enabled", havingValue = "true", matchIfMissing = true)
+    public void scheduleRollup() {
+        log.info("Scheduled task: Rolling up time series and expiring raw rows");
+        try {
+            rollupService.rollupAndExpire();
+            // Expired rows and dropped partitions leave their raw payloads unreferenced
+            rawPayloadService.purgeOrphans();
+            outboxRelay.purgeSent();
+        } catch (Exception e) {
+            log.error("Error in scheduled rollup", e);
+        }
+    }
+
+    // Bound through AppConfig: @Scheduled only parses ISO-8601 durations, not "1s"
+    @Scheduled(fixedDelayString = "#{@appConfig.kafka.outbox.relayInterval.toMillis()}",
+            scheduler = SchedulingConfig.OUTBOX_RELAY_SCHEDULER)
+    public void scheduleOutboxRelay() {
+        try {
+            outboxRelay.relay();
+        } catch (Exception e) {
+            log.error("Error in outbox relay", e);
+        }
+    }
 }
@@ -0,0 +1,332 @@
+package com.aiscientist.data_collector.service;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.exception.InvalidRequestException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Streams historical rows as an Arrow IPC stream (pyarrow.ipc.open_stream, pandas, polars).
+ *
+ * Rows are read through a forward-only JDBC cursor and written in record batches of a fixed
+ * row count, each ZSTD-compressed by default, so memory stays bounded by one batch whatever
+ * the time range.
+ */
+@Service
+@Slf4j
+public class ArrowExportService {
+
+    public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+
+    /**
+     * Exportable tables; column names follow the JSON APIs
+     */
+    public enum Dataset {
+        WATER_LEVEL("water-level", "water_level_metrics", "timestamp",
+                column("id", ColumnType.BIGINT),
+                column("timestamp", ColumnType.TIMESTAMP),
+                column("stationId", ColumnType.STRING),
+                column("stationName", ColumnType.STRING),
+                column("source", ColumnType.STRING),
+                column("locationType", ColumnType.STRING),
+                column("latitude", ColumnType.DOUBLE),
+                column("longitude", ColumnType.DOUBLE),
+                column("waterLevelMeters", ColumnType.DOUBLE),
+                column("waterLevelFeet", ColumnType.DOUBLE),
+                column("datum", ColumnType.STRING),
+                column("dischargeCfs", ColumnType.DOUBLE),
+                column("gageHeightFeet", ColumnType.DOUBLE),
+                column("floodStageFeet", ColumnType.DOUBLE),
+                column("actionStageFeet", ColumnType.DOUBLE),
+                column("minorFloodStageFeet", ColumnType.DOUBLE),
+                column("moderateFloodStageFeet", ColumnType.DOUBLE),
+                column("majorFloodStageFeet", ColumnType.DOUBLE),
+                column("qualityCode", ColumnType.STRING),
+                column("rawPayloadHash", ColumnType.STRING),
+                column("processedAt", ColumnType.TIMESTAMP)),
+        EARTHQUAKE("earthquakes", "earthquake_metrics", "event_time",
+                column("id", ColumnType.BIGINT),
+                column("eventTime", ColumnType.TIMESTAMP),
+                column("earthquakeId", ColumnType.STRING),
+                column("magnitude", ColumnType.DOUBLE),
+                column("magnitudeType", ColumnType.STRING),
+                column("depthKm", ColumnType.DOUBLE),
+                column("latitude", ColumnType.DOUBLE),
+                column("longitude", ColumnType.DOUBLE),
+                column("location", ColumnType.STRING),
+                column("region", ColumnType.STRING),
+                column("tsunamiWarning", ColumnType.BOOLEAN),
+                column("alertLevel", ColumnType.STRING),
+                column("significance", ColumnType.INT),
+                column("feltReports", ColumnType.INT),
+                column("maxIntensity", ColumnType.STRING),
+                column("dataSource", ColumnType.STRING),
+                column("eventUrl", ColumnType.STRING),
+                column("sourceUpdatedAt", ColumnType.TIMESTAMP),
+                column("collectedAt", ColumnType.TIMESTAMP)),
+        METRIC("metrics", "metrics", "timestamp",
+                column("id", ColumnType.BIGINT),
+                column("timestamp", ColumnType.TIMESTAMP),
+                column("source", ColumnType.STRING),
+                column("metricType", ColumnType.STRING),
+                column("kpIndex", ColumnType.DOUBLE),
+                column("cmeClass", ColumnType.STRING),
+                column("speedKmh", ColumnType.INT),
+                column("externalId", ColumnType.STRING),
+                column("rawPayloadHash", ColumnType.STRING),
+                column("processedAt", ColumnType.TIMESTAMP));
+
+        private final String path;
+        private final String table;
+        private final String timeColumn;
+        private final List<Column> columns;
+
+        Dataset(String path, String table, String timeColumn, Column... columns) {
+            this.path = path;
+            this.table = table;
+            this.timeColumn = timeColumn;
+            this.columns = List.of(columns);
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @throws InvalidRequestException for an unknown dataset
+         */
+        public static Dataset fromPath(String path) {
+            return Arrays.stream(values())
+                    .filter(dataset -> dataset.path.equals(path))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidRequestException("Unknown dataset '" + path + "', expected any of "
+                            + Arrays.stream(values()).map(Dataset::getPath).collect(Collectors.joining(","))));
+        }
+
+        Schema schema() {
+            return new Schema(columns.stream()
+                    .map(column -> Field.nullable(column.name(), column.type().arrowType))
+                    .toList());
+        }
+
+        String selectSql() {
+            return "SELECT " + columns.stream().map(Column::sqlName).collect(Collectors.joining(", "))
+                    + " FROM " + table + " WHERE " + timeColumn + " >= ? AND " + timeColumn + " < ?"
+                    + " ORDER BY " + timeColumn + ", id";
+        }
+    }
+
+    /**
+     * Record batch body compression. LZ4 is left out: Arrow Java only has a pure-Java LZ4 frame
+     * codec, which is over 20x slower than ZSTD here.
+     */
+    public enum Compression {
+        ZSTD(CompressionUtil.CodecType.ZSTD),
+        NONE(CompressionUtil.CodecType.NO_COMPRESSION);
+
+        private final CompressionUtil.CodecType codecType;
+
+        Compression(CompressionUtil.CodecType codecType) {
+            this.codecType = codecType;
+        }
+
+        CompressionCodec.Factory codecFactory() {
+            return this == NONE ? NoCompressionCodec.Factory.INSTANCE : CommonsCompressionFactory.INSTANCE;
+        }
+
+        /**
+         * @throws InvalidRequestException for an unknown codec
+         */
+        public static Compression parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRequestException("Unknown compression '" + value + "', expected zstd or none");
+            }
+        }
+    }
+
+    enum ColumnType {
+        BIGINT(new ArrowType.Int(64, true)),
+        INT(new ArrowType.Int(32, true)),
+        DOUBLE(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)),
+        BOOLEAN(ArrowType.Bool.INSTANCE),
+        STRING(ArrowType.Utf8.INSTANCE),
+        TIMESTAMP(new ArrowType.Timestamp(TimeUnit.MICROSECOND, "UTC"));
+
+        private final ArrowType arrowType;
+
+        ColumnType(ArrowType arrowType) {
+            this.arrowType = arrowType;
+        }
+    }
+
+    /**
+     * Exported column; the SQL column is the snake_case form of its name
+     */
+    record Column(String name, ColumnType type) {
+
+        String sqlName() {
+            return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static Column column(String name, ColumnType type) {
+        return new Column(name, type);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppConfig.ExportConfig settings;
+    private final BufferAllocator rootAllocator;
+
+    @Autowired
+    public ArrowExportService(JdbcTemplate jdbcTemplate, AppConfig appConfig) {
+        this(jdbcTemplate, appConfig.getExport());
+    }
+
+    ArrowExportService(JdbcTemplate jdbcTemplate, AppConfig.ExportConfig settings) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settings = settings;
+        this.rootAllocator = new RootAllocator(settings.getMaxMemory().toBytes());
+    }
+
+    @PreDestroy
+    void close() {
+        rootAllocator.close();
+    }
+
+    /**
+     * Write the rows of [from, to) ordered by time to the stream; returns the number of rows.
+     * Runs in a read-only transaction so the driver fetches through a cursor.
+     */
+    @Transactional(readOnly = true)
+    public long export(Dataset dataset, Instant from, Instant to, Compression compression, OutputStream out) {
+        long started = System.nanoTime();
+        Long rows = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(dataset.selectSql(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(settings.getBatchSize());
+            statement.setTimestamp(1, Timestamp.from(from));
+            statement.setTimestamp(2, Timestamp.from(to));
+            return statement;
+        }, rs -> {
+            try {
+                return write(dataset, rs, compression, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("Exported {} {} rows from {} to {} in {} ms", rows, dataset.path, from, to,
+                (System.nanoTime() - started) / 1_000_000);
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Arrow stream of every remaining row of the result set, one record batch per batchSize rows
+     */
+    long write(Dataset dataset, ResultSet rs, Compression compression, OutputStream out)
+            throws SQLException, IOException {
+        long total = 0;
+        try (BufferAllocator allocator = rootAllocator.newChildAllocator("export-" + dataset.path, 0,
+                settings.getMaxMemory().toBytes());
+             VectorSchemaRoot root = VectorSchemaRoot.create(dataset.schema(), allocator);
+             ArrowStreamWriter writer = new ArrowStreamWriter(root, null, Channels.newChannel(out),
+                     IpcOption.DEFAULT, compression.codecFactory(), compression.codecType)) {
+            writer.start();
+            List<FieldVector> vectors = root.getFieldVectors();
+            root.allocateNew();
+            int row = 0;
+            while (rs.next()) {
+                for (int i = 0; i < vectors.size(); i++) {
+                    setValue(vectors.get(i), dataset.columns.get(i).type(), row, rs, i + 1);
+                }
+                if (++row == settings.getBatchSize()) {
+                    total += flush(root, writer, row);
+                    row = 0;
+                }
+            }
+            if (row > 0) {
+                total += flush(root, writer, row);
+            }
+            writer.end();
+        }
+        return total;
+    }
+
+    private static int flush(VectorSchemaRoot root, ArrowStreamWriter writer, int rows) throws IOException {
+        root.setRowCount(rows);
+        writer.writeBatch();
+        // Keeps the buffers for the next batch; validity is cleared so unset slots read as null
+        root.getFieldVectors().forEach(FieldVector::reset);
+        return rows;
+    }
+
+    /**
+     * Nulls are left unset: the validity bit of an unwritten slot is 0
+     */
+    private static void setValue(FieldVector vector, ColumnType type, int row, ResultSet rs, int column)
+            throws SQLException {
+        if (type == ColumnType.TIMESTAMP) {
+            OffsetDateTime time = rs.getObject(column, OffsetDateTime.class);
+            if (time != null) {
+                Instant instant = time.toInstant();
+                ((TimeStampMicroTZVector) vector).setSafe(row,
+                        instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000);
+            }
+            return;
+        }
+        Object value = rs.getObject(column);
+        if (value == null) {
+            return;
+        }
+        switch (type) {
+            case BIGINT -> ((BigIntVector) vector).setSafe(row, ((Number) value).longValue());
+            case INT -> ((IntVector) vector).setSafe(row, ((Number) value).intValue());
+            case DOUBLE -> ((Float8Vector) vector).setSafe(row, ((Number) value).doubleValue());
+            case BOOLEAN -> ((BitVector) vector).setSafe(row, Boolean.TRUE.equals(value) ? 1 : 0);
+            case STRING -> ((VarCharVector) vector).setSafe(row, value.toString().getBytes(StandardCharsets.UTF_8));
+            default -> throw new IllegalStateException("Unhandled column type " + type);
+        }
+    }
+}
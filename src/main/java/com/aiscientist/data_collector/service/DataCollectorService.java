@@ -1,9 +1,20 @@
 package com.aiscientist.data_collector.service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.aiscientist.data_collector.dto.CMEEvent;
 import com.aiscientist.data_collector.dto.KpIndexEvent;
@@ -12,8 +23,11 @@ import com.aiscientist.data_collector.model.Metric;
 import com.aiscientist.data_collector.repository.MetricRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Service
 @RequiredArgsConstructor
@@ -23,61 +37,192 @@ public class DataCollectorService {
     private final NoaaApiService noaaApiService;
     private final NasaApiService nasaApiService;
     private final SpaceWeatherProducer spaceWeatherProducer;
+    private final WriteBehindBuffer<Metric> metricWriteBehind;
     private final MetricRepository metricRepository;
     private final ObjectMapper objectMapper;
 
-    @Transactional
+    private static final String KP_SOURCE = "noaa";
+    private static final String KP_INDEX = "kp_index";
+
+    private static final String CME_SOURCE = "nasa";
+    private static final String CME = "cme";
+    // Slightly wider than the 7-day DONKI query window
+    private static final Duration CME_DEDUP_WINDOW = Duration.ofDays(8);
+
+    private final AtomicReference<Instant> lastKpTimestamp = new AtomicReference<>();
+    private final Map<String, SeenCme> seenCmes = new ConcurrentHashMap<>();
+    private final AtomicBoolean seenCmesLoaded = new AtomicBoolean();
+
+    @PostConstruct
+    void registerFlushListener() {
+        metricWriteBehind.addFlushListener(this::onMetricsFlushed);
+    }
+
+    /**
+     * Advance the Kp watermark and the seen CMEs only once their rows (and outbox records) are
+     * committed, so rows of a failed flush are collected again on the next poll
+     */
+    void onMetricsFlushed(List<Metric> batch) {
+        for (Metric metric : batch) {
+            if (KP_SOURCE.equals(metric.getSource()) && KP_INDEX.equals(metric.getMetricType())) {
+                lastKpTimestamp.accumulateAndGet(metric.getTimestamp(),
+                        (current, candidate) -> current == null || candidate.isAfter(current) ? candidate : current);
+            } else if (CME.equals(metric.getMetricType()) && metric.getExternalId() != null) {
+                seenCmes.put(metric.getExternalId(), new SeenCme(metric.getContentHash(), metric.getTimestamp()));
+            }
+        }
+    }
+
+    /**
+     * Collect the NOAA planetary Kp index. The feed repeats the same time tags on every poll,
+     * so rows at or before the last ingested time tag are dropped before any DB or Kafka work;
+     * the natural-key upsert in MetricRepository guards against anything that slips through.
+     */
     public void collectKpIndexData() {
         log.info("Starting Kp index data collection");
+        AtomicInteger published = new AtomicInteger();
         
-        noaaApiService.fetchKpIndexData()
-                .doOnNext(event -> {
-                    // Save to database
+        lastKpTimestamp()
+                .flatMapMany(watermark -> noaaApiService.fetchKpIndexData()
+                        .filter(event -> isAfter(event, watermark)))
+                .concatMap(event -> {
+                    // Queue for the database together with its Kafka record; the write-behind buffer
+                    // flushes both in one transaction and OutboxRelay publishes the record
                     Metric metric = Metric.builder()
-                            .timestamp(Instant.parse(event.getTimeTag()))
-                            .source("noaa")
-                            .metricType("kp_index")
+                            .timestamp(parseUtcTimestamp(event.getTimeTag()))
+                            .source(KP_SOURCE)
+                            .metricType(KP_INDEX)
                             .kpIndex(event.getKpIndex() != null ? event.getKpIndex() : event.getEstimatedKp())
                             .rawData(event.getRawData())
+                            .outboxEvent(spaceWeatherProducer.kpIndexOutboxEvent(event))
                             .processedAt(Instant.now())
                             .build();
                     
-                    metricRepository.save(metric);
-                    log.debug("Saved Kp index metric: {}", metric.getId());
-                    
-                    // Publish to Kafka
-                    spaceWeatherProducer.sendKpIndexEvent(event);
+                    return metricWriteBehind.enqueue(metric).thenReturn(event);
                 })
-                .doOnComplete(() -> log.info("Kp index data collection completed"))
+                .doOnNext(event -> published.incrementAndGet())
+                .doOnComplete(() -> log.info("Kp index data collection completed: {} new rows", published.get()))
                 .doOnError(error -> log.error("Error collecting Kp index data", error))
                 .subscribe();
     }
 
-    @Transactional
+    /**
+     * Latest Kp time tag already ingested, seeded from the database on first use
+     */
+    private Mono<Instant> lastKpTimestamp() {
+        Instant current = lastKpTimestamp.get();
+        if (current != null) {
+            return Mono.just(current);
+        }
+        return Mono.fromCallable(() -> metricRepository.findLatestTimestamp(KP_SOURCE, KP_INDEX).orElse(Instant.EPOCH))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(seed -> lastKpTimestamp.compareAndSet(null, seed) ? seed : lastKpTimestamp.get());
+    }
+
+    private boolean isAfter(KpIndexEvent event, Instant watermark) {
+        try {
+            return parseUtcTimestamp(event.getTimeTag()).isAfter(watermark);
+        } catch (DateTimeParseException e) {
+            log.warn("Skipping Kp index row with unparseable time_tag: {}", event.getTimeTag());
+            return false;
+        }
+    }
+
+    /**
+     * Parse upstream timestamps; NOAA time tags carry no offset and are UTC ("2024-12-07T00:00:00",
+     * "2024-12-07 00:00:00.000"), DONKI times omit seconds ("2024-12-07T10:23Z")
+     */
+    static Instant parseUtcTimestamp(String value) {
+        String normalized = value.trim().replace(' ', 'T');
+        try {
+            return OffsetDateTime.parse(normalized).toInstant();
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(normalized).toInstant(ZoneOffset.UTC);
+        }
+    }
+
+    /**
+     * Collect CMEs from the DONKI 7-day window. Each CME is keyed on its activityID and only
+     * stored and published when it is new or its cmeAnalyses hash changed since last seen.
+     */
     public void collectCMEData() {
         log.info("Starting CME data collection");
+        AtomicInteger published = new AtomicInteger();
         
-        nasaApiService.fetchCMEData()
-                .doOnNext(event -> {
-                    // Save to database
+        seenCmes()
+                .flatMapMany(seen -> nasaApiService.fetchCMEData()
+                        .filter(event -> isNewOrRevised(seen, event)))
+                .concatMap(event -> {
+                    // Queue for the database together with its Kafka record (see collectKpIndexData)
                     Metric metric = Metric.builder()
-                            .timestamp(Instant.now())
-                            .source("nasa")
-                            .metricType("cme")
+                            .timestamp(cmeStartTime(event))
+                            .source(CME_SOURCE)
+                            .metricType(CME)
                             .speedKmh(event.getSpeed())
                             .cmeClass(event.getType())
+                            .externalId(event.getActivityId())
+                            .contentHash(event.getAnalysesHash())
                             .rawData(event.getRawData())
+                            .outboxEvent(spaceWeatherProducer.cmeOutboxEvent(event))
                             .processedAt(Instant.now())
                             .build();
                     
-                    metricRepository.save(metric);
-                    log.debug("Saved CME metric: {}", metric.getId());
-                    
-                    // Publish to Kafka
-                    spaceWeatherProducer.sendCMEEvent(event);
+                    return metricWriteBehind.enqueue(metric).thenReturn(event);
+                })
+                .doOnNext(event -> published.incrementAndGet())
+                .doOnComplete(() -> {
+                    pruneSeenCmes();
+                    log.info("CME data collection completed: {} new or revised CMEs", published.get());
                 })
-                .doOnComplete(() -> log.info("CME data collection completed"))
                 .doOnError(error -> log.error("Error collecting CME data", error))
                 .subscribe();
     }
+
+    /**
+     * activityID -> last stored analyses hash, seeded from the database on first use
+     */
+    private Mono<Map<String, SeenCme>> seenCmes() {
+        if (seenCmesLoaded.get()) {
+            return Mono.just(seenCmes);
+        }
+        return Mono.fromCallable(() -> {
+                    Instant since = Instant.now().minus(CME_DEDUP_WINDOW);
+                    metricRepository.findContentFingerprints(CME_SOURCE, CME, since).forEach(fingerprint ->
+                            seenCmes.putIfAbsent(fingerprint.getExternalId(),
+                                    new SeenCme(fingerprint.getContentHash(), fingerprint.getTimestamp())));
+                    seenCmesLoaded.set(true);
+                    return seenCmes;
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private boolean isNewOrRevised(Map<String, SeenCme> seen, CMEEvent event) {
+        if (event.getActivityId() == null) {
+            return true;
+        }
+        SeenCme previous = seen.get(event.getActivityId());
+        return previous == null || !Objects.equals(previous.analysesHash(), event.getAnalysesHash());
+    }
+
+    /**
+     * Forget CMEs that have left the DONKI query window; they will not be polled again
+     */
+    private void pruneSeenCmes() {
+        Instant cutoff = Instant.now().minus(CME_DEDUP_WINDOW);
+        seenCmes.values().removeIf(cme -> cme.startTime().isBefore(cutoff));
+    }
+
+    private Instant cmeStartTime(CMEEvent event) {
+        if (event.getStartTime() != null) {
+            try {
+                return parseUtcTimestamp(event.getStartTime());
+            } catch (DateTimeParseException e) {
+                log.warn("Unparseable CME startTime {} for {}", event.getStartTime(), event.getActivityId());
+            }
+        }
+        return Instant.now();
+    }
+
+    private record SeenCme(String analysesHash, Instant startTime) {
+    }
 }
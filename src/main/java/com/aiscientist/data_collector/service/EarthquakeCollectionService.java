@@ -1,12 +1,14 @@
 package com.aiscientist.data_collector.service;
 
 import com.aiscientist.data_collector.dto.EarthquakeEvent;
-import com.aiscientist.data_collector.kafka.KafkaProducerService;
-import com.aiscientist.data_collector.model.EarthquakeMetric;
+import com.aiscientist.data_collector.kafka.FanOutRoute;
+import com.aiscientist.data_collector.kafka.KafkaPublishStage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Service to orchestrate earthquake data collection and event publishing
  */
@@ -16,12 +18,34 @@ import org.springframework.stereotype.Service;
 public class EarthquakeCollectionService {
 
     private final UsgsEarthquakeApiService usgsEarthquakeApiService;
-    private final KafkaProducerService kafkaProducerService;
+    private final KafkaPublishStage kafkaPublishStage;
+    private final LiveEventStream<EarthquakeEvent> earthquakeLiveStream;
 
     private static final String EARTHQUAKE_DATA_TOPIC = "raw.earthquake.data";
     private static final String EARTHQUAKE_ALERT_TOPIC = "raw.earthquake.alert";
     private static final String TSUNAMI_WARNING_TOPIC = "raw.tsunami.warning";
 
+    /**
+     * All earthquakes to the data topic; dangerous ones (magnitude >= 5.0) also as an alert, and
+     * tsunami warnings or high tsunami risk also as a tsunami warning
+     */
+    private static final List<FanOutRoute<EarthquakeEvent>> RECENT_ROUTES = List.of(
+            FanOutRoute.always(EARTHQUAKE_DATA_TOPIC),
+            FanOutRoute.when(EARTHQUAKE_ALERT_TOPIC, EarthquakeCollectionService::isDangerous,
+                    event -> event.withEventType("earthquake.alert")),
+            FanOutRoute.when(TSUNAMI_WARNING_TOPIC,
+                    event -> Boolean.TRUE.equals(event.getTsunamiWarning()) || hasHighTsunamiRisk(event),
+                    event -> event.withEventType("tsunami.warning")));
+
+    private static final List<FanOutRoute<EarthquakeEvent>> SIGNIFICANT_ROUTES = List.of(
+            FanOutRoute.always(EARTHQUAKE_ALERT_TOPIC),
+            FanOutRoute.when(TSUNAMI_WARNING_TOPIC, EarthquakeCollectionService::hasHighTsunamiRisk,
+                    event -> event.withEventType("tsunami.warning")));
+
+    private static final List<FanOutRoute<EarthquakeEvent>> LOCATION_ROUTES = List.of(
+            FanOutRoute.always(EARTHQUAKE_DATA_TOPIC),
+            FanOutRoute.when(EARTHQUAKE_ALERT_TOPIC, EarthquakeCollectionService::isDangerous));
+
     /**
      * Collect recent earthquakes from USGS API (last 24 hours, magnitude >= 4.5)
      */
@@ -30,25 +54,14 @@ public class EarthquakeCollectionService {
 
         usgsEarthquakeApiService.fetchRecentEarthquakes()
                 .doOnNext(metric -> {
-                    // Publish all earthquake data to main topic
-                    EarthquakeEvent event = usgsEarthquakeApiService.createEvent(metric);
-                    kafkaProducerService.sendEarthquakeEvent(EARTHQUAKE_DATA_TOPIC, event);
-
-                    // If dangerous (magnitude >= 5.0), send alert
                     if (metric.isDangerous()) {
-                        event.setEventType("earthquake.alert");
-                        kafkaProducerService.sendEarthquakeEvent(EARTHQUAKE_ALERT_TOPIC, event);
                         log.warn("EARTHQUAKE ALERT: M{} - {} - {} severity - {}",
                                 metric.getMagnitude(),
                                 metric.getEarthquakeId(),
                                 metric.getSeverity(),
                                 metric.getLocation());
                     }
-
-                    // If tsunami warning or high tsunami risk, send tsunami alert
                     if (Boolean.TRUE.equals(metric.getTsunamiWarning()) || metric.getTsunamiRiskScore() >= 50) {
-                        event.setEventType("tsunami.warning");
-                        kafkaProducerService.sendEarthquakeEvent(TSUNAMI_WARNING_TOPIC, event);
                         log.error("TSUNAMI WARNING: M{} at {} - Risk Score: {} - {}",
                                 metric.getMagnitude(),
                                 metric.getDepthKm() != null ? metric.getDepthKm() + "km depth" : "unknown depth",
@@ -56,6 +69,9 @@ public class EarthquakeCollectionService {
                                 metric.getLocation());
                     }
                 })
+                .map(usgsEarthquakeApiService::createEvent)
+                .doOnNext(event -> earthquakeLiveStream.publish(FanOutRoute.mostSpecific(RECENT_ROUTES, event)))
+                .transform(kafkaPublishStage.fanOut("earthquake-recent", RECENT_ROUTES, EarthquakeEvent::getEarthquakeId))
                 .doOnComplete(() -> log.info("Completed earthquake data collection"))
                 .doOnError(error -> log.error("Error during earthquake collection", error))
                 .subscribe();
@@ -68,20 +84,12 @@ public class EarthquakeCollectionService {
         log.info("Starting significant earthquake collection");
 
         usgsEarthquakeApiService.fetchSignificantEarthquakes()
-                .doOnNext(metric -> {
-                    EarthquakeEvent event = usgsEarthquakeApiService.createEvent(metric);
-                    event.setEventType("earthquake.significant");
-                    kafkaProducerService.sendEarthquakeEvent(EARTHQUAKE_ALERT_TOPIC, event);
-
-                    log.warn("SIGNIFICANT EARTHQUAKE: M{} - {} severity - {}",
-                            metric.getMagnitude(), metric.getSeverity(), metric.getLocation());
-
-                    // Check tsunami risk
-                    if (metric.getTsunamiRiskScore() >= 50) {
-                        event.setEventType("tsunami.warning");
-                        kafkaProducerService.sendEarthquakeEvent(TSUNAMI_WARNING_TOPIC, event);
-                    }
-                })
+                .doOnNext(metric -> log.warn("SIGNIFICANT EARTHQUAKE: M{} - {} severity - {}",
+                        metric.getMagnitude(), metric.getSeverity(), metric.getLocation()))
+                .map(metric -> usgsEarthquakeApiService.createEvent(metric).withEventType("earthquake.significant"))
+                .doOnNext(event -> earthquakeLiveStream.publish(FanOutRoute.mostSpecific(SIGNIFICANT_ROUTES, event)))
+                .transform(kafkaPublishStage.fanOut("earthquake-significant", SIGNIFICANT_ROUTES,
+                        EarthquakeEvent::getEarthquakeId))
                 .doOnComplete(() -> log.info("Completed significant earthquake collection"))
                 .doOnError(error -> log.error("Error during significant earthquake collection", error))
                 .subscribe();
@@ -102,17 +110,20 @@ public class EarthquakeCollectionService {
                 latitude, longitude, radiusDegrees, minMagnitude);
 
         usgsEarthquakeApiService.fetchEarthquakesNearLocation(latitude, longitude, radiusDegrees, minMagnitude)
-                .doOnNext(metric -> {
-                    EarthquakeEvent event = usgsEarthquakeApiService.createEvent(metric);
-                    event.setEventType("earthquake.location");
-                    kafkaProducerService.sendEarthquakeEvent(EARTHQUAKE_DATA_TOPIC, event);
-
-                    if (metric.isDangerous()) {
-                        kafkaProducerService.sendEarthquakeEvent(EARTHQUAKE_ALERT_TOPIC, event);
-                    }
-                })
+                .map(metric -> usgsEarthquakeApiService.createEvent(metric).withEventType("earthquake.location"))
+                .doOnNext(event -> earthquakeLiveStream.publish(FanOutRoute.mostSpecific(LOCATION_ROUTES, event)))
+                .transform(kafkaPublishStage.fanOut("earthquake-location", LOCATION_ROUTES,
+                        EarthquakeEvent::getEarthquakeId))
                 .doOnComplete(() -> log.info("Completed location-based earthquake collection"))
                 .doOnError(error -> log.error("Error during location-based earthquake collection", error))
                 .subscribe();
     }
+
+    private static boolean isDangerous(EarthquakeEvent event) {
+        return Boolean.TRUE.equals(event.getDangerous());
+    }
+
+    private static boolean hasHighTsunamiRisk(EarthquakeEvent event) {
+        return event.getTsunamiRiskScore() != null && event.getTsunamiRiskScore() >= 50;
+    }
 }
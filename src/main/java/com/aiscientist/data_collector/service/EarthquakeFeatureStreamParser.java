@@ -0,0 +1,158 @@
+package com.aiscientist.data_collector.service;
+
+import com.aiscientist.data_collector.dto.UsgsEarthquakeResponse;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for USGS GeoJSON FeatureCollection responses.
+ *
+ * Feeds the raw DataBuffer stream into a non-blocking Jackson parser and emits each
+ * element of the root "features" array as soon as its closing brace arrives, so only
+ * one feature (plus the current network chunk) is held in memory at a time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EarthquakeFeatureStreamParser {
+
+    private static final String FEATURES_FIELD = "features";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Parse a GeoJSON response body into a stream of earthquake features.
+     * Buffers are released as they are consumed; malformed JSON is signalled as UncheckedIOException.
+     */
+    public Flux<UsgsEarthquakeResponse.EarthquakeFeature> parse(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            FeatureTokenizer tokenizer = new FeatureTokenizer();
+            return body
+                    .concatMapIterable(tokenizer::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(tokenizer.endOfInput())))
+                    .doOnComplete(() -> log.info("Parsed {} earthquake events from USGS", tokenizer.featureCount))
+                    .doFinally(signal -> tokenizer.close());
+        }).doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    /**
+     * Per-response tokenizer state; not thread-safe, used by one subscription only
+     */
+    private final class FeatureTokenizer {
+
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+
+        private int depth;                // nesting depth outside of the feature being assembled
+        private String rootField;         // last field name seen directly in the root object
+        private boolean inFeatures;       // inside the root "features" array
+        private TokenBuffer feature;      // tokens of the feature currently being assembled
+        private int featureDepth;
+        private long featureCount;
+
+        FeatureTokenizer() {
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        List<UsgsEarthquakeResponse.EarthquakeFeature> feed(DataBuffer buffer) {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            DataBufferUtils.release(buffer);
+            try {
+                feeder.feedInput(bytes, 0, bytes.length);
+                return drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        List<UsgsEarthquakeResponse.EarthquakeFeature> endOfInput() {
+            feeder.endOfInput();
+            try {
+                return drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                log.debug("Error closing GeoJSON parser", e);
+            }
+        }
+
+        private List<UsgsEarthquakeResponse.EarthquakeFeature> drain() throws IOException {
+            List<UsgsEarthquakeResponse.EarthquakeFeature> features = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                UsgsEarthquakeResponse.EarthquakeFeature completed = handle(token);
+                if (completed != null) {
+                    features.add(completed);
+                }
+            }
+            return features;
+        }
+
+        private UsgsEarthquakeResponse.EarthquakeFeature handle(JsonToken token) throws IOException {
+            if (feature != null) {
+                feature.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    featureDepth++;
+                } else if (token.isStructEnd() && --featureDepth == 0) {
+                    return completeFeature();
+                }
+                return null;
+            }
+
+            if (token == JsonToken.START_OBJECT && inFeatures && depth == 2) {
+                // Root object is depth 1, the features array depth 2
+                feature = new TokenBuffer(parser);
+                feature.copyCurrentEvent(parser);
+                featureDepth = 1;
+            } else if (token.isStructStart()) {
+                depth++;
+                if (token == JsonToken.START_ARRAY && depth == 2 && FEATURES_FIELD.equals(rootField)) {
+                    inFeatures = true;
+                }
+            } else if (token.isStructEnd()) {
+                if (depth == 2 && inFeatures) {
+                    inFeatures = false;
+                }
+                depth--;
+            } else if (token == JsonToken.FIELD_NAME && depth == 1) {
+                rootField = parser.currentName();
+            }
+            return null;
+        }
+
+        private UsgsEarthquakeResponse.EarthquakeFeature completeFeature() throws IOException {
+            try (JsonParser featureParser = feature.asParser(objectMapper)) {
+                featureCount++;
+                return objectMapper.readValue(featureParser, UsgsEarthquakeResponse.EarthquakeFeature.class);
+            } finally {
+                feature = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.aiscientist.data_collector.service;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.exception.InvalidRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fan-out of freshly collected events to long-lived HTTP subscribers (SSE / NDJSON).
+ *
+ * A best-effort multicast sink: publishing never blocks the collectors and nothing is retained
+ * for late subscribers. Each subscriber gets its own bounded buffer, so one slow client only
+ * loses its own events, according to its {@link Overflow} policy.
+ *
+ * Metrics, tagged stream=&lt;name&gt;: live.stream.subscribers, live.stream.events.published,
+ * live.stream.events.dropped.
+ */
+@Slf4j
+public class LiveEventStream<T> {
+
+    /**
+     * What a subscriber whose buffer is full loses
+     */
+    public enum Overflow {
+        /**
+         * Keep the buffered events, drop new ones until the client catches up
+         */
+        DROP(BufferOverflowStrategy.DROP_LATEST),
+        /**
+         * Evict the oldest buffered event, so the client always ends up with the newest ones
+         */
+        LATEST(BufferOverflowStrategy.DROP_OLDEST);
+
+        private final BufferOverflowStrategy strategy;
+
+        Overflow(BufferOverflowStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        /**
+         * @throws InvalidRequestException for an unknown policy
+         */
+        public static Overflow parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRequestException("Unknown overflow policy '" + value + "', expected drop or latest");
+            }
+        }
+    }
+
+    private final String name;
+    private final Sinks.Many<T> sink = Sinks.many().multicast().directBestEffort();
+    private final int bufferSize;
+    private final Duration heartbeatInterval;
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter publishedCounter;
+    private final Counter droppedCounter;
+
+    public LiveEventStream(String name, AppConfig.LiveStreamConfig settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.bufferSize = settings.getSubscriberBufferSize();
+        this.heartbeatInterval = settings.getHeartbeatInterval();
+
+        Gauge.builder("live.stream.subscribers", subscribers, AtomicInteger::get)
+                .tag("stream", name)
+                .description("Connected streaming clients")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("live.stream.events.published").tag("stream", name)
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("live.stream.events.dropped").tag("stream", name)
+                .description("Events a slow subscriber lost to its overflow policy")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hand an event to every connected subscriber; a no-op without subscribers.
+     * Serialized, since collectors publish from several threads.
+     */
+    public synchronized void publish(T event) {
+        Sinks.EmitResult result = sink.tryEmitNext(event);
+        if (result.isSuccess()) {
+            publishedCounter.increment();
+        } else if (result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.warn("Live stream '{}' could not publish event: {}", name, result);
+        }
+    }
+
+    /**
+     * Events published from now on that match the filter, through a per-subscriber buffer
+     */
+    public Flux<T> subscribe(Predicate<? super T> filter, Overflow overflow) {
+        return sink.asFlux()
+                .filter(filter)
+                .onBackpressureBuffer(bufferSize, dropped -> droppedCounter.increment(), overflow.strategy)
+                .doOnSubscribe(subscription -> log.debug("Live stream '{}' subscribers: {}", name,
+                        subscribers.incrementAndGet()))
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    /**
+     * {@link #subscribe} as server-sent events named by eventName, interleaved with comment
+     * heartbeats that keep idle connections open through proxies and detect gone clients
+     */
+    public Flux<ServerSentEvent<T>> subscribeSse(Predicate<? super T> filter, Overflow overflow,
+                                                 Function<? super T, String> eventName) {
+        Flux<ServerSentEvent<T>> heartbeats = Flux.interval(heartbeatInterval)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<T>builder().comment("heartbeat").build());
+        return subscribe(filter, overflow)
+                .map(event -> ServerSentEvent.builder(event).event(eventName.apply(event)).build())
+                .mergeWith(heartbeats);
+    }
+}
@@ -1,8 +1,11 @@
 package com.aiscientist.data_collector.service;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -64,6 +67,8 @@ public class NasaApiService {
                                                         node.get("sourceLocation").asText() : null)
                                                 .catalog(node.has("catalog") ? 
                                                         node.get("catalog").asText() : null)
+                                                .analysesHash(sha256Hex(objectMapper.writeValueAsBytes(
+                                                        node.path("cmeAnalyses"))))
                                                 .source("nasa")
                                                 .timestamp(Instant.now())
                                                 .rawData(rawData);
@@ -97,6 +102,10 @@ public class NasaApiService {
                 });
     }
 
+    private static String sha256Hex(byte[] content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
     private Flux<CMEEvent> getCMEDataFallback(Exception e) {
         log.warn("Circuit breaker activated for NASA API, returning empty data", e);
         return Flux.empty();
@@ -1,5 +1,6 @@
 package com.aiscientist.data_collector.service;
 
+import com.aiscientist.data_collector.config.AppConfig;
 import com.aiscientist.data_collector.dto.NoaaTidesResponse;
 import com.aiscientist.data_collector.dto.WaterLevelEvent;
 import com.aiscientist.data_collector.exception.ExternalApiException;
@@ -19,6 +20,8 @@ import reactor.core.publisher.Mono;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
@@ -32,17 +35,21 @@ import java.util.List;
 @Slf4j
 public class NoaaTidesApiService {
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient noaaTidesWebClient;
     private final WaterLevelMetricRepository waterLevelRepository;
+    private final WriteBehindBuffer<WaterLevelMetric> waterLevelWriteBehind;
+    private final StationStateStore stationStateStore;
     private final ObjectMapper objectMapper;
-
-    @Value("${app.noaa.tides.base-url:https://api.tidesandcurrents.noaa.gov/api/prod}")
-    private String baseUrl;
+    private final AppConfig appConfig;
 
     @Value("${app.noaa.tides.application:ai-scientist-ecosystem}")
     private String application;
 
-    // Major US coastal stations for monitoring
+    // NOAA returns datetime without timezone: "2025-12-11 13:06" (GMT)
+    private static final DateTimeFormatter NOAA_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final ZoneId NOAA_TIME_ZONE = ZoneOffset.UTC;
+
+    // Default catalog of major US coastal stations (used when app.noaa.tides.stations is empty)
     private static final List<String> MONITORING_STATIONS = Arrays.asList(
         "8518750",  // The Battery, NY
         "8454000",  // Providence, RI
@@ -67,15 +74,9 @@ public class NoaaTidesApiService {
     @Retry(name = "noaa-tides-api")
     @Cacheable(value = "noaa-tides", key = "#stationId", unless = "#result == null")
     public Mono<WaterLevelMetric> fetchWaterLevel(String stationId) {
-        log.info("Fetching water level for NOAA station: {}", stationId);
-
-        String url = String.format("%s/datagetter", baseUrl);
-        
-        WebClient webClient = webClientBuilder
-            .baseUrl(url)
-            .build();
+        log.debug("Fetching water level for NOAA station: {}", stationId);
 
-        return webClient.get()
+        return noaaTidesWebClient.get()
             .uri(uriBuilder -> uriBuilder
                 .queryParam("station", stationId)
                 .queryParam("product", "water_level")
@@ -89,10 +90,11 @@ public class NoaaTidesApiService {
             .retrieve()
             .bodyToMono(NoaaTidesResponse.class)
             .map(response -> convertToMetric(response, stationId))
+            .doOnNext(stationStateStore::update)
+            .flatMap(metric -> waterLevelWriteBehind.enqueue(metric).thenReturn(metric))
             .doOnSuccess(metric -> {
                 if (metric != null) {
-                    waterLevelRepository.save(metric);
-                    log.info("Saved water level for station {}: {} meters", 
+                    log.debug("Queued water level for station {}: {} meters", 
                         stationId, metric.getWaterLevelMeters());
                 }
             })
@@ -104,14 +106,17 @@ public class NoaaTidesApiService {
     }
 
     /**
-     * Fetch water levels for all monitoring stations
+     * Fetch water levels for every station in the configured catalog.
+     * CO-OPS datagetter only takes one station per call, so requests fan out
+     * with bounded concurrency over the shared pooled client.
      */
     public Flux<WaterLevelMetric> fetchAllMonitoringStations() {
-        log.info("Fetching water levels for {} monitoring stations", MONITORING_STATIONS.size());
+        List<String> stations = getMonitoringStations();
+        int concurrency = Math.max(1, appConfig.getNoaa().getTides().getConcurrency());
+        log.info("Fetching water levels for {} monitoring stations (concurrency {})", stations.size(), concurrency);
         
-        return Flux.fromIterable(MONITORING_STATIONS)
-            .flatMap(stationId -> fetchWaterLevel(stationId)
-                .delayElement(java.time.Duration.ofMillis(100))) // Rate limiting
+        return Flux.fromIterable(stations)
+            .flatMap(this::fetchWaterLevel, concurrency)
             .doOnComplete(() -> log.info("Completed fetching all monitoring stations"));
     }
 
@@ -128,10 +133,8 @@ public class NoaaTidesApiService {
             NoaaTidesResponse.Data latestData = response.getData()[0];
             NoaaTidesResponse.Metadata metadata = response.getMetadata();
 
-            // NOAA returns datetime without timezone: "2025-12-11 13:06"
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-            Instant timestamp = LocalDateTime.parse(latestData.getT(), formatter)
-                .atZone(java.time.ZoneId.of("GMT"))
+            Instant timestamp = LocalDateTime.parse(latestData.getT(), NOAA_TIME_FORMAT)
+                .atZone(NOAA_TIME_ZONE)
                 .toInstant();
             double waterLevelMeters = Double.parseDouble(latestData.getV());
             double waterLevelFeet = waterLevelMeters * 3.28084; // Convert to feet
@@ -199,9 +202,10 @@ public class NoaaTidesApiService {
     }
 
     /**
-     * Get list of all monitored station IDs
+     * Get list of all monitored station IDs (configured catalog, or the built-in default list)
      */
     public List<String> getMonitoringStations() {
-        return MONITORING_STATIONS;
+        List<String> configured = appConfig.getNoaa().getTides().getStations();
+        return configured == null || configured.isEmpty() ? MONITORING_STATIONS : configured;
     }
 }
@@ -0,0 +1,433 @@
+package com.aiscientist.data_collector.service;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly range partitioning for the time-series tables.
+ *
+ * Hibernate creates the tables as plain heaps; {@link #partitionTables} converts them once into
+ * tables partitioned by month (UTC) on their time column, with a DEFAULT partition catching rows
+ * outside the created months. Empty tables are converted at startup, tables that already hold
+ * rows only as an explicit one-off migration (migrate-existing). {@link #maintain} then keeps
+ * months-ahead partitions created, moves any rows that landed in the DEFAULT partition into a
+ * proper month, and enforces retention by dropping whole partitions. A month of a table that
+ * feeds a rollup series is only dropped once all of it has been rolled up.
+ *
+ * Partitions are named &lt;table&gt;_pYYYY_MM.
+ */
+@Service
+@Slf4j
+public class PartitionMaintenanceService {
+
+    /**
+     * Partitioned table -> its partition key column
+     */
+    static final Map<String, String> PARTITIONED_TABLES = Map.of(
+            "water_level_metrics", "timestamp",
+            "earthquake_metrics", "event_time");
+
+    /**
+     * Partitioned table -> rollup series aggregated from it
+     */
+    private static final Map<String, RollupService.Series> ROLLED_UP_TABLES = Map.of(
+            "water_level_metrics", RollupService.Series.WATER_LEVEL);
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'_p'yyyy_MM", Locale.ROOT);
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "^CREATE (UNIQUE )?INDEX (\\S+) ON (?:ONLY )?\\S+ (USING .+)$", Pattern.CASE_INSENSITIVE);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RollupService rollupService;
+    private final AppConfig.PersistenceConfig.PartitioningConfig settings;
+    private final Clock clock;
+
+    @Autowired
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       RollupService rollupService,
+                                       AppConfig appConfig) {
+        this(jdbcTemplate, new TransactionTemplate(transactionManager), rollupService,
+                appConfig.getPersistence().getPartitioning(), Clock.systemUTC());
+    }
+
+    PartitionMaintenanceService(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                RollupService rollupService,
+                                AppConfig.PersistenceConfig.PartitioningConfig settings,
+                                Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rollupService = rollupService;
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Convert still-unpartitioned tables; a no-op once converted. Runs at startup before writers start.
+     */
+    public void partitionTables() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        PARTITIONED_TABLES.forEach((table, column) -> {
+            if (!"r".equals(relkind(table))) {
+                return;
+            }
+            if (!settings.isMigrateExisting() && hasRows(table)) {
+                log.warn("{} is not partitioned yet; convert it once by starting a single instance with "
+                        + "DB_PARTITIONING_MIGRATE=true", table);
+                return;
+            }
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                convertToPartitioned(connection, table, column);
+                return null;
+            });
+        });
+        maintain();
+    }
+
+    /**
+     * Create upcoming monthly partitions, drain the DEFAULT partition and drop expired months
+     */
+    public void maintain() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        YearMonth current = YearMonth.now(clock);
+        PARTITIONED_TABLES.forEach((table, column) -> {
+            if (!"p".equals(relkind(table))) {
+                return;
+            }
+            for (int offset = 0; offset <= settings.getMonthsAhead(); offset++) {
+                YearMonth month = current.plusMonths(offset);
+                transactionTemplate.executeWithoutResult(status -> createMonth(table, column, month));
+            }
+            for (YearMonth month : monthsInDefaultPartition(table, column)) {
+                transactionTemplate.executeWithoutResult(status -> createMonth(table, column, month));
+            }
+            dropExpired(table, retentionMonths(table), current);
+        });
+    }
+
+    /**
+     * Copy the table into a partitioned one and swap them. Holds a session advisory lock on its
+     * own connection, so only one instance converts and the others find the table converted.
+     * Rows are copied in id order, one short transaction per batch, while the application keeps
+     * reading and writing the old table; a staging table left by an interrupted run is resumed.
+     * A trigger installed before the copy records the id of every row inserted, updated or
+     * deleted meanwhile, whatever its id (pooled ids are not handed out in insert order); those
+     * rows are replaced in the copy with their current state once before the indexes are built
+     * and again, for changes since, during the final swap, the only step under an exclusive lock.
+     */
+    private void convertToPartitioned(Connection connection, String table, String column) throws SQLException {
+        JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        String lockKey = "'partition " + table + "'";
+        session.execute("SELECT pg_advisory_lock(hashtext(" + lockKey + "))");
+        try {
+            if (!"r".equals(relkind(table))) {
+                return;
+            }
+            List<String> indexDefinitions = jdbcTemplate.queryForList(
+                    "SELECT indexdef FROM pg_indexes WHERE schemaname = current_schema() AND tablename = ? "
+                            + "AND indexname <> ?", String.class, table, table + "_pkey");
+
+            String staging = table + "_partitioned";
+            String changes = table + "_migration_changes";
+            if (relkind(changes) == null) {
+                // A copy made without change capture cannot be reconciled; start it over
+                session.execute("DROP TABLE IF EXISTS " + staging);
+                inTransaction(connection, () -> {
+                    captureChanges(session, table, changes);
+                    return null;
+                });
+            }
+            session.execute("CREATE TABLE IF NOT EXISTS " + staging + " (LIKE " + table
+                    + " INCLUDING DEFAULTS INCLUDING STORAGE INCLUDING COMMENTS) PARTITION BY RANGE (" + quote(column) + ")");
+            session.execute("CREATE TABLE IF NOT EXISTS " + table + "_default PARTITION OF " + staging + " DEFAULT");
+            List<YearMonth> months = distinctMonths(table, column);
+            for (YearMonth month : months) {
+                if (relkind(partitionName(table, month)) == null) {
+                    session.execute(createPartitionSql(staging, partitionName(table, month), month));
+                }
+            }
+
+            Long resumeAfter = session.queryForObject("SELECT MAX(id) FROM " + staging, Long.class);
+            long afterId = resumeAfter == null ? Long.MIN_VALUE : resumeAfter;
+            long copied = 0;
+            CopiedBatch batch;
+            do {
+                batch = copyBatch(session, table, staging, afterId, settings.getMigrationBatchSize());
+                copied += batch.rows();
+                afterId = batch.rows() > 0 ? batch.lastId() : afterId;
+            } while (batch.rows() >= settings.getMigrationBatchSize());
+
+            // Bring rows changed during the copy up to date before unique indexes are built over them
+            int replayed = inTransaction(connection, () -> replayChanges(session, table, staging, changes));
+
+            // Unique keys on a partitioned table must contain the partition key. Indexes get
+            // temporary names while the old table still holds the real ones.
+            if (relkind(staging + "_pkey") == null) {
+                session.execute("ALTER TABLE " + staging + " ADD CONSTRAINT " + staging + "_pkey PRIMARY KEY (id, "
+                        + quote(column) + ")");
+            }
+            List<String> indexNames = new ArrayList<>();
+            for (String definition : indexDefinitions) {
+                String name = indexName(definition);
+                indexNames.add(name);
+                session.execute(partitionedIndexSql(definition, staging, column, stagingIndexName(name)));
+            }
+
+            replayed += inTransaction(connection, () -> {
+                session.execute("LOCK TABLE " + table + " IN ACCESS EXCLUSIVE MODE");
+                int current = replayChanges(session, table, staging, changes);
+                session.execute("DROP TABLE " + table);
+                session.execute("DROP TABLE " + changes);
+                session.execute("DROP FUNCTION " + captureFunction(table) + "()");
+                session.execute("ALTER TABLE " + staging + " RENAME TO " + table);
+                session.execute("ALTER INDEX " + staging + "_pkey RENAME TO " + table + "_pkey");
+                for (String name : indexNames) {
+                    session.execute("ALTER INDEX " + stagingIndexName(name) + " RENAME TO " + name);
+                }
+                return current;
+            });
+            log.info("Converted {} to monthly partitions on {} ({} rows copied in {} months, {} changed rows replayed)",
+                    table, column, copied, months.size(), replayed);
+        } finally {
+            session.execute("SELECT pg_advisory_unlock(hashtext(" + lockKey + "))");
+        }
+    }
+
+    /**
+     * Record the id of every row written to the table from now on. Creating the trigger waits for
+     * writes in flight, so every earlier row is committed before the copy starts.
+     */
+    private static void captureChanges(JdbcTemplate session, String table, String changes) {
+        session.execute("CREATE TABLE " + changes + " (id bigint NOT NULL)");
+        session.execute("CREATE OR REPLACE FUNCTION " + captureFunction(table) + "() RETURNS trigger "
+                + "LANGUAGE plpgsql AS $$ BEGIN "
+                + "IF TG_OP <> 'INSERT' THEN INSERT INTO " + changes + " VALUES (OLD.id); END IF; "
+                + "IF TG_OP <> 'DELETE' THEN INSERT INTO " + changes + " VALUES (NEW.id); END IF; "
+                + "RETURN NULL; END $$");
+        session.execute("CREATE TRIGGER " + captureFunction(table) + " AFTER INSERT OR UPDATE OR DELETE ON "
+                + table + " FOR EACH ROW EXECUTE FUNCTION " + captureFunction(table) + "()");
+    }
+
+    /**
+     * Replace the copies of rows changed since the last replay with their current state, or drop
+     * them if deleted; returns the number of rows copied again. Ids changed concurrently stay
+     * recorded for the next replay.
+     */
+    private static int replayChanges(JdbcTemplate session, String table, String staging, String changes) {
+        session.execute("CREATE TEMP TABLE migration_replay (id bigint) ON COMMIT DROP");
+        session.update("WITH taken AS (DELETE FROM " + changes + " RETURNING id) "
+                + "INSERT INTO migration_replay SELECT DISTINCT id FROM taken");
+        session.update("DELETE FROM " + staging + " WHERE id IN (SELECT id FROM migration_replay)");
+        return session.update("INSERT INTO " + staging + " SELECT * FROM " + table
+                + " WHERE id IN (SELECT id FROM migration_replay)");
+    }
+
+    private static String captureFunction(String table) {
+        return table + "_capture_changes";
+    }
+
+    /**
+     * Run the work in one transaction on the session connection
+     */
+    private static <T> T inTransaction(Connection connection, Supplier<T> work) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            T result = work.get();
+            connection.commit();
+            return result;
+        } catch (RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static CopiedBatch copyBatch(JdbcTemplate session, String table, String staging, long afterId, int limit) {
+        return session.queryForObject("WITH batch AS (SELECT * FROM " + table + " WHERE id > ? ORDER BY id LIMIT ?), "
+                        + "copied AS (INSERT INTO " + staging + " SELECT * FROM batch RETURNING id) "
+                        + "SELECT COUNT(*), MAX(id) FROM copied",
+                (rs, rowNum) -> new CopiedBatch(rs.getInt(1), rs.getLong(2)), afterId, limit);
+    }
+
+    private boolean hasRows(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + table + ")", Boolean.class));
+    }
+
+    /**
+     * Create one month's partition. Rows for that month that already sit in the DEFAULT partition
+     * are moved out first, since PostgreSQL refuses to create a partition overlapping them.
+     */
+    private void createMonth(String table, String column, YearMonth month) {
+        String partition = partitionName(table, month);
+        if (relkind(partition) != null) {
+            return;
+        }
+        String range = quote(column) + " >= " + monthStart(month) + " AND "
+                + quote(column) + " < " + monthStart(month.plusMonths(1));
+        jdbcTemplate.execute("CREATE TEMP TABLE partition_move (LIKE " + table + ") ON COMMIT DROP");
+        jdbcTemplate.update("WITH moved AS (DELETE FROM " + table + "_default WHERE " + range + " RETURNING *) "
+                + "INSERT INTO partition_move SELECT * FROM moved");
+        jdbcTemplate.execute(createPartitionSql(table, partition, month));
+        int moved = jdbcTemplate.update("INSERT INTO " + table + " SELECT * FROM partition_move");
+        log.info("Created partition {}{}", partition, moved > 0 ? " (" + moved + " rows moved from default)" : "");
+    }
+
+    private void dropExpired(String table, int retentionMonths, YearMonth current) {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestKept = current.minusMonths(retentionMonths - 1L);
+        RollupService.Series series = ROLLED_UP_TABLES.get(table);
+        Instant rolledUpBefore = series == null ? null : rollupService.rolledUpBefore(series);
+        Pattern partitionPattern = Pattern.compile(Pattern.quote(table) + "_p(\\d{4})_(\\d{2})");
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                JOIN pg_namespace n ON n.oid = p.relnamespace
+                WHERE p.relname = ? AND n.nspname = current_schema()
+                """, String.class, table);
+        for (String partition : partitions) {
+            Matcher matcher = partitionPattern.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.isBefore(oldestKept)) {
+                if (rolledUpBefore != null && monthStartInstant(month.plusMonths(1)).isAfter(rolledUpBefore)) {
+                    log.info("Keeping expired partition {} until it is rolled up", partition);
+                    continue;
+                }
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Dropped partition {} (retention {} months)", partition, retentionMonths);
+            }
+        }
+    }
+
+    private List<YearMonth> monthsInDefaultPartition(String table, String column) {
+        if (relkind(table + "_default") == null) {
+            return List.of();
+        }
+        return distinctMonths(table + "_default", column);
+    }
+
+    private List<YearMonth> distinctMonths(String table, String column) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT (date_trunc('month', " + quote(column)
+                        + " AT TIME ZONE 'UTC'))::date FROM " + table + " WHERE " + quote(column) + " IS NOT NULL",
+                LocalDate.class).stream().map(YearMonth::from).toList();
+    }
+
+    private int retentionMonths(String table) {
+        return switch (table) {
+            case "water_level_metrics" -> settings.getWaterLevelRetentionMonths();
+            case "earthquake_metrics" -> settings.getEarthquakeRetentionMonths();
+            default -> 0;
+        };
+    }
+
+    /**
+     * 'r' for a plain table, 'p' for a partitioned one, null when it does not exist
+     */
+    private String relkind(String relation) {
+        List<String> kinds = jdbcTemplate.queryForList("""
+                SELECT c.relkind::text FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+                WHERE c.relname = ? AND n.nspname = current_schema()
+                """, String.class, relation);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + month.format(SUFFIX);
+    }
+
+    private static String createPartitionSql(String parent, String partition, YearMonth month) {
+        return "CREATE TABLE " + partition + " PARTITION OF " + parent
+                + " FOR VALUES FROM (" + monthStart(month) + ") TO (" + monthStart(month.plusMonths(1)) + ")";
+    }
+
+    private static String monthStart(YearMonth month) {
+        return "'" + month.atDay(1) + " 00:00:00+00'";
+    }
+
+    private static Instant monthStartInstant(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    /**
+     * Re-target an index definition of the old heap at the partitioned table. A unique index
+     * without the partition key cannot exist on it and becomes a plain index.
+     */
+    static String partitionedIndexSql(String indexDefinition, String table, String column) {
+        return partitionedIndexSql(indexDefinition, table, column, indexName(indexDefinition));
+    }
+
+    static String partitionedIndexSql(String indexDefinition, String table, String column, String indexName) {
+        Matcher matcher = matchIndex(indexDefinition);
+        String body = matcher.group(3);
+        List<String> keyColumns = Arrays.stream(body.substring(body.indexOf('(') + 1, body.lastIndexOf(')')).split(","))
+                .map(key -> key.trim().replace("\"", ""))
+                .toList();
+        boolean unique = matcher.group(1) != null && keyColumns.contains(column);
+        return "CREATE " + (unique ? "UNIQUE " : "") + "INDEX IF NOT EXISTS " + indexName
+                + " ON " + table + " " + body;
+    }
+
+    private static String indexName(String indexDefinition) {
+        return matchIndex(indexDefinition).group(2);
+    }
+
+    private static String stagingIndexName(String indexName) {
+        return indexName + "_staging";
+    }
+
+    private static Matcher matchIndex(String indexDefinition) {
+        Matcher matcher = CREATE_INDEX.matcher(indexDefinition);
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Unexpected index definition: " + indexDefinition);
+        }
+        return matcher;
+    }
+
+    private static String quote(String column) {
+        return "\"" + column + "\"";
+    }
+
+    private record CopiedBatch(int rows, long lastId) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.aiscientist.data_collector.service;
+
+import com.aiscientist.data_collector.model.PollingWatermark;
+import com.aiscientist.data_collector.repository.PollingWatermarkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps per-profile high-water marks for incremental polling.
+ * Watermarks are read through an in-memory map and persisted whenever they move forward,
+ * so a restart resumes from the last fully processed poll.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PollingWatermarkService {
+
+    private final PollingWatermarkRepository watermarkRepository;
+
+    private final Map<String, Instant> watermarks = new ConcurrentHashMap<>();
+
+    /**
+     * Current watermark for a profile, loaded from the database on first access.
+     * Blocking; call from a worker thread.
+     */
+    public Optional<Instant> get(String profile) {
+        Instant cached = watermarks.get(profile);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return watermarkRepository.findById(profile)
+                .map(PollingWatermark::getHighWaterMark)
+                .map(mark -> watermarks.merge(profile, mark, PollingWatermarkService::latest));
+    }
+
+    /**
+     * Move the watermark forward to the candidate; never moves it backwards.
+     * Blocking; call from a worker thread.
+     */
+    public void advance(String profile, Instant candidate) {
+        if (candidate == null) {
+            return;
+        }
+        Instant current = get(profile).orElse(null);
+        if (current != null && !candidate.isAfter(current)) {
+            return;
+        }
+
+        Instant next = watermarks.merge(profile, candidate, PollingWatermarkService::latest);
+        watermarkRepository.save(PollingWatermark.builder()
+                .profile(profile)
+                .highWaterMark(next)
+                .updatedAt(Instant.now())
+                .build());
+        log.debug("Advanced polling watermark {} from {} to {}", profile, current, next);
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,141 @@
+package com.aiscientist.data_collector.service;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.model.RawPayload;
+import com.aiscientist.data_collector.repository.RawPayloadRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Upstream responses live in raw_payloads, keyed by the SHA-256 of their content, and metric rows
+ * only carry that hash. This service reads them back, purges payloads no row references any
+ * more (raw expiry, dropped partitions) and moves payloads still stored inline out of the
+ * metric tables.
+ */
+@Service
+@Slf4j
+public class RawPayloadService {
+
+    /**
+     * Metric tables that reference raw_payloads through raw_payload_hash
+     */
+    static final List<String> REFERENCING_TABLES = List.of("water_level_metrics", "metrics");
+
+    // last_seen_at is repeated outside the subquery so a payload re-referenced concurrently is
+    // re-checked against its new last_seen_at and kept
+    private static final String PURGE_SQL = """
+            DELETE FROM raw_payloads WHERE last_seen_at < ? AND hash IN (
+                SELECT p.hash FROM raw_payloads p
+                WHERE p.last_seen_at < ?
+                  AND NOT EXISTS (SELECT 1 FROM water_level_metrics w WHERE w.raw_payload_hash = p.hash)
+                  AND NOT EXISTS (SELECT 1 FROM metrics m WHERE m.raw_payload_hash = p.hash)
+                LIMIT ?)
+            """;
+
+    /**
+     * Inline raw_data row waiting to be moved to raw_payloads
+     */
+    private record InlineRow(long id, Timestamp timestamp, String rawData) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RawPayloadRepository rawPayloadRepository;
+    private final AppConfig.PersistenceConfig.RawPayloadConfig settings;
+    private final Clock clock;
+
+    @Autowired
+    public RawPayloadService(JdbcTemplate jdbcTemplate, RawPayloadRepository rawPayloadRepository,
+                             AppConfig appConfig) {
+        this(jdbcTemplate, rawPayloadRepository, appConfig.getPersistence().getRawPayloads(), Clock.systemUTC());
+    }
+
+    RawPayloadService(JdbcTemplate jdbcTemplate, RawPayloadRepository rawPayloadRepository,
+                      AppConfig.PersistenceConfig.RawPayloadConfig settings, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rawPayloadRepository = rawPayloadRepository;
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    /**
+     * Decompressed content of a stored payload
+     */
+    public Optional<String> findContent(String hash) {
+        return rawPayloadRepository.findById(hash).map(RawPayload::getContent);
+    }
+
+    /**
+     * Delete payloads no metric row references that have not been written for the grace period;
+     * returns the number deleted
+     */
+    public long purgeOrphans() {
+        Timestamp cutoff = Timestamp.from(clock.instant().minus(settings.getOrphanGrace()));
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, cutoff, cutoff, settings.getPurgeBatchSize());
+            total += deleted;
+        } while (deleted >= settings.getPurgeBatchSize());
+        if (total > 0) {
+            log.info("Purged {} unreferenced raw payloads last seen before {}", total, cutoff.toInstant());
+        }
+        return total;
+    }
+
+    /**
+     * Move raw_data still stored inline in the metric tables to raw_payloads, then drop the
+     * column. Resumable: rows are cleared batch by batch and the column only goes once empty.
+     */
+    public void migrateInlineRawData() {
+        for (String table : REFERENCING_TABLES) {
+            if (!columnExists(table, "raw_data")) {
+                continue;
+            }
+            long moved = 0;
+            long afterId = Long.MIN_VALUE;
+            List<InlineRow> rows;
+            do {
+                rows = jdbcTemplate.query(
+                        "SELECT id, timestamp, raw_data::text FROM " + table
+                                + " WHERE id > ? AND raw_data IS NOT NULL ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new InlineRow(rs.getLong(1), rs.getTimestamp(2), rs.getString(3)),
+                        afterId, settings.getMigrationBatchSize());
+                if (rows.isEmpty()) {
+                    break;
+                }
+                moved += moveBatch(table, rows);
+                afterId = rows.get(rows.size() - 1).id();
+            } while (rows.size() >= settings.getMigrationBatchSize());
+
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN IF EXISTS raw_data");
+            log.info("Moved {} inline raw payloads of {} to raw_payloads and dropped raw_data", moved, table);
+        }
+    }
+
+    private int moveBatch(String table, List<InlineRow> rows) {
+        List<String> hashes = rawPayloadRepository.storeAll(rows.stream().map(InlineRow::rawData).toList());
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            updates.add(new Object[]{hashes.get(i), rows.get(i).id(), rows.get(i).timestamp()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE " + table
+                + " SET raw_payload_hash = ?, raw_data = NULL WHERE id = ? AND timestamp = ?", updates);
+        return rows.size();
+    }
+
+    private boolean columnExists(String table, String column) {
+        Boolean exists = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                               WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?)
+                """, Boolean.class, table, column);
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -0,0 +1,319 @@
+package com.aiscientist.data_collector.service;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.model.MetricRollup;
+import com.aiscientist.data_collector.model.RollupResolution;
+import com.aiscientist.data_collector.repository.MetricRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Downsamples raw time series into hourly and daily buckets (metric_rollups) and expires the raw
+ * rows behind them.
+ *
+ * Hourly buckets are aggregated from raw rows, daily buckets from hourly ones, so daily history
+ * survives raw and hourly expiry. Every run recomputes the buckets from the newest one written
+ * (or the late-arrival window, whichever is older), and raw rows are only expired before that
+ * point, i.e. after they have been folded into a bucket that will not be recomputed.
+ *
+ * Raw Kp rows are deleted here in short batches. Raw water level readings live in monthly
+ * partitions and expire a whole month at a time with the partition retention, which
+ * PartitionMaintenanceService holds back until the month is behind {@link #rolledUpBefore}.
+ */
+@Service
+@Slf4j
+public class RollupService {
+
+    /**
+     * Rolled-up series and where their raw samples live
+     */
+    public enum Series {
+        WATER_LEVEL("water_level", "water_level_metrics", "station_id", "water_level_feet", "TRUE"),
+        KP_INDEX("kp_index", "metrics", "source", "kp_index", "r.metric_type = 'kp_index'");
+
+        private final String key;
+        private final String table;
+        private final String keyColumn;
+        private final String valueColumn;
+        private final String filter;
+
+        Series(String key, String table, String keyColumn, String valueColumn, String filter) {
+            this.key = key;
+            this.table = table;
+            this.keyColumn = keyColumn;
+            this.valueColumn = valueColumn;
+            this.filter = filter;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private static final Duration ROLLUP_CHUNK = Duration.ofDays(7);
+
+    private static final String UPSERT_CONFLICT = """
+            ON CONFLICT (series, series_key, resolution, bucket_start) DO UPDATE SET
+                min_value = EXCLUDED.min_value,
+                max_value = EXCLUDED.max_value,
+                avg_value = EXCLUDED.avg_value,
+                last_value = EXCLUDED.last_value,
+                sample_count = EXCLUDED.sample_count,
+                last_timestamp = EXCLUDED.last_timestamp,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MetricRollupRepository rollupRepository;
+    private final AppConfig.PersistenceConfig.RollupConfig settings;
+    private final AppConfig.PersistenceConfig.PartitioningConfig partitioning;
+    private final Clock clock;
+
+    @Autowired
+    public RollupService(JdbcTemplate jdbcTemplate, MetricRollupRepository rollupRepository, AppConfig appConfig) {
+        this(jdbcTemplate, rollupRepository, appConfig.getPersistence().getRollup(),
+                appConfig.getPersistence().getPartitioning(), Clock.systemUTC());
+    }
+
+    RollupService(JdbcTemplate jdbcTemplate, MetricRollupRepository rollupRepository,
+                  AppConfig.PersistenceConfig.RollupConfig settings,
+                  AppConfig.PersistenceConfig.PartitioningConfig partitioning, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupRepository = rollupRepository;
+        this.settings = settings;
+        this.partitioning = partitioning;
+        this.clock = clock;
+    }
+
+    /**
+     * Roll up every series, then expire raw rows and hourly buckets past their retention
+     */
+    public void rollupAndExpire() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        for (Series series : Series.values()) {
+            try {
+                Instant recomputedFrom = rollup(series);
+                if (recomputedFrom != null && series == Series.KP_INDEX) {
+                    expireRaw(series, recomputedFrom);
+                }
+            } catch (RuntimeException e) {
+                // Raw rows stay until a later run has rolled them up
+                log.error("Rollup of {} failed: {}", series.key, e.getMessage(), e);
+            }
+        }
+        expireHourly();
+    }
+
+    /**
+     * Recompute hourly and daily buckets of a series; returns the start of the oldest recomputed
+     * hourly bucket, or null when there is nothing to roll up
+     */
+    Instant rollup(Series series) {
+        Instant now = clock.instant();
+        Instant recent = truncate(now.minus(settings.getLateArrival()), RollupResolution.HOUR);
+        Instant from = rollupRepository.findLatestBucketStart(series.key, RollupResolution.HOUR)
+                .map(latest -> latest.isBefore(recent) ? latest : recent)
+                .orElseGet(() -> earliestRaw(series));
+        if (from == null) {
+            return null;
+        }
+
+        int hourly = 0;
+        for (Instant chunk = from; !chunk.isAfter(now); chunk = chunk.plus(ROLLUP_CHUNK)) {
+            hourly += jdbcTemplate.update(hourlySql(series),
+                    Timestamp.from(chunk), Timestamp.from(chunk.plus(ROLLUP_CHUNK)));
+        }
+        int daily = jdbcTemplate.update(dailySql(), series.key,
+                Timestamp.from(truncate(from, RollupResolution.DAY)));
+        log.info("Rolled up {} since {}: {} hourly and {} daily buckets", series.key, from, hourly, daily);
+        return from;
+    }
+
+    /**
+     * Raw rows of a series before this instant sit in buckets no later run recomputes, so they can
+     * be dropped without losing history; null when rollups are disabled
+     */
+    public Instant rolledUpBefore(Series series) {
+        if (!settings.isEnabled()) {
+            return null;
+        }
+        Instant recent = truncate(clock.instant().minus(settings.getLateArrival()), RollupResolution.HOUR);
+        return rollupRepository.findLatestBucketStart(series.key, RollupResolution.HOUR)
+                .map(latest -> min(latest, recent))
+                .orElse(Instant.EPOCH);
+    }
+
+    /**
+     * Buckets of one series at the given resolution, newest first
+     */
+    public List<MetricRollup> history(Series series, String seriesKey, RollupResolution resolution,
+                                      Instant start, Instant end) {
+        return rollupRepository.findBySeriesAndSeriesKeyAndResolutionAndBucketStartBetweenOrderByBucketStartDesc(
+                series.key, seriesKey, resolution, truncate(start, resolution), end);
+    }
+
+    /**
+     * Coarsest rollup whose buckets are no wider than the requested resolution. Without a usable
+     * rollup raw rows are read (empty result), unless they have already expired for the window.
+     */
+    public Optional<RollupResolution> resolve(Series series, Duration requested, Instant since) {
+        if (!settings.isEnabled()) {
+            return Optional.empty();
+        }
+        RollupResolution chosen = null;
+        if (requested != null) {
+            for (RollupResolution resolution : RollupResolution.values()) {
+                if (resolution.getWidth().compareTo(requested) <= 0) {
+                    chosen = resolution;
+                }
+            }
+        }
+        Instant now = clock.instant();
+        if (chosen == null && expiredBefore(since, rawRetainedSince(series, now))) {
+            chosen = RollupResolution.HOUR;
+        }
+        if (chosen == RollupResolution.HOUR && expiredBefore(since, retainedSince(settings.getHourlyRetention(), now))) {
+            chosen = RollupResolution.DAY;
+        }
+        return Optional.ofNullable(chosen);
+    }
+
+    /**
+     * Parse a requested resolution such as "1h", "6h", "1d" or "PT15M"; "raw" or blank means none
+     *
+     * @throws IllegalArgumentException when the value is not a duration
+     */
+    public static Duration parseResolution(String value) {
+        if (value == null || value.isBlank() || "raw".equalsIgnoreCase(value)) {
+            return null;
+        }
+        return DurationStyle.detectAndParse(value.trim());
+    }
+
+    private void expireRaw(Series series, Instant recomputedFrom) {
+        Instant retainedSince = rawRetainedSince(series, clock.instant());
+        if (retainedSince == null) {
+            return;
+        }
+        Instant cutoff = min(truncate(retainedSince, RollupResolution.HOUR), recomputedFrom);
+        String sql = "DELETE FROM " + series.table + " WHERE id IN ("
+                + "SELECT r.id FROM " + series.table + " r WHERE r.timestamp < ? AND " + series.filter + " LIMIT ?)";
+        long deleted = deleteInBatches(sql, cutoff);
+        if (deleted > 0) {
+            log.info("Expired {} raw {} rows older than {}", deleted, series.key, cutoff);
+        }
+    }
+
+    private void expireHourly() {
+        if (isKeepForever(settings.getHourlyRetention())) {
+            return;
+        }
+        Instant cutoff = truncate(clock.instant().minus(settings.getHourlyRetention()), RollupResolution.DAY);
+        long deleted = deleteInBatches("""
+                DELETE FROM metric_rollups WHERE (series, series_key, resolution, bucket_start) IN (
+                    SELECT series, series_key, resolution, bucket_start FROM metric_rollups
+                    WHERE resolution = 'HOUR' AND bucket_start < ? LIMIT ?)
+                """, cutoff);
+        if (deleted > 0) {
+            log.info("Expired {} hourly rollups older than {}", deleted, cutoff);
+        }
+    }
+
+    /**
+     * Short statements so expiry never holds long locks against the write-behind flushes
+     */
+    private long deleteInBatches(String sql, Instant cutoff) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql, Timestamp.from(cutoff), settings.getDeleteBatchSize());
+            total += deleted;
+        } while (deleted >= settings.getDeleteBatchSize());
+        return total;
+    }
+
+    private Instant earliestRaw(Series series) {
+        Timestamp earliest = jdbcTemplate.queryForObject("SELECT MIN(r.timestamp) FROM " + series.table + " r WHERE "
+                + series.filter + " AND r." + series.valueColumn + " IS NOT NULL", Timestamp.class);
+        return earliest == null ? null : truncate(earliest.toInstant(), RollupResolution.HOUR);
+    }
+
+    /**
+     * Oldest raw row still kept, or null when raw rows are kept forever
+     */
+    private Instant rawRetainedSince(Series series, Instant now) {
+        return switch (series) {
+            case WATER_LEVEL -> {
+                int months = partitioning.getWaterLevelRetentionMonths();
+                yield !partitioning.isEnabled() || months <= 0 ? null
+                        : YearMonth.from(now.atOffset(ZoneOffset.UTC)).minusMonths(months - 1L)
+                                .atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            case KP_INDEX -> retainedSince(settings.getKpIndexRawRetention(), now);
+        };
+    }
+
+    static String hourlySql(Series series) {
+        return "INSERT INTO metric_rollups (series, series_key, resolution, bucket_start, min_value, max_value, "
+                + "avg_value, last_value, sample_count, last_timestamp, updated_at) "
+                + "SELECT '" + series.key + "', r." + series.keyColumn + ", 'HOUR', "
+                + "date_trunc('hour', r.timestamp, 'UTC'), "
+                + "MIN(r." + series.valueColumn + "), MAX(r." + series.valueColumn + "), AVG(r." + series.valueColumn + "), "
+                + "(array_agg(r." + series.valueColumn + " ORDER BY r.timestamp DESC))[1], COUNT(*), MAX(r.timestamp), now() "
+                + "FROM " + series.table + " r WHERE r.timestamp >= ? AND r.timestamp < ? AND " + series.filter
+                + " AND r." + series.valueColumn + " IS NOT NULL AND r." + series.keyColumn + " IS NOT NULL "
+                + "GROUP BY r." + series.keyColumn + ", date_trunc('hour', r.timestamp, 'UTC') "
+                + UPSERT_CONFLICT;
+    }
+
+    /**
+     * Daily buckets from hourly ones; the average is weighted by each hour's sample count
+     */
+    static String dailySql() {
+        return """
+                INSERT INTO metric_rollups (series, series_key, resolution, bucket_start, min_value, max_value,
+                                            avg_value, last_value, sample_count, last_timestamp, updated_at)
+                SELECT series, series_key, 'DAY', date_trunc('day', bucket_start, 'UTC'),
+                       MIN(min_value), MAX(max_value), SUM(avg_value * sample_count) / SUM(sample_count),
+                       (array_agg(last_value ORDER BY bucket_start DESC))[1], SUM(sample_count),
+                       MAX(last_timestamp), now()
+                FROM metric_rollups
+                WHERE series = ? AND resolution = 'HOUR' AND bucket_start >= ?
+                GROUP BY series, series_key, date_trunc('day', bucket_start, 'UTC')
+                """ + UPSERT_CONFLICT;
+    }
+
+    private static boolean expiredBefore(Instant since, Instant retainedSince) {
+        return since != null && retainedSince != null && since.isBefore(retainedSince);
+    }
+
+    private static Instant retainedSince(Duration retention, Instant now) {
+        return isKeepForever(retention) ? null : now.minus(retention);
+    }
+
+    private static boolean isKeepForever(Duration retention) {
+        return retention == null || retention.isZero() || retention.isNegative();
+    }
+
+    private static Instant truncate(Instant instant, RollupResolution resolution) {
+        return instant.truncatedTo(resolution.getUnit());
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
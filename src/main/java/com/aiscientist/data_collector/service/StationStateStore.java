@@ -0,0 +1,112 @@
+package com.aiscientist.data_collector.service;
+
+import com.aiscientist.data_collector.model.WaterLevelMetric;
+import com.aiscientist.data_collector.repository.WaterLevelMetricRepository;
+import com.aiscientist.data_collector.util.GeoUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the latest water level reading per station, for the dashboard endpoints.
+ *
+ * The collectors call {@link #update} as soon as a reading is built; older readings never
+ * replace newer ones, so out-of-order arrivals and the startup rebuild can interleave safely.
+ * Rebuilt from station_latest before the web server starts accepting requests.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StationStateStore implements SmartInitializingSingleton {
+
+    private static final Set<String> FLOOD_SEVERITIES = Set.of("MINOR", "MODERATE", "MAJOR");
+
+    private final WaterLevelMetricRepository waterLevelRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, StationState> stations = new ConcurrentHashMap<>();
+
+    /**
+     * Latest reading of one station with its derived flood severity
+     */
+    public record StationState(WaterLevelMetric reading, String floodSeverity, Double latitude, Double longitude) {
+
+        // A copy: the write-behind flush thread mutates the collected instance (payload hash, id),
+        // and the raw API response is not needed by the endpoints
+        static StationState of(WaterLevelMetric reading) {
+            WaterLevelMetric snapshot = reading.toBuilder().rawData(null).build();
+            return new StationState(snapshot, snapshot.getFloodSeverity(), snapshot.getLatitude(), snapshot.getLongitude());
+        }
+
+        boolean isFlooding() {
+            return FLOOD_SEVERITIES.contains(floodSeverity);
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Gauge.builder("station.state.stations", stations, Map::size)
+                .description("Stations held in the in-memory state store")
+                .register(meterRegistry);
+        try {
+            List<WaterLevelMetric> latest = waterLevelRepository.findLatestPerStation();
+            latest.forEach(this::update);
+            log.info("Loaded latest readings of {} stations into the station state store", latest.size());
+        } catch (RuntimeException e) {
+            // Collectors fill the store as readings arrive
+            log.warn("Could not rebuild station state store from the database: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Record a reading if it is at least as recent as the one held for its station
+     */
+    public void update(WaterLevelMetric reading) {
+        if (reading == null || reading.getStationId() == null || reading.getTimestamp() == null) {
+            return;
+        }
+        stations.merge(reading.getStationId(), StationState.of(reading), (current, candidate) ->
+                candidate.reading().getTimestamp().isBefore(current.reading().getTimestamp()) ? current : candidate);
+    }
+
+    public Optional<WaterLevelMetric> getLatest(String stationId) {
+        return Optional.ofNullable(stations.get(stationId)).map(StationState::reading);
+    }
+
+    /**
+     * Stations whose latest reading is at or above a minor, moderate or major flood stage
+     */
+    public List<WaterLevelMetric> findFlooding() {
+        return stations.values().stream()
+                .filter(StationState::isFlooding)
+                .map(StationState::reading)
+                .sorted(Comparator.comparing(WaterLevelMetric::getStationId))
+                .toList();
+    }
+
+    /**
+     * Stations within radiusKm (great-circle distance) of a point, nearest first
+     */
+    public List<WaterLevelMetric> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        return stations.values().stream()
+                .filter(state -> GeoUtils.isWithinKm(latitude, longitude, state.latitude(), state.longitude(), radiusKm))
+                .sorted(Comparator.comparingDouble(state ->
+                        GeoUtils.distanceKm(latitude, longitude, state.latitude(), state.longitude())))
+                .map(StationState::reading)
+                .toList();
+    }
+
+    public int size() {
+        return stations.size();
+    }
+}
@@ -4,22 +4,28 @@ import com.aiscientist.data_collector.dto.EarthquakeEvent;
 import com.aiscientist.data_collector.dto.UsgsEarthquakeResponse;
 import com.aiscientist.data_collector.model.EarthquakeMetric;
 import com.aiscientist.data_collector.repository.EarthquakeRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * Service to fetch earthquake data from USGS Earthquake API
@@ -31,15 +37,18 @@ public class UsgsEarthquakeApiService {
 
     private final WebClient webClient;
     private final EarthquakeRepository earthquakeRepository;
-    private final ObjectMapper objectMapper;
+    private final EarthquakeFeatureStreamParser featureStreamParser;
+    private final PollingWatermarkService watermarkService;
 
     public UsgsEarthquakeApiService(
             @Qualifier("usgsWebClient") WebClient webClient,
             EarthquakeRepository earthquakeRepository,
-            ObjectMapper objectMapper) {
+            EarthquakeFeatureStreamParser featureStreamParser,
+            PollingWatermarkService watermarkService) {
         this.webClient = webClient;
         this.earthquakeRepository = earthquakeRepository;
-        this.objectMapper = objectMapper;
+        this.featureStreamParser = featureStreamParser;
+        this.watermarkService = watermarkService;
     }
 
     @Value("${app.usgs.earthquake.base-url:https://earthquake.usgs.gov}")
@@ -48,10 +57,18 @@ public class UsgsEarthquakeApiService {
     @Value("${app.usgs.earthquake.min-magnitude:4.5}")
     private Double minMagnitude;
 
+    @Value("${app.usgs.earthquake.incremental:true}")
+    private boolean incremental;
+
+    @Value("${app.usgs.earthquake.write-chunk-size:200}")
+    private int writeChunkSize;
+
     private static final String EARTHQUAKE_ENDPOINT = "/fdsnws/event/1/query";
 
     /**
-     * Fetch recent earthquakes from USGS API
+     * Fetch recent earthquakes from USGS API.
+     * With app.usgs.earthquake.incremental enabled, each poll only asks for events updated after
+     * the profile's persisted high-water mark, so unchanged events are neither downloaded nor re-checked.
      * 
      * @param hours Number of hours to look back
      * @param minMag Minimum magnitude threshold
@@ -60,26 +77,65 @@ public class UsgsEarthquakeApiService {
     @CircuitBreaker(name = "usgs-earthquake-api", fallbackMethod = "fetchEarthquakesFallback")
     @Retry(name = "usgs-earthquake-api")
     public Flux<EarthquakeMetric> fetchRecentEarthquakes(int hours, Double minMag) {
-        log.info("Fetching earthquakes from last {} hours with magnitude >= {}", hours, minMag);
+        String profile = String.format(Locale.ROOT, "usgs-earthquake:%dh:m%.1f", hours, minMag);
+
+        return Mono.fromCallable(() -> incremental ? watermarkService.get(profile) : Optional.<Instant>empty())
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMapMany(watermark -> fetchRecentEarthquakes(hours, minMag, profile, watermark.orElse(null)));
+    }
+
+    private Flux<EarthquakeMetric> fetchRecentEarthquakes(int hours, Double minMag, String profile, Instant watermark) {
+        log.info("Fetching earthquakes from last {} hours with magnitude >= {}{}", hours, minMag,
+                watermark != null ? " updated after " + watermark : "");
 
         Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
         String startTime = now.minus(hours, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS).toString();
         String endTime = now.toString();
 
-        String queryParams = String.format("?format=geojson&starttime=%s&endtime=%s&minmagnitude=%.1f&orderby=time",
+        String queryParams = String.format(Locale.ROOT,
+            "?format=geojson&starttime=%s&endtime=%s&minmagnitude=%.1f&orderby=time",
             startTime, endTime, minMag);
+        if (watermark != null) {
+            // FDSN updatedafter is exclusive at millisecond precision; only new or revised events come back
+            queryParams += "&updatedafter=" + watermark;
+        }
 
         String fullUrl = baseUrl + EARTHQUAKE_ENDPOINT + queryParams;
         log.debug("USGS API request URL: {}", fullUrl);
 
-        return webClient.get()
+        AtomicLong maxUpdated = new AtomicLong(watermark != null ? watermark.toEpochMilli() : Long.MIN_VALUE);
+        AtomicBoolean storeFailed = new AtomicBoolean();
+
+        Flux<EarthquakeMetric> metrics = webClient.get()
             .uri(fullUrl)
             .retrieve()
-            .bodyToMono(String.class)
-            .flatMapMany(this::parseEarthquakeResponse)
-            .flatMap(this::convertToMetric)
+            .bodyToFlux(DataBuffer.class)
+            .transform(featureStreamParser::parse)
+            .doOnNext(feature -> {
+                Long updated = feature.getProperties().getUpdated();
+                if (updated != null) {
+                    maxUpdated.accumulateAndGet(updated, Math::max);
+                }
+            })
+            .transform(features -> storeInChunks(features, () -> storeFailed.set(true)))
             .doOnNext(metric -> log.debug("Fetched earthquake: {} - M{} at {}",
-                metric.getEarthquakeId(), metric.getMagnitude(), metric.getLocation()))
+                metric.getEarthquakeId(), metric.getMagnitude(), metric.getLocation()));
+
+        // Advance only after the whole response was parsed and stored; a truncated body or a
+        // failed save leaves the watermark untouched so the next poll asks for the same range again
+        Mono<EarthquakeMetric> advanceWatermark = Mono.<EarthquakeMetric>fromRunnable(() -> {
+                if (incremental && !storeFailed.get() && maxUpdated.get() != Long.MIN_VALUE) {
+                    watermarkService.advance(profile, Instant.ofEpochMilli(maxUpdated.get()));
+                }
+            })
+            .subscribeOn(Schedulers.boundedElastic());
+
+        return metrics
+            .concatWith(advanceWatermark)
+            .onErrorResume(UncheckedIOException.class, error -> {
+                log.error("Failed to parse USGS earthquake response", error);
+                return Flux.empty();
+            })
             .doOnError(error -> log.error("Error fetching earthquakes from USGS", error));
     }
 
@@ -128,85 +184,86 @@ public class UsgsEarthquakeApiService {
         return webClient.get()
             .uri(fullUrl)
             .retrieve()
-            .bodyToMono(String.class)
-            .flatMapMany(this::parseEarthquakeResponse)
-            .flatMap(this::convertToMetric)
+            .bodyToFlux(DataBuffer.class)
+            .transform(this::parseEarthquakeResponse)
+            .transform(features -> storeInChunks(features, () -> { }))
             .doOnError(error -> log.error("Error fetching nearby earthquakes", error));
     }
 
     /**
-     * Parse JSON response from USGS API
+     * Parse GeoJSON response from USGS API feature by feature, without buffering the whole body
+     */
+    private Flux<UsgsEarthquakeResponse.EarthquakeFeature> parseEarthquakeResponse(Flux<DataBuffer> body) {
+        return featureStreamParser.parse(body)
+            .onErrorResume(UncheckedIOException.class, error -> {
+                log.error("Failed to parse USGS earthquake response", error);
+                return Flux.empty();
+            });
+    }
+
+    /**
+     * Convert features and store them in chunks of app.usgs.earthquake.write-chunk-size: one existence
+     * query plus one batched upsert per chunk instead of a SELECT and INSERT per feature.
+     * Emits only events that were new or revised; unchanged events are dropped.
      */
-    private Flux<UsgsEarthquakeResponse.EarthquakeFeature> parseEarthquakeResponse(String jsonResponse) {
-        return Mono.fromCallable(() -> {
-            UsgsEarthquakeResponse response = objectMapper.readValue(
-                    jsonResponse, UsgsEarthquakeResponse.class);
-            
-            log.info("Parsed {} earthquake events from USGS", 
-                    response.getFeatures() != null ? response.getFeatures().size() : 0);
-            
-            return response.getFeatures();
-        })
-        .flatMapMany(Flux::fromIterable)
-        .onErrorResume(error -> {
-            log.error("Failed to parse USGS earthquake response", error);
-            return Flux.empty();
-        });
+    private Flux<EarthquakeMetric> storeInChunks(Flux<UsgsEarthquakeResponse.EarthquakeFeature> features,
+                                                 Runnable onChunkFailure) {
+        return features
+            .<EarthquakeMetric>handle((feature, sink) -> {
+                try {
+                    sink.next(toMetric(feature));
+                } catch (RuntimeException e) {
+                    log.error("Skipping malformed earthquake feature {}", feature.getId(), e);
+                }
+            })
+            .buffer(writeChunkSize)
+            .concatMap(chunk -> Mono.fromCallable(() -> earthquakeRepository.upsertRevisions(chunk))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(stored -> log.debug("Stored {} new or revised earthquakes out of {}",
+                    stored.size(), chunk.size()))
+                .onErrorResume(error -> {
+                    log.error("Failed to store chunk of {} earthquakes", chunk.size(), error);
+                    onChunkFailure.run();
+                    return Mono.empty();
+                }))
+            .flatMapIterable(Function.identity());
     }
 
     /**
      * Convert USGS feature to EarthquakeMetric entity
      */
-    private Mono<EarthquakeMetric> convertToMetric(UsgsEarthquakeResponse.EarthquakeFeature feature) {
-        return Mono.fromCallable(() -> {
-            UsgsEarthquakeResponse.Properties props = feature.getProperties();
-            UsgsEarthquakeResponse.Geometry geom = feature.getGeometry();
-
-            // Check if earthquake already exists in database
-            Optional<EarthquakeMetric> existing = earthquakeRepository
-                    .findByEarthquakeId(feature.getId());
-
-            if (existing.isPresent()) {
-                log.debug("Earthquake {} already exists, skipping", feature.getId());
-                return existing.get();
-            }
-
-            // Extract coordinates [longitude, latitude, depth]
-            Double longitude = geom.getCoordinates().get(0);
-            Double latitude = geom.getCoordinates().get(1);
-            Double depth = geom.getCoordinates().size() > 2 ? geom.getCoordinates().get(2) : null;
-
-            // Determine region from place string
-            String region = extractRegion(props.getPlace());
-
-            EarthquakeMetric metric = EarthquakeMetric.builder()
-                    .earthquakeId(feature.getId())
-                    .magnitude(props.getMagnitude())
-                    .magnitudeType(props.getMagnitudeType())
-                    .depthKm(depth)
-                    .latitude(latitude)
-                    .longitude(longitude)
-                    .eventTime(Instant.ofEpochMilli(props.getTime()))
-                    .location(props.getPlace())
-                    .region(region)
-                    .tsunamiWarning(props.getTsunami() != null && props.getTsunami() == 1)
-                    .alertLevel(props.getAlert())
-                    .significance(props.getSignificance())
-                    .feltReports(props.getFelt())
-                    .maxIntensity(props.getMmi() != null ? String.valueOf(props.getMmi().intValue()) : null)
-                    .dataSource(props.getNet())
-                    .eventUrl(props.getUrl())
-                    .collectedAt(Instant.now())
-                    .build();
-
-            // Save to database
-            return earthquakeRepository.save(metric);
-        })
-        .doOnSuccess(metric -> log.debug("Converted and saved earthquake: {}", metric.getEarthquakeId()))
-        .onErrorResume(error -> {
-            log.error("Failed to convert earthquake feature", error);
-            return Mono.empty();
-        });
+    private EarthquakeMetric toMetric(UsgsEarthquakeResponse.EarthquakeFeature feature) {
+        UsgsEarthquakeResponse.Properties props = feature.getProperties();
+        UsgsEarthquakeResponse.Geometry geom = feature.getGeometry();
+
+        // Extract coordinates [longitude, latitude, depth]
+        Double longitude = geom.getCoordinates().get(0);
+        Double latitude = geom.getCoordinates().get(1);
+        Double depth = geom.getCoordinates().size() > 2 ? geom.getCoordinates().get(2) : null;
+
+        // Determine region from place string
+        String region = extractRegion(props.getPlace());
+
+        return EarthquakeMetric.builder()
+                .earthquakeId(feature.getId())
+                .magnitude(props.getMagnitude())
+                .magnitudeType(props.getMagnitudeType())
+                .depthKm(depth)
+                .latitude(latitude)
+                .longitude(longitude)
+                .eventTime(Instant.ofEpochMilli(props.getTime()))
+                .location(props.getPlace())
+                .region(region)
+                .tsunamiWarning(props.getTsunami() != null && props.getTsunami() == 1)
+                .alertLevel(props.getAlert())
+                .significance(props.getSignificance())
+                .feltReports(props.getFelt())
+                .maxIntensity(props.getMmi() != null ? String.valueOf(props.getMmi().intValue()) : null)
+                .dataSource(props.getNet())
+                .eventUrl(props.getUrl())
+                .sourceUpdatedAt(props.getUpdated() != null ? Instant.ofEpochMilli(props.getUpdated()) : null)
+                .collectedAt(Instant.now())
+                .build();
     }
 
     /**
@@ -261,11 +318,11 @@ public class UsgsEarthquakeApiService {
     /**
      * Fallback method when USGS API is unavailable
      */
-    private Flux<EarthquakeMetric> fetchEarthquakesFallback(Exception ex) {
+    private Flux<EarthquakeMetric> fetchEarthquakesFallback(int hours, Double minMag, Exception ex) {
         log.warn("USGS Earthquake API unavailable, using fallback: {}", ex.getMessage());
         
         // Return recent earthquakes from database
-        Instant cutoff = Instant.now().minus(24, ChronoUnit.HOURS);
+        Instant cutoff = Instant.now().minus(hours, ChronoUnit.HOURS);
         return Flux.fromIterable(earthquakeRepository.findRecentEarthquakes(cutoff))
                 .doOnNext(metric -> log.debug("Returning cached earthquake: {}", metric.getEarthquakeId()));
     }
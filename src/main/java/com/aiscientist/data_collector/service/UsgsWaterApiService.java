@@ -18,8 +18,11 @@ import reactor.core.publisher.Mono;
 
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service to collect river/stream water level data from USGS Water Services API
@@ -30,12 +33,15 @@ import java.util.List;
 @Slf4j
 public class UsgsWaterApiService {
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient usgsWaterWebClient;
     private final WaterLevelMetricRepository waterLevelRepository;
+    private final WriteBehindBuffer<WaterLevelMetric> waterLevelWriteBehind;
+    private final StationStateStore stationStateStore;
     private final ObjectMapper objectMapper;
 
-    @Value("${app.usgs.water.base-url:https://waterservices.usgs.gov/nwis/iv}")
-    private String baseUrl;
+    // Max number of site codes packed into a single NWIS IV request (<= 1 disables batching)
+    @Value("${app.usgs.water.batch-size:100}")
+    private int batchSize;
 
     // Major river monitoring sites across US
     // Format: siteCode
@@ -64,11 +70,7 @@ public class UsgsWaterApiService {
     public Mono<WaterLevelMetric> fetchWaterData(String siteCode) {
         log.info("Fetching water data for USGS site: {}", siteCode);
 
-        WebClient webClient = webClientBuilder
-            .baseUrl(baseUrl)
-            .build();
-
-        return webClient.get()
+        return usgsWaterWebClient.get()
             .uri(uriBuilder -> uriBuilder
                 .queryParam("format", "json")
                 .queryParam("sites", siteCode)
@@ -78,10 +80,11 @@ public class UsgsWaterApiService {
             .retrieve()
             .bodyToMono(UsgsWaterResponse.class)
             .map(response -> convertToMetric(response, siteCode))
+            .doOnNext(stationStateStore::update)
+            .flatMap(metric -> waterLevelWriteBehind.enqueue(metric).thenReturn(metric))
             .doOnSuccess(metric -> {
                 if (metric != null) {
-                    waterLevelRepository.save(metric);
-                    log.info("Saved water data for site {}: {} ft", 
+                    log.info("Queued water data for site {}: {} ft", 
                         siteCode, metric.getGageHeightFeet());
                 }
             })
@@ -92,18 +95,129 @@ public class UsgsWaterApiService {
             });
     }
 
+    /**
+     * Fetch water level and discharge for several USGS sites in a single request.
+     * NWIS IV accepts a comma-separated site list; the returned time series are
+     * split back out per site into one WaterLevelMetric each.
+     */
+    @CircuitBreaker(name = "usgs-water-api", fallbackMethod = "fetchWaterDataBatchFallback")
+    @Retry(name = "usgs-water-api")
+    public Flux<WaterLevelMetric> fetchWaterDataBatch(List<String> siteCodes) {
+        log.info("Fetching water data for batch of {} USGS sites", siteCodes.size());
+
+        return usgsWaterWebClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .queryParam("format", "json")
+                .queryParam("sites", String.join(",", siteCodes))
+                .queryParam("parameterCd", "00065,00060") // Gage height, Discharge
+                .queryParam("siteStatus", "active")
+                .build())
+            .retrieve()
+            .bodyToMono(UsgsWaterResponse.class)
+            .flatMapIterable(response -> splitBySite(response, siteCodes))
+            .doOnNext(stationStateStore::update)
+            .concatMap(metric -> waterLevelWriteBehind.enqueue(metric).thenReturn(metric))
+            .doOnNext(metric -> log.debug("Queued water data for site {}: {} ft",
+                metric.getStationId(), metric.getGageHeightFeet()))
+            .doOnError(error -> log.error("Error fetching water data for batch of {} sites", siteCodes.size(), error))
+            .onErrorResume(error -> {
+                log.error("Failed to fetch water data for batch {}: {}", siteCodes, error.getMessage());
+                return Flux.empty();
+            });
+    }
+
     /**
      * Fetch water data for all monitoring sites
      */
     public Flux<WaterLevelMetric> fetchAllMonitoringSites() {
-        log.info("Fetching water data for {} monitoring sites", MONITORING_SITES.size());
-        
+        if (batchSize <= 1) {
+            log.info("Fetching water data for {} monitoring sites", MONITORING_SITES.size());
+
+            return Flux.fromIterable(MONITORING_SITES)
+                .flatMap(siteCode -> fetchWaterData(siteCode)
+                    .delayElement(java.time.Duration.ofMillis(150))) // Rate limiting
+                .doOnComplete(() -> log.info("Completed fetching all monitoring sites"));
+        }
+
+        log.info("Fetching water data for {} monitoring sites in batches of {}", MONITORING_SITES.size(), batchSize);
+
         return Flux.fromIterable(MONITORING_SITES)
-            .flatMap(siteCode -> fetchWaterData(siteCode)
-                .delayElement(java.time.Duration.ofMillis(150))) // Rate limiting
+            .buffer(batchSize)
+            .concatMap(batch -> fetchWaterDataBatch(batch)
+                .delaySubscription(java.time.Duration.ofMillis(150))) // Rate limiting between batches
             .doOnComplete(() -> log.info("Completed fetching all monitoring sites"));
     }
 
+    /**
+     * Split a multi-site response into one metric per site, in request order
+     */
+    private List<WaterLevelMetric> splitBySite(UsgsWaterResponse response, List<String> siteCodes) {
+        if (response == null || response.getValue() == null ||
+            response.getValue().getTimeSeries() == null) {
+            log.warn("No water data found for batch {}", siteCodes);
+            return List.of();
+        }
+
+        Map<String, List<UsgsWaterResponse.TimeSeries>> seriesBySite = new LinkedHashMap<>();
+        for (UsgsWaterResponse.TimeSeries ts : response.getValue().getTimeSeries()) {
+            String siteCode = siteCodeOf(ts);
+            if (siteCode == null) continue;
+            seriesBySite.computeIfAbsent(siteCode, k -> new ArrayList<>()).add(ts);
+        }
+
+        List<WaterLevelMetric> metrics = new ArrayList<>(seriesBySite.size());
+        seriesBySite.forEach((siteCode, series) -> {
+            UsgsWaterResponse siteResponse = UsgsWaterResponse.builder()
+                .value(UsgsWaterResponse.Value.builder()
+                    .timeSeries(series.toArray(new UsgsWaterResponse.TimeSeries[0]))
+                    .build())
+                .build();
+            WaterLevelMetric metric = convertToMetric(siteResponse, siteCode);
+            if (metric != null) {
+                metrics.add(metric);
+            }
+        });
+
+        if (seriesBySite.size() < siteCodes.size()) {
+            log.debug("USGS returned data for {} of {} requested sites", seriesBySite.size(), siteCodes.size());
+        }
+        return metrics;
+    }
+
+    /**
+     * Site number of a time series, from sourceInfo or the "USGS:site:param:stat" series name
+     */
+    private String siteCodeOf(UsgsWaterResponse.TimeSeries ts) {
+        UsgsWaterResponse.SourceInfo sourceInfo = ts.getSourceInfo();
+        if (sourceInfo != null && sourceInfo.getSiteCode() != null && sourceInfo.getSiteCode().length > 0) {
+            return sourceInfo.getSiteCode()[0].getValue();
+        }
+        if (ts.getName() != null) {
+            String[] parts = ts.getName().split(":");
+            if (parts.length > 1) {
+                return parts[1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parameter code of a time series (e.g. "00065" gage height, "00060" discharge)
+     */
+    private String variableCodeOf(UsgsWaterResponse.TimeSeries ts) {
+        UsgsWaterResponse.Variable variable = ts.getVariable();
+        if (variable != null && variable.getVariableCode() != null && variable.getVariableCode().length > 0) {
+            return variable.getVariableCode()[0].getValue();
+        }
+        if (ts.getName() != null) {
+            String[] parts = ts.getName().split(":");
+            if (parts.length > 2) {
+                return parts[2];
+            }
+        }
+        return "";
+    }
+
     /**
      * Convert USGS API response to WaterLevelMetric entity
      */
@@ -132,7 +246,7 @@ public class UsgsWaterApiService {
 
                 UsgsWaterResponse.DataValue latestValue = values[0];
                 UsgsWaterResponse.SourceInfo sourceInfo = ts.getSourceInfo();
-                String variableCode = ts.getVariable().getVariableCode();
+                String variableCode = variableCodeOf(ts);
 
                 // Set common fields from first time series
                 if (sourceInfo != null) {
@@ -217,6 +331,18 @@ public class UsgsWaterApiService {
             waterLevelRepository.findFirstByStationIdOrderByTimestampDesc(siteCode).orElse(null));
     }
 
+    /**
+     * Fallback for batched fetch: latest stored reading for each requested site
+     */
+    private Flux<WaterLevelMetric> fetchWaterDataBatchFallback(List<String> siteCodes, Exception e) {
+        log.warn("Circuit breaker activated for USGS Water API (batch of {} sites), returning cached data",
+            siteCodes.size(), e);
+
+        return Flux.fromIterable(siteCodes)
+            .mapNotNull(siteCode ->
+                waterLevelRepository.findFirstByStationIdOrderByTimestampDesc(siteCode).orElse(null));
+    }
+
     /**
      * Get list of all monitored site codes
      */
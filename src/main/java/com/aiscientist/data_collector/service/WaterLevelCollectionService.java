@@ -1,13 +1,15 @@
 package com.aiscientist.data_collector.service;
 
 import com.aiscientist.data_collector.dto.WaterLevelEvent;
-import com.aiscientist.data_collector.kafka.KafkaProducerService;
-import com.aiscientist.data_collector.model.WaterLevelMetric;
+import com.aiscientist.data_collector.kafka.FanOutRoute;
+import com.aiscientist.data_collector.kafka.KafkaPublishStage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
+import java.util.List;
+
 /**
  * Service to orchestrate water level data collection from multiple sources
  */
@@ -18,11 +20,19 @@ public class WaterLevelCollectionService {
 
     private final NoaaTidesApiService noaaTidesApiService;
     private final UsgsWaterApiService usgsWaterApiService;
-    private final KafkaProducerService kafkaProducerService;
+    private final KafkaPublishStage kafkaPublishStage;
+    private final LiveEventStream<WaterLevelEvent> waterLevelLiveStream;
 
     private static final String WATER_LEVEL_TOPIC = "raw.waterlevel.data";
     private static final String FLOOD_ALERT_TOPIC = "raw.flood.alert";
 
+    /**
+     * Every reading to the data topic, flooding ones also as a flood alert (same bytes)
+     */
+    private static final List<FanOutRoute<WaterLevelEvent>> ROUTES = List.of(
+        FanOutRoute.always(WATER_LEVEL_TOPIC),
+        FanOutRoute.when(FLOOD_ALERT_TOPIC, WaterLevelEvent::isFlooding));
+
     /**
      * Collect water level data from NOAA Tides & Currents API
      */
@@ -31,17 +41,14 @@ public class WaterLevelCollectionService {
         
         noaaTidesApiService.fetchAllMonitoringStations()
             .doOnNext(metric -> {
-                // Publish to Kafka
-                WaterLevelEvent event = noaaTidesApiService.createEvent(metric);
-                kafkaProducerService.sendWaterLevelEvent(WATER_LEVEL_TOPIC, event);
-                
-                // If flooding detected, send alert
                 if (metric.isFlooding()) {
-                    kafkaProducerService.sendWaterLevelEvent(FLOOD_ALERT_TOPIC, event);
                     log.warn("FLOOD ALERT: Station {} - {} severity", 
                         metric.getStationId(), metric.getFloodSeverity());
                 }
             })
+            .map(noaaTidesApiService::createEvent)
+            .doOnNext(event -> waterLevelLiveStream.publish(FanOutRoute.mostSpecific(ROUTES, event)))
+            .transform(kafkaPublishStage.fanOut("noaa-tides", ROUTES, WaterLevelEvent::getStationId))
             .doOnComplete(() -> log.info("Completed NOAA tides water level collection"))
             .doOnError(error -> log.error("Error during NOAA tides collection", error))
             .subscribe();
@@ -55,17 +62,14 @@ public class WaterLevelCollectionService {
         
         usgsWaterApiService.fetchAllMonitoringSites()
             .doOnNext(metric -> {
-                // Publish to Kafka
-                WaterLevelEvent event = usgsWaterApiService.createEvent(metric);
-                kafkaProducerService.sendWaterLevelEvent(WATER_LEVEL_TOPIC, event);
-                
-                // If flooding detected, send alert
                 if (metric.isFlooding()) {
-                    kafkaProducerService.sendWaterLevelEvent(FLOOD_ALERT_TOPIC, event);
                     log.warn("FLOOD ALERT: Site {} - {} severity", 
                         metric.getStationId(), metric.getFloodSeverity());
                 }
             })
+            .map(usgsWaterApiService::createEvent)
+            .doOnNext(event -> waterLevelLiveStream.publish(FanOutRoute.mostSpecific(ROUTES, event)))
+            .transform(kafkaPublishStage.fanOut("usgs-water", ROUTES, WaterLevelEvent::getStationId))
             .doOnComplete(() -> log.info("Completed USGS river water level collection"))
             .doOnError(error -> log.error("Error during USGS water collection", error))
             .subscribe();
@@ -77,27 +81,19 @@ public class WaterLevelCollectionService {
     public void collectSpecificStation(String source, String stationId) {
         log.info("Collecting water level for {} station: {}", source, stationId);
         
-        Flux<WaterLevelMetric> result;
+        Flux<WaterLevelEvent> events;
         
         if ("noaa_tides".equalsIgnoreCase(source)) {
-            result = noaaTidesApiService.fetchWaterLevel(stationId).flux();
+            events = noaaTidesApiService.fetchWaterLevel(stationId).flux().map(noaaTidesApiService::createEvent);
         } else if ("usgs_water".equalsIgnoreCase(source)) {
-            result = usgsWaterApiService.fetchWaterData(stationId).flux();
+            events = usgsWaterApiService.fetchWaterData(stationId).flux().map(usgsWaterApiService::createEvent);
         } else {
             log.error("Unknown source: {}", source);
             return;
         }
         
-        result.doOnNext(metric -> {
-                WaterLevelEvent event = source.contains("noaa") 
-                    ? noaaTidesApiService.createEvent(metric)
-                    : usgsWaterApiService.createEvent(metric);
-                kafkaProducerService.sendWaterLevelEvent(WATER_LEVEL_TOPIC, event);
-                
-                if (metric.isFlooding()) {
-                    kafkaProducerService.sendWaterLevelEvent(FLOOD_ALERT_TOPIC, event);
-                }
-            })
+        events.doOnNext(event -> waterLevelLiveStream.publish(FanOutRoute.mostSpecific(ROUTES, event)))
+            .transform(kafkaPublishStage.fanOut("single-station", ROUTES, WaterLevelEvent::getStationId))
             .subscribe();
     }
 }
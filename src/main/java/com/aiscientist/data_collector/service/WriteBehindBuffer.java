@@ -0,0 +1,301 @@
+package com.aiscientist.data_collector.service;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind persistence stage between the reactive collectors and PostgreSQL.
+ *
+ * Collectors hand entities to {@link #enqueue} and move on; a dedicated flush thread drains
+ * the bounded queue and writes batches of up to batch-size rows in one transaction, either when
+ * a batch is full or when flush-interval has passed. When the queue is full, enqueue waits on
+ * boundedElastic (never on the event loop) for up to offer-timeout, slowing the collector down.
+ * Anything that must only advance once rows are stored registers a flush listener.
+ *
+ * A batch failing on a transient error (lost connection, deadlock, serialization failure) is
+ * retried up to max-retries times with doubling backoff, so a short database outage loses
+ * nothing. A batch failing otherwise is split in halves, each written in its own transaction,
+ * until only the rows that fail on their own are dropped.
+ *
+ * Metrics, tagged buffer=&lt;name&gt;: write.behind.queue.depth, write.behind.flush (timer),
+ * write.behind.items.written, write.behind.items.failed, write.behind.backpressure.
+ */
+@Slf4j
+public class WriteBehindBuffer<T> implements SmartLifecycle {
+
+    /**
+     * SQLSTATE classes worth retrying: connection exception, insufficient resources, operator
+     * intervention (e.g. admin shutdown) and transaction rollback (deadlock, serialization failure)
+     */
+    private static final List<String> TRANSIENT_SQL_STATES = List.of("08", "53", "57", "40");
+
+    /**
+     * Longest wait for new items before the flush loop checks whether it was stopped
+     */
+    private static final long POLL_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String name;
+    private final Consumer<List<T>> batchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+
+    private final Timer flushTimer;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Counter backpressureCounter;
+    private final List<Consumer<List<T>>> flushListeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread flushThread;
+
+    public WriteBehindBuffer(String name,
+                             Consumer<List<T>> batchWriter,
+                             TransactionTemplate transactionTemplate,
+                             AppConfig.PersistenceConfig.WriteBehindConfig settings,
+                             MeterRegistry meterRegistry) {
+        this.name = name;
+        this.batchWriter = batchWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(settings.getCapacity());
+        this.batchSize = settings.getBatchSize();
+        this.flushInterval = settings.getFlushInterval();
+        this.offerTimeout = settings.getOfferTimeout();
+        this.maxRetries = settings.getMaxRetries();
+        this.retryBackoff = settings.getRetryBackoff();
+
+        Gauge.builder("write.behind.queue.depth", queue, BlockingQueue::size)
+                .tag("buffer", name)
+                .description("Entities waiting to be flushed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("write.behind.flush")
+                .tag("buffer", name)
+                .description("Time to write one batch")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("write.behind.items.written").tag("buffer", name).register(meterRegistry);
+        this.failedCounter = Counter.builder("write.behind.items.failed").tag("buffer", name)
+                .description("Rows dropped after retries, or on their own, failed")
+                .register(meterRegistry);
+        this.backpressureCounter = Counter.builder("write.behind.backpressure").tag("buffer", name)
+                .description("Enqueues that had to wait for free queue capacity")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue an entity for writing. Completes immediately while there is capacity; otherwise waits
+     * off the event loop for up to offer-timeout and errors if the queue is still full.
+     */
+    public Mono<Void> enqueue(T item) {
+        return Mono.defer(() -> {
+            if (queue.offer(item)) {
+                return Mono.<Void>empty();
+            }
+            backpressureCounter.increment();
+            return Mono.fromCallable(() -> queue.offer(item, offerTimeout.toMillis(), TimeUnit.MILLISECONDS))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(accepted -> accepted
+                            ? Mono.<Void>empty()
+                            : Mono.<Void>error(new IllegalStateException(
+                                    "Write-behind buffer '" + name + "' full after " + offerTimeout)));
+        });
+    }
+
+    /**
+     * Called on the flush thread with every batch once its transaction has committed; the list is
+     * reused afterwards, so listeners must not keep it
+     */
+    public void addFlushListener(Consumer<List<T>> listener) {
+        flushListeners.add(listener);
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flushThread = new Thread(this::flushLoop, "write-behind-" + name);
+        flushThread.setDaemon(true);
+        flushThread.start();
+        log.info("Started write-behind buffer '{}' (batchSize={}, flushInterval={})", name, batchSize, flushInterval);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        // No interrupt: let an in-flight JDBC batch finish, the loop exits within one poll slice
+        running = false;
+        try {
+            flushThread.join(flushInterval.plusSeconds(30).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever arrived after the loop exited
+        drainAndFlushRemaining();
+        log.info("Stopped write-behind buffer '{}'", name);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the scheduler executors (default phase) but before the DataSource is closed
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+
+    private void flushLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (running) {
+            try {
+                long waitNanos = deadline - System.nanoTime();
+                T item = waitNanos > 0 ? queue.poll(Math.min(waitNanos, POLL_SLICE_NANOS), TimeUnit.NANOSECONDS) : null;
+                if (item != null) {
+                    batch.add(item);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (batch.size() >= batchSize || System.nanoTime() >= deadline) {
+                    flush(batch);
+                    deadline = System.nanoTime() + flushInterval.toNanos();
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        flush(batch);
+    }
+
+    private void drainAndFlushRemaining() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            write(batch);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Write the rows, splitting them on a non-transient failure until only failing rows are dropped
+     */
+    private void write(List<T> rows) {
+        RuntimeException failure = writeWithRetries(rows);
+        if (failure == null) {
+            return;
+        }
+        if (rows.size() == 1 || isTransient(failure)) {
+            failedCounter.increment(rows.size());
+            log.error("Write-behind buffer '{}' dropped {} rows", name, rows.size(), failure);
+            return;
+        }
+        log.warn("Write-behind buffer '{}' failed to flush {} rows, writing them in halves: {}",
+                name, rows.size(), failure.toString());
+        int half = rows.size() / 2;
+        write(rows.subList(0, half));
+        write(rows.subList(half, rows.size()));
+    }
+
+    /**
+     * @return null once written, otherwise the last failure
+     */
+    private RuntimeException writeWithRetries(List<T> rows) {
+        Duration backoff = retryBackoff;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> batchWriter.accept(rows)));
+                writtenCounter.increment(rows.size());
+                log.debug("Write-behind buffer '{}' flushed {} rows", name, rows.size());
+                notifyFlushed(rows);
+                return null;
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries || !isTransient(e)) {
+                    return e;
+                }
+                log.warn("Write-behind buffer '{}' failed to flush {} rows, retrying in {}: {}",
+                        name, rows.size(), backoff, e.toString());
+                try {
+                    Thread.sleep(backoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return e;
+                }
+                backoff = backoff.multipliedBy(2);
+            }
+        }
+    }
+
+    static boolean isTransient(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && TRANSIENT_SQL_STATES.stream().anyMatch(sqlException.getSQLState()::startsWith)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void notifyFlushed(List<T> batch) {
+        for (Consumer<List<T>> listener : flushListeners) {
+            try {
+                listener.accept(batch);
+            } catch (RuntimeException e) {
+                log.warn("Flush listener of write-behind buffer '{}' failed", name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.aiscientist.data_collector.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Great-circle distances and a fixed 1°x1° grid used to index point data.
+ *
+ * A grid cell id is {@code latRow * 360 + lonColumn}, where latRow = floor(lat) + 90 (0..179)
+ * and lonColumn = floor(lon) + 180 wrapped to 0..359. DatabaseSchemaInitializer backfills the
+ * geo_cell column with the same formula in SQL; keep the two in sync.
+ */
+public final class GeoUtils {
+
+    /**
+     * Mean Earth radius (IUGG)
+     */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    public static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private static final int LAT_ROWS = 180;
+    private static final int LON_COLUMNS = 360;
+
+    /**
+     * Beyond this many cells an IN list stops paying off; callers fall back to a latitude band
+     */
+    public static final int MAX_QUERY_CELLS = 2048;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * Haversine distance in kilometres
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    public static boolean isWithinKm(double lat1, double lon1, Double lat2, Double lon2, double radiusKm) {
+        return lat2 != null && lon2 != null && distanceKm(lat1, lon1, lat2, lon2) <= radiusKm;
+    }
+
+    /**
+     * Grid cell of a point, or null when either coordinate is missing
+     */
+    public static Integer cellId(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        return cellRow(latitude) * LON_COLUMNS + cellColumn(longitude);
+    }
+
+    /**
+     * Smallest latitude/longitude box containing the circle, computed on the sphere: the longitude
+     * span widens with latitude, wraps across the antimeridian (minLon &gt; maxLon), and covers all
+     * longitudes when the circle reaches a pole.
+     */
+    public static BoundingBox boundingBox(double latitude, double longitude, double radiusKm) {
+        double angular = radiusKm / EARTH_RADIUS_KM;
+        double minLat = latitude - Math.toDegrees(angular);
+        double maxLat = latitude + Math.toDegrees(angular);
+        if (minLat <= -90 || maxLat >= 90 || angular >= Math.PI / 2) {
+            return new BoundingBox(Math.max(minLat, -90), Math.min(maxLat, 90), -180, 180);
+        }
+
+        double deltaLon = Math.toDegrees(Math.asin(Math.sin(angular) / Math.cos(Math.toRadians(latitude))));
+        double minLon = normalizeLongitude(longitude - deltaLon);
+        double maxLon = normalizeLongitude(longitude + deltaLon);
+        return new BoundingBox(minLat, maxLat, minLon, maxLon);
+    }
+
+    /**
+     * Longitude in [-180, 180)
+     */
+    public static double normalizeLongitude(double longitude) {
+        return ((longitude + 180) % 360 + 360) % 360 - 180;
+    }
+
+    /**
+     * Box in degrees; when {@link #crossesAntimeridian()} the longitude range is
+     * [minLon, 180) plus [-180, maxLon]
+     */
+    public record BoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+
+        public boolean crossesAntimeridian() {
+            return minLon > maxLon;
+        }
+
+        public boolean coversAllLongitudes() {
+            return minLon <= -180 && maxLon >= 180;
+        }
+
+        /**
+         * Grid cells intersecting the box, or an empty list if there are more than
+         * {@link #MAX_QUERY_CELLS}
+         */
+        public List<Integer> cells() {
+            int firstRow = cellRow(minLat);
+            int lastRow = cellRow(maxLat);
+            List<Integer> columns = new ArrayList<>();
+            if (coversAllLongitudes()) {
+                for (int column = 0; column < LON_COLUMNS; column++) {
+                    columns.add(column);
+                }
+            } else {
+                int first = cellColumn(minLon);
+                int last = cellColumn(maxLon);
+                for (int column = first; ; column = (column + 1) % LON_COLUMNS) {
+                    columns.add(column);
+                    if (column == last) {
+                        break;
+                    }
+                }
+            }
+
+            long count = (long) (lastRow - firstRow + 1) * columns.size();
+            if (count > MAX_QUERY_CELLS) {
+                return List.of();
+            }
+            List<Integer> cells = new ArrayList<>((int) count);
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column : columns) {
+                    cells.add(row * LON_COLUMNS + column);
+                }
+            }
+            return cells;
+        }
+    }
+
+    private static int cellRow(double latitude) {
+        return Math.max(0, Math.min(LAT_ROWS - 1, (int) Math.floor(latitude) + 90));
+    }
+
+    private static int cellColumn(double longitude) {
+        return Math.floorMod((int) Math.floor(longitude) + 180, LON_COLUMNS);
+    }
+}
@@ -0,0 +1,130 @@
+package com.aiscientist.data_collector.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.aiscientist.data_collector.dto.KpIndexEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    @Mock
+    private ReactiveRedisOperations<String, Object> redis;
+
+    @Mock
+    private ReactiveValueOperations<String, Object> valueOps;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        AppConfig.CacheConfig settings = new AppConfig.CacheConfig();
+        settings.setTtl(Map.of("kp-index", Duration.ofMinutes(5)));
+        settings.setRedisRetryInterval(Duration.ofMinutes(1));
+        lenient().when(redis.opsForValue()).thenReturn(valueOps);
+        cache = new TwoLevelCache("kp-index", redis,
+                new TwoLevelCache.RedisBackoff(settings.getRedisRetryInterval()), settings, meterRegistry);
+    }
+
+    @Test
+    void put_shouldServeFromLocalCacheAndWriteThroughToRedis() {
+        when(valueOps.set(anyString(), any(), any(Duration.class))).thenReturn(Mono.just(true));
+
+        cache.put("latest", List.of("a", "b"));
+
+        assertEquals(List.of("a", "b"), cache.retrieve("latest").join());
+        verify(valueOps).set("data-collector:kp-index::latest", List.of("a", "b"), Duration.ofMinutes(5));
+        verify(valueOps, never()).get(anyString());
+        assertEquals(1.0, gets("l1", "hit"));
+    }
+
+    @Test
+    void retrieve_shouldPromoteRedisHitToLocalCache() {
+        when(valueOps.get("data-collector:kp-index::latest")).thenReturn(Mono.just("from-redis"));
+
+        assertEquals("from-redis", cache.retrieve("latest").join());
+        assertEquals("from-redis", cache.retrieve("latest").join());
+
+        verify(valueOps, times(1)).get(anyString());
+        assertEquals(1.0, gets("l2", "hit"));
+        assertEquals(1.0, gets("l1", "hit"));
+    }
+
+    @Test
+    void retrieve_shouldCompleteWithNullOnRedisMiss() {
+        when(valueOps.get(anyString())).thenReturn(Mono.empty());
+
+        CompletableFuture<?> result = cache.retrieve("latest");
+
+        assertNotNull(result);
+        assertNull(result.join());
+        assertEquals(1.0, gets("l2", "miss"));
+    }
+
+    @Test
+    void retrieve_shouldSkipRedisAfterFailureUntilRetryInterval() {
+        when(valueOps.get(anyString())).thenReturn(Mono.error(new IllegalStateException("connection refused")));
+
+        assertNull(cache.retrieve("latest").join());
+        assertNull(cache.retrieve("latest"), "Redis should be bypassed while backing off");
+
+        verify(valueOps, times(1)).get(anyString());
+        assertEquals(1.0, meterRegistry.counter("cache.tiered.redis.errors", "cache", "kp-index").count());
+    }
+
+    @Test
+    void retrieveWithLoader_shouldLoadAndCacheOnMiss() {
+        when(valueOps.get(anyString())).thenReturn(Mono.empty());
+        when(valueOps.set(anyString(), any(), any(Duration.class))).thenReturn(Mono.just(true));
+
+        Object loaded = cache.retrieve("latest", () -> CompletableFuture.completedFuture("loaded")).join();
+
+        assertEquals("loaded", loaded);
+        assertEquals("loaded", cache.retrieve("latest").join());
+    }
+
+    @Test
+    void cacheValueSerializer_shouldRoundTripTypedLists() {
+        GenericJackson2JsonRedisSerializer serializer =
+                TwoLevelCacheConfig.cacheValueSerializer(new ObjectMapper().findAndRegisterModules());
+        List<KpIndexEvent> events = List.of(KpIndexEvent.builder()
+                .timeTag("2026-10-17 12:00:00")
+                .kpIndex(4.33)
+                .source("noaa")
+                .timestamp(Instant.parse("2026-10-17T12:00:00Z"))
+                .build());
+
+        byte[] bytes = serializer.serialize(new ArrayList<>(events));
+        Object restored = serializer.deserialize(bytes);
+
+        assertTrue(new String(bytes, StandardCharsets.UTF_8).contains(KpIndexEvent.class.getName()));
+        assertEquals(events, restored);
+    }
+
+    private double gets(String tier, String result) {
+        return meterRegistry.counter("cache.tiered.gets", "cache", "kp-index", "tier", tier, "result", result).count();
+    }
+}
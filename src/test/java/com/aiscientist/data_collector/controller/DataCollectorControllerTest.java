@@ -2,10 +2,12 @@ package com.aiscientist.data_collector.controller;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,9 +15,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
-import com.aiscientist.data_collector.model.Metric;
-import com.aiscientist.data_collector.repository.MetricRepository;
+import com.aiscientist.data_collector.dto.KeysetPage;
+import com.aiscientist.data_collector.dto.KeysetPageRequest;
+import com.aiscientist.data_collector.repository.KeysetQueryRepository;
+import com.aiscientist.data_collector.repository.Projections;
 import com.aiscientist.data_collector.service.DataCollectorService;
+import com.aiscientist.data_collector.service.RawPayloadService;
+import com.aiscientist.data_collector.service.RollupService;
 
 @WebMvcTest(DataCollectorController.class)
 class DataCollectorControllerTest {
@@ -27,7 +33,13 @@ class DataCollectorControllerTest {
     private DataCollectorService dataCollectorService;
 
     @MockBean
-    private MetricRepository metricRepository;
+    private KeysetQueryRepository keysetQueryRepository;
+
+    @MockBean
+    private RollupService rollupService;
+
+    @MockBean
+    private RawPayloadService rawPayloadService;
 
     @Test
     void triggerKpIndexCollection_shouldReturn200() throws Exception {
@@ -52,24 +64,27 @@ class DataCollectorControllerTest {
     @Test
     void getRecentMetrics_shouldReturnMetrics() throws Exception {
         // Given
-        Metric metric = Metric.builder()
-                .id(1L)
-                .timestamp(Instant.now())
-                .source("noaa")
-                .metricType("kp_index")
-                .kpIndex(3.0)
-                .build();
+        Map<String, Object> metric = Map.of(
+                "id", 1L,
+                "timestamp", Instant.now(),
+                "source", "noaa",
+                "metricType", "kp_index",
+                "kpIndex", 3.0);
         
-        when(metricRepository.findRecentMetrics(anyString(), any(Instant.class)))
-                .thenReturn(List.of(metric));
+        when(keysetQueryRepository.findPage(eq(Projections.METRIC), any(), any(KeysetPageRequest.class)))
+                .thenReturn(KeysetPage.<Map<String, Object>>builder()
+                        .items(List.of(metric))
+                        .limit(KeysetPageRequest.DEFAULT_LIMIT)
+                        .build());
         
         // When & Then
         mockMvc.perform(get("/api/v1/collector/metrics")
                 .param("source", "noaa")
                 .param("hours", "24"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].source").value("noaa"))
-                .andExpect(jsonPath("$[0].metricType").value("kp_index"));
+                .andExpect(jsonPath("$.items[0].source").value("noaa"))
+                .andExpect(jsonPath("$.items[0].metricType").value("kp_index"))
+                .andExpect(jsonPath("$.hasMore").value(false));
     }
 
     @Test
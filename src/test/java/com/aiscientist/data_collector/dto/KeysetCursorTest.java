@@ -0,0 +1,30 @@
+package com.aiscientist.data_collector.dto;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.aiscientist.data_collector.exception.InvalidRequestException;
+
+class KeysetCursorTest {
+
+    @Test
+    void encode_shouldRoundTripTimeWithNanosAndId() {
+        KeysetCursor cursor = new KeysetCursor(Instant.parse("2026-10-17T12:00:00.123456789Z"), 42L);
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decode_shouldTreatMissingCursorAsFirstPage() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(" "));
+    }
+
+    @Test
+    void decode_shouldRejectForeignTokens() {
+        assertThrows(InvalidRequestException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+}
@@ -0,0 +1,169 @@
+package com.aiscientist.data_collector.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.aiscientist.data_collector.dto.CMEEvent;
+import com.aiscientist.data_collector.dto.EarthquakeEvent;
+import com.aiscientist.data_collector.dto.KpIndexEvent;
+import com.aiscientist.data_collector.dto.WaterLevelEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+class AvroEventSerializerTest {
+
+    private static final Instant T0 = Instant.parse("2026-10-01T12:00:00.123Z");
+
+    @TempDir
+    Path registryDir;
+
+    private FileSchemaRegistry registry;
+    private AvroEventSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        registry = new FileSchemaRegistry(registryDir);
+        serializer = new AvroEventSerializer(registry);
+    }
+
+    @Test
+    void serialize_shouldFrameDatumWithRegisteredSchemaId() throws Exception {
+        WaterLevelEvent event = WaterLevelEvent.builder().stationId("8518750").timestamp(T0)
+                .waterLevelFeet(7.25).isFlooding(true).build();
+
+        byte[] bytes = serializer.serialize("raw.waterlevel.data", event, new RecordHeaders());
+
+        assertEquals(0, bytes[0]);
+        int schemaId = ByteBuffer.wrap(bytes, 1, 4).getInt();
+        GenericRecord record = decode(bytes, registry.findById(schemaId).orElseThrow());
+        assertEquals("8518750", record.get("stationId").toString());
+        assertEquals(T0.toEpochMilli(), record.get("timestamp"));
+        assertEquals(7.25, record.get("waterLevelFeet"));
+        assertEquals(true, record.get("flooding"));
+        assertNull(record.get("dischargeCfs"));
+    }
+
+    @Test
+    void serialize_shouldEncodeNestedRecordsAndBeMuchSmallerThanJson() throws Exception {
+        CMEEvent event = CMEEvent.builder().activityId("2026-10-01T12:00:00-CME-001").speed(850)
+                .cmeAnalyses(List.of(new CMEEvent.CMEAnalysis("2026-10-01T18:00Z", 10.0, -20.0, 850, "C", true, null)))
+                .timestamp(T0).rawPayloadHash("ab".repeat(32)).build();
+
+        byte[] bytes = serializer.serialize("raw.spaceweather.cme", event, new RecordHeaders());
+
+        GenericRecord record = decode(bytes, registry.findById(ByteBuffer.wrap(bytes, 1, 4).getInt()).orElseThrow());
+        GenericRecord analysis = (GenericRecord) ((List<?>) record.get("cme_analyses")).get(0);
+        assertEquals(850, analysis.get("speed"));
+        assertEquals(true, analysis.get("isMostAccurate"));
+        assertEquals("ab".repeat(32), record.get("raw_payload_hash").toString());
+        assertTrue(bytes.length * 2 < new JsonEventSerializer().serialize("t", event, new RecordHeaders()).length);
+    }
+
+    @Test
+    void serialize_shouldReuseIdsAcrossRestarts() {
+        KpIndexEvent event = KpIndexEvent.builder().timeTag("2026-10-01 12:00:00").kpIndex(3.33).build();
+        byte[] kp = serializer.serialize("raw.spaceweather.kp", event, new RecordHeaders());
+        byte[] quake = serializer.serialize("raw.earthquake.data",
+                EarthquakeEvent.builder().earthquakeId("us7000abcd").build(), new RecordHeaders());
+
+        byte[] again = new AvroEventSerializer(new FileSchemaRegistry(registryDir))
+                .serialize("raw.spaceweather.kp", event, new RecordHeaders());
+
+        assertArrayEquals(kp, again);
+        assertNotEquals(ByteBuffer.wrap(kp, 1, 4).getInt(), ByteBuffer.wrap(quake, 1, 4).getInt());
+    }
+
+    @Test
+    void schemas_shouldCoverEveryJsonPropertyOfTheEvents() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        assertCovered(objectMapper, KpIndexEvent.builder().build());
+        assertCovered(objectMapper, CMEEvent.builder().build());
+        assertCovered(objectMapper, WaterLevelEvent.builder().build());
+        assertCovered(objectMapper, EarthquakeEvent.builder().build());
+    }
+
+    @Test
+    void serialize_shouldCarryTheSameValuesAsJson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS);
+        assertSameAsJson(objectMapper, KpIndexEvent.builder().timeTag("2026-10-01 12:00:00").kpIndex(3.33)
+                .estimatedKp(3.5).source("noaa").timestamp(T0).rawData("[]").rawPayloadHash("cd".repeat(32)).build());
+        assertSameAsJson(objectMapper, CMEEvent.builder().activityId("2026-10-01T12:00:00-CME-001")
+                .startTime("2026-10-01T12:00Z").speed(850).type("C").sourceLocation("N10W20").catalog("M2M_CATALOG")
+                .cmeAnalyses(List.of(new CMEEvent.CMEAnalysis("2026-10-01T18:00Z", 10.0, -20.0, 850, "C", true, "n")))
+                .analysesHash("ef".repeat(32)).source("nasa").timestamp(T0).rawData("{}").build());
+        assertSameAsJson(objectMapper, WaterLevelEvent.builder().stationId("8518750").stationName("The Battery")
+                .source("noaa").locationType("coastal").latitude(40.7).longitude(-74.0).timestamp(T0)
+                .waterLevelMeters(2.2).waterLevelFeet(7.25).datum("MLLW").floodStageFeet(8.0)
+                .floodSeverity("ACTION").isFlooding(true).qualityCode("p").build());
+        assertSameAsJson(objectMapper, EarthquakeEvent.builder().earthquakeId("us7000abcd").magnitude(6.1)
+                .magnitudeType("mww").depthKm(10.0).latitude(35.7).longitude(139.6).eventTime(T0).location("Tokyo")
+                .region("Japan").severity("STRONG").dangerous(true).catastrophic(false).shallow(true)
+                .tsunamiWarning(false).tsunamiRiskScore(25).alertLevel("green").significance(600).feltReports(12)
+                .dataSource("us").eventUrl("https://earthquake.usgs.gov").collectedAt(T0).eventType("earthquake.data")
+                .build());
+    }
+
+    private void assertSameAsJson(ObjectMapper objectMapper, Object event) throws Exception {
+        byte[] bytes = serializer.serialize("t", event, new RecordHeaders());
+        GenericRecord record = decode(bytes, registry.findById(ByteBuffer.wrap(bytes, 1, 4).getInt()).orElseThrow());
+        assertSameValue(objectMapper.valueToTree(event), record, event.getClass().getSimpleName());
+    }
+
+    private static void assertSameValue(JsonNode json, Object avro, String path) {
+        if (json.isObject()) {
+            GenericRecord record = (GenericRecord) avro;
+            Iterator<Map.Entry<String, JsonNode>> fields = json.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                assertSameValue(field.getValue(), record.get(field.getKey()), path + "." + field.getKey());
+            }
+        } else if (json.isArray()) {
+            List<?> items = (List<?>) avro;
+            assertEquals(json.size(), items.size(), path);
+            for (int i = 0; i < items.size(); i++) {
+                assertSameValue(json.get(i), items.get(i), path + "[" + i + "]");
+            }
+        } else if (json.isNull()) {
+            assertNull(avro, path);
+        } else if (json.isNumber()) {
+            assertEquals(json.doubleValue(), ((Number) avro).doubleValue(), path);
+        } else if (json.isBoolean()) {
+            assertEquals(json.booleanValue(), avro, path);
+        } else {
+            assertEquals(json.asText(), String.valueOf(avro), path);
+        }
+    }
+
+    private void assertCovered(ObjectMapper objectMapper, Object event) throws Exception {
+        Schema schema = new Schema.Parser().parse(
+                getClass().getResourceAsStream("/avro/" + event.getClass().getSimpleName() + ".avsc"));
+        Iterator<String> names = objectMapper.valueToTree(event).fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            assertNotNull(schema.getField(name), schema.getName() + " lacks field " + name);
+        }
+    }
+
+    private static GenericRecord decode(byte[] bytes, Schema schema) throws Exception {
+        return new GenericDatumReader<GenericRecord>(schema)
+                .read(null, DecoderFactory.get().binaryDecoder(bytes, 5, bytes.length - 5, null));
+    }
+}
@@ -0,0 +1,149 @@
+package com.aiscientist.data_collector.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.dto.EarthquakeEvent;
+import com.aiscientist.data_collector.dto.WaterLevelEvent;
+import com.aiscientist.data_collector.model.OutboxEvent;
+
+@ExtendWith(MockitoExtension.class)
+class EventFanOutRouterTest {
+
+    private static final List<FanOutRoute<EarthquakeEvent>> EARTHQUAKE_ROUTES = List.of(
+            FanOutRoute.always("data"),
+            FanOutRoute.when("alert", event -> Boolean.TRUE.equals(event.getDangerous()),
+                    event -> event.withEventType("earthquake.alert")),
+            FanOutRoute.when("tsunami", event -> event.getTsunamiRiskScore() >= 50,
+                    event -> event.withEventType("tsunami.warning")));
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    private EventSerializer avroSerializer;
+
+    private final AppConfig.KafkaTopicsConfig.SerializationConfig settings =
+            new AppConfig.KafkaTopicsConfig.SerializationConfig();
+    private JsonEventSerializer serializer;
+    private EventFanOutRouter router;
+
+    @BeforeEach
+    void setUp() {
+        serializer = spy(new JsonEventSerializer());
+        when(avroSerializer.format()).thenReturn("avro");
+        router = new EventFanOutRouter(kafkaTemplate, new EventSerializers(List.of(serializer, avroSerializer), settings));
+    }
+
+    @Test
+    void route_shouldSerializeOnceAndShareBytesAcrossTopics() {
+        List<FanOutRoute<WaterLevelEvent>> routes = List.of(
+                FanOutRoute.always("data"), FanOutRoute.when("flood", WaterLevelEvent::isFlooding));
+        WaterLevelEvent event = WaterLevelEvent.builder().stationId("8518750").isFlooding(true).build();
+
+        assertSame(event, router.route(routes, event, "8518750"));
+
+        List<ProducerRecord<String, byte[]>> records = sent(2);
+        assertEquals(List.of("data", "flood"), records.stream().map(ProducerRecord::topic).toList());
+        assertSame(records.get(0).value(), records.get(1).value());
+        assertEquals("8518750", records.get(1).key());
+        assertNotNull(records.get(1).headers().lastHeader("__TypeId__"));
+        assertNotSame(records.get(0).headers(), records.get(1).headers());
+        verify(serializer, times(1)).serialize(anyString(), any(), any());
+    }
+
+    @Test
+    void route_shouldSendCopiesForVariantsWithoutMutatingTheEvent() {
+        EarthquakeEvent event = EarthquakeEvent.builder().earthquakeId("us7000abcd").dangerous(true)
+                .tsunamiRiskScore(60).eventType("earthquake.data").build();
+
+        EarthquakeEvent routed = router.route(EARTHQUAKE_ROUTES, event, event.getEarthquakeId());
+
+        assertEquals("earthquake.data", event.getEventType());
+        assertEquals("tsunami.warning", routed.getEventType());
+        List<ProducerRecord<String, byte[]>> records = sent(3);
+        assertTrue(new String(records.get(0).value()).contains("\"eventType\":\"earthquake.data\""));
+        assertTrue(new String(records.get(1).value()).contains("\"eventType\":\"earthquake.alert\""));
+        assertTrue(new String(records.get(2).value()).contains("\"eventType\":\"tsunami.warning\""));
+        verify(serializer, times(3)).serialize(anyString(), any(), any());
+    }
+
+    @Test
+    void mostSpecific_shouldPickTheRoutedVariantWithoutSending() {
+        EarthquakeEvent event = EarthquakeEvent.builder().earthquakeId("us7000abcd").dangerous(true)
+                .tsunamiRiskScore(10).eventType("earthquake.data").build();
+
+        assertEquals("earthquake.alert", FanOutRoute.mostSpecific(EARTHQUAKE_ROUTES, event).getEventType());
+        assertSame(event, FanOutRoute.mostSpecific(EARTHQUAKE_ROUTES.subList(0, 1), event));
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void route_shouldEncodeEachTopicInItsConfiguredFormat() {
+        List<FanOutRoute<WaterLevelEvent>> routes = List.of(
+                FanOutRoute.always("data"), FanOutRoute.always("flood"), FanOutRoute.always("alerts"));
+        WaterLevelEvent event = WaterLevelEvent.builder().stationId("8518750").isFlooding(true).build();
+        byte[] avro = {0, 0, 0, 0, 1};
+        when(avroSerializer.serialize(eq("flood"), eq(event), any())).thenReturn(avro);
+        settings.getFormats().put("flood", "avro");
+        router = new EventFanOutRouter(kafkaTemplate, new EventSerializers(List.of(serializer, avroSerializer), settings));
+
+        router.route(routes, event, "8518750");
+
+        List<ProducerRecord<String, byte[]>> records = sent(3);
+        assertSame(avro, records.get(1).value());
+        assertSame(records.get(0).value(), records.get(2).value());
+        verify(serializer, times(1)).serialize(anyString(), any(), any());
+    }
+
+    @Test
+    void eventSerializers_shouldRejectUnknownFormat() {
+        settings.getFormats().put("data", "protobuf");
+
+        assertThrows(IllegalStateException.class, () -> new EventSerializers(List.of(serializer), settings));
+    }
+
+    @Test
+    void route_shouldSkipRoutesThatDoNotMatch() {
+        EarthquakeEvent event = EarthquakeEvent.builder().earthquakeId("us7000abcd").dangerous(false)
+                .tsunamiRiskScore(10).eventType("earthquake.data").build();
+
+        assertSame(event, router.route(EARTHQUAKE_ROUTES, event, event.getEarthquakeId()));
+
+        assertEquals("data", sent(1).get(0).topic());
+    }
+
+    @Test
+    void toOutbox_shouldEncodeWithoutSending() {
+        WaterLevelEvent event = WaterLevelEvent.builder().stationId("8518750").build();
+
+        OutboxEvent outbox = router.toOutbox("data", "8518750", event);
+
+        assertEquals("data", outbox.getTopic());
+        assertEquals("8518750", outbox.getMessageKey());
+        assertTrue(new String(outbox.getPayload()).contains("\"stationId\":\"8518750\""));
+        assertTrue(outbox.getHeaders().containsKey("__TypeId__"));
+        assertNotNull(outbox.getCreatedAt());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ProducerRecord<String, byte[]>> sent(int count) {
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(count)).send(captor.capture());
+        return captor.getAllValues();
+    }
+}
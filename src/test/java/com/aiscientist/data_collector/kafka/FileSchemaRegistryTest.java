@@ -0,0 +1,62 @@
+package com.aiscientist.data_collector.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSchemaRegistryTest {
+
+    private static final Schema KP = SchemaBuilder.record("KpIndexEvent").fields()
+            .optionalDouble("kp_index").endRecord();
+    private static final Schema CME = SchemaBuilder.record("CMEEvent").fields()
+            .optionalString("activity_id").endRecord();
+
+    @TempDir
+    Path first;
+
+    @TempDir
+    Path second;
+
+    @Test
+    void register_shouldAssignSameIdsRegardlessOfOrderOrDirectory() {
+        FileSchemaRegistry registry = new FileSchemaRegistry(first);
+        int kp = registry.register(KP);
+        int cme = registry.register(CME);
+
+        FileSchemaRegistry other = new FileSchemaRegistry(second);
+        assertEquals(cme, other.register(CME));
+        assertEquals(kp, other.register(KP));
+        assertNotEquals(kp, cme);
+        assertEquals(KP, new FileSchemaRegistry(first).findById(kp).orElseThrow());
+    }
+
+    @Test
+    void register_shouldRejectDifferentSchemaStoredUnderTheSameId() throws Exception {
+        Files.writeString(first.resolve(FileSchemaRegistry.idOf(KP) + ".avsc"), CME.toString());
+
+        assertThrows(IllegalStateException.class, () -> new FileSchemaRegistry(first).register(KP));
+    }
+
+    @Test
+    void findById_shouldReadOnlyTheRequestedFileAndRememberMissingIds() throws Exception {
+        int kp = new FileSchemaRegistry(second).register(KP);
+        Files.copy(second.resolve(kp + ".avsc"), first.resolve(kp + ".avsc"));
+        Files.writeString(first.resolve("7.avsc"), "not a schema");
+        FileSchemaRegistry registry = new FileSchemaRegistry(first);
+
+        assertEquals(KP, registry.findById(kp).orElseThrow());
+        int cme = FileSchemaRegistry.idOf(CME);
+        assertTrue(registry.findById(cme).isEmpty());
+
+        Files.writeString(first.resolve(cme + ".avsc"), CME.toString());
+        assertTrue(registry.findById(cme).isEmpty());
+        assertEquals(cme, registry.register(CME));
+        assertEquals(CME, registry.findById(cme).orElseThrow());
+    }
+}
@@ -0,0 +1,112 @@
+package com.aiscientist.data_collector.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.dto.EarthquakeEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaPublishStageTest {
+
+    private static final List<FanOutRoute<EarthquakeEvent>> ROUTES = List.of(
+            FanOutRoute.always("data"),
+            FanOutRoute.when("alert", event -> Boolean.TRUE.equals(event.getDangerous()),
+                    event -> event.withEventType("earthquake.alert")));
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private KafkaPublishStage stage;
+
+    @BeforeEach
+    void setUp() {
+        AppConfig.KafkaTopicsConfig.PublishConfig settings = new AppConfig.KafkaTopicsConfig.PublishConfig();
+        settings.setMaxInFlight(2);
+        EventFanOutRouter router = new EventFanOutRouter(kafkaTemplate,
+                new EventSerializers(List.of(new JsonEventSerializer()), new AppConfig.KafkaTopicsConfig.SerializationConfig()));
+        stage = new KafkaPublishStage(router, settings, meterRegistry);
+    }
+
+    @Test
+    void fanOut_shouldStopRequestingWhileMaxInFlightAreUnacknowledged() {
+        List<CompletableFuture<SendResult<String, byte[]>>> pending = new CopyOnWriteArrayList<>();
+        AtomicBoolean autoAck = new AtomicBoolean();
+        when(kafkaTemplate.send(anyRecord())).thenAnswer(invocation -> {
+            if (autoAck.get()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<SendResult<String, byte[]>> ack = new CompletableFuture<>();
+            pending.add(ack);
+            return ack;
+        });
+        AtomicInteger emitted = new AtomicInteger();
+        Flux<EarthquakeEvent> source = Flux.range(1, 20)
+                .doOnNext(i -> emitted.incrementAndGet())
+                .map(i -> EarthquakeEvent.builder().earthquakeId("us" + i).build());
+
+        StepVerifier.create(source.transform(stage.fanOut("test", ROUTES, EarthquakeEvent::getEarthquakeId)))
+                .then(() -> {
+                    verify(kafkaTemplate, timeout(1000).times(2)).send(anyRecord());
+                    verify(kafkaTemplate, after(200).times(2)).send(anyRecord());
+                    // In flight plus the prefetch of the hop off the caller's thread
+                    assertTrue(emitted.get() <= 4, "emitted " + emitted.get());
+                    assertEquals(2.0, meterRegistry.get("kafka.publish.in.flight").tag("stage", "test").gauge().value());
+
+                    autoAck.set(true);
+                    pending.forEach(ack -> ack.complete(null));
+                })
+                .recordWith(ArrayList::new)
+                .expectNextCount(20)
+                .consumeRecordedWith(events -> assertEquals("us1", events.iterator().next().getEarthquakeId()))
+                .verifyComplete();
+
+        assertEquals(0.0, meterRegistry.get("kafka.publish.in.flight").gauge().value());
+        assertEquals(20, meterRegistry.get("kafka.publish.queue.wait").timer().count());
+    }
+
+    @Test
+    void fanOut_shouldEmitRoutedVariantsInOrderEvenWhenSendsFail() {
+        when(kafkaTemplate.send(anyRecord()))
+                .thenThrow(new KafkaException("metadata timeout"))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        Flux<EarthquakeEvent> source = Flux.just(
+                EarthquakeEvent.builder().earthquakeId("a").dangerous(true).eventType("earthquake.data").build(),
+                EarthquakeEvent.builder().earthquakeId("b").dangerous(false).build());
+
+        StepVerifier.create(source.transform(stage.fanOut("test", ROUTES, EarthquakeEvent::getEarthquakeId)))
+                .assertNext(event -> assertEquals("earthquake.alert", event.getEventType()))
+                .assertNext(event -> assertEquals("b", event.getEarthquakeId()))
+                .verifyComplete();
+
+        verify(kafkaTemplate, times(3)).send(anyRecord());
+    }
+
+    private static ProducerRecord<String, byte[]> anyRecord() {
+        return any();
+    }
+}
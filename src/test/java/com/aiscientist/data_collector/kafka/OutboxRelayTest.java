@@ -0,0 +1,141 @@
+package com.aiscientist.data_collector.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.model.OutboxEvent;
+import com.aiscientist.data_collector.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T12:00:00Z");
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final AppConfig.KafkaTopicsConfig.OutboxConfig settings = new AppConfig.KafkaTopicsConfig.OutboxConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        settings.setBatchSize(3);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        relay = new OutboxRelay(outboxEventRepository, kafkaTemplate, transactionTemplate, settings, meterRegistry,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void relay_shouldSendBatchesInOrderUntilDrained() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.findPending(3)).thenReturn(List.of(event(1, 60), event(2, 60), event(3, 60)))
+                .thenReturn(List.of(event(4, 1)));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(acked());
+
+        assertEquals(4, relay.relay());
+
+        List<ProducerRecord<String, byte[]>> records = sent(4);
+        assertEquals(List.of("key-1", "key-2", "key-3", "key-4"), records.stream().map(ProducerRecord::key).toList());
+        assertArrayEquals("v1".getBytes(), records.get(0).headers().lastHeader("h").value());
+        verify(outboxEventRepository).markSent(List.of(1L, 2L, 3L), NOW);
+        verify(outboxEventRepository).markSent(List.of(4L), NOW);
+        assertEquals(4, meterRegistry.counter("outbox.events.sent").count());
+        assertEquals(1.0, meterRegistry.get("outbox.lag").gauge().value());
+    }
+
+    @Test
+    void relay_shouldOnlyMarkAcknowledgedPrefixAndStop() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.findPending(3)).thenReturn(List.of(event(1, 5), event(2, 5), event(3, 5)));
+        when(kafkaTemplate.send(anyRecord()))
+                .thenReturn(acked())
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("broker down")))
+                .thenReturn(acked());
+
+        assertEquals(1, relay.relay());
+
+        verify(outboxEventRepository).markSent(List.of(1L), NOW);
+        verify(outboxEventRepository, times(1)).findPending(anyInt());
+        assertEquals(2, meterRegistry.counter("outbox.events.failed").count());
+    }
+
+    @Test
+    void relay_shouldStopSendingWhenProducerThrows() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        when(outboxEventRepository.findPending(3)).thenReturn(List.of(event(1, 5), event(2, 5)));
+        when(kafkaTemplate.send(anyRecord())).thenThrow(new KafkaException("metadata timeout"));
+
+        assertEquals(0, relay.relay());
+
+        verify(kafkaTemplate, times(1)).send(anyRecord());
+        verify(outboxEventRepository).markSent(List.of(), NOW);
+    }
+
+    @Test
+    void relay_shouldSkipWhileAnotherInstanceHoldsTheLock() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(false);
+
+        assertEquals(0, relay.relay());
+
+        verify(outboxEventRepository, never()).findPending(anyInt());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    private static OutboxEvent event(long id, long ageSeconds) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic("raw.spaceweather.kp")
+                .messageKey("key-" + id)
+                .payload(("{\"id\":" + id + "}").getBytes())
+                .headers(Map.of("h", "v1".getBytes()))
+                .createdAt(NOW.minusSeconds(ageSeconds))
+                .build();
+    }
+
+    private static ProducerRecord<String, byte[]> anyRecord() {
+        return any();
+    }
+
+    private static CompletableFuture<SendResult<String, byte[]>> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ProducerRecord<String, byte[]>> sent(int count) {
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(count)).send(captor.capture());
+        return captor.getAllValues();
+    }
+}
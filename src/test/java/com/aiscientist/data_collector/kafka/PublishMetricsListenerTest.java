@@ -0,0 +1,35 @@
+package com.aiscientist.data_collector.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PublishMetricsListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PublishMetricsListener listener = new PublishMetricsListener(meterRegistry);
+
+    @Test
+    void shouldCountOutcomesPerTopic() {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition("raw.flood.alert", 0), 0, 0, 0, 0, 0);
+
+        listener.onSuccess(new ProducerRecord<>("raw.flood.alert", "8518750", "a"), metadata);
+        listener.onSuccess(new ProducerRecord<>("raw.flood.alert", "8518750", "b"), metadata);
+        listener.onSuccess(new ProducerRecord<>("raw.waterlevel.data", "8518750", "a"), metadata);
+        listener.onError(new ProducerRecord<>("raw.flood.alert", "8518750", "c"), null,
+                new IllegalStateException("broker down"));
+
+        assertEquals(2.0, count("raw.flood.alert", "success"));
+        assertEquals(1.0, count("raw.waterlevel.data", "success"));
+        assertEquals(1.0, count("raw.flood.alert", "failure"));
+    }
+
+    private double count(String topic, String result) {
+        return meterRegistry.get("kafka.publish.records").tag("topic", topic).tag("result", result).counter().count();
+    }
+}
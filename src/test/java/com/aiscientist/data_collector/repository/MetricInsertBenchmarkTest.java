@@ -0,0 +1,203 @@
+package com.aiscientist.data_collector.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.aiscientist.data_collector.model.RawPayload;
+import com.aiscientist.data_collector.model.WaterLevelMetric;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Rows/sec for water level inserts through Hibernate and SimpleJpaRepository.saveAll, in
+ * write-behind sized transactions: WaterLevelMetric as mapped (SEQUENCE ids with pooled-lo, JDBC
+ * batching, reWriteBatchedInserts) versus the same entity with its id overridden to IDENTITY.
+ * Also asserts the statements and batches Hibernate executed for each run.
+ *
+ * Opt-in: mvn test -Dtest=MetricInsertBenchmarkTest -Dbenchmark=true
+ * Uses a throwaway Testcontainers PostgreSQL unless -Dbenchmark.jdbc-url (plus .user/.password) is given;
+ * the tables are created and dropped in their own insert_benchmark schema.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MetricInsertBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+    private static final int BATCH_SIZE = Integer.getInteger("benchmark.batch-size", 50);
+    private static final int TRANSACTION_SIZE = Integer.getInteger("benchmark.transaction-size", 500);
+    private static final int ALLOCATION_SIZE = 50;
+    private static final String SCHEMA = "insert_benchmark";
+
+    // Same entity, with the id generation it had before the switch to sequences
+    private static final String IDENTITY_MAPPING = """
+            <entity-mappings xmlns="https://jakarta.ee/xml/ns/persistence/orm" version="3.1">
+              <entity class="com.aiscientist.data_collector.model.WaterLevelMetric">
+                <attributes>
+                  <id name="id"><generated-value strategy="IDENTITY"/></id>
+                </attributes>
+              </entity>
+            </entity-mappings>
+            """;
+
+    private static PostgreSQLContainer<?> postgres;
+    private static String jdbcUrl;
+    private static String user;
+    private static String password;
+
+    @BeforeAll
+    static void startDatabase() {
+        jdbcUrl = System.getProperty("benchmark.jdbc-url");
+        user = System.getProperty("benchmark.user");
+        password = System.getProperty("benchmark.password");
+        if (jdbcUrl == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            jdbcUrl = postgres.getJdbcUrl();
+            user = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Test
+    void compareIdentityAndSequenceIdsThroughHibernate() {
+        Run identity = run("saveAll, IDENTITY ids", IDENTITY_MAPPING);
+        // One INSERT ... RETURNING round trip per row: Hibernate cannot batch IDENTITY inserts
+        assertEquals(0, identity.batches());
+        assertEquals(ROWS, identity.statements());
+
+        Run sequence = run("saveAll, SEQUENCE ids (pooled-lo, batched)", null);
+        assertEquals(expectedBatches(), sequence.batches());
+        // Only the nextval calls, one per allocation block
+        assertEquals((ROWS + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE, sequence.statements());
+
+        System.out.printf("Batched inserts are %.1fx faster than row-by-row%n",
+                sequence.rowsPerSecond() / identity.rowsPerSecond());
+    }
+
+    private Run run(String label, String mappingOverride) {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(WaterLevelMetric.class)
+                .addAnnotatedClass(RawPayload.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, jdbcUrl)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, user)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, password)
+                .setProperty("hibernate.connection.reWriteBatchedInserts", "true")
+                .setProperty(AvailableSettings.DEFAULT_SCHEMA, SCHEMA)
+                .setProperty(AvailableSettings.HBM2DDL_CREATE_SCHEMAS, "true")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                // As in application.yaml
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(BATCH_SIZE))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(AvailableSettings.ORDER_UPDATES, "true")
+                .setProperty(AvailableSettings.JDBC_TIME_ZONE, "UTC")
+                .setProperty(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo")
+                .setProperty(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcCounter.class.getName());
+        if (mappingOverride != null) {
+            configuration.addInputStream(new ByteArrayInputStream(mappingOverride.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        try (SessionFactory sessionFactory = configuration.buildSessionFactory();
+             EntityManager entityManager = sessionFactory.createEntityManager()) {
+            SimpleJpaRepository<WaterLevelMetric, Long> repository =
+                    new SimpleJpaRepository<>(WaterLevelMetric.class, entityManager);
+            JdbcCounter.reset();
+            double rowsPerSecond = measure(label, () -> {
+                for (int from = 0; from < ROWS; from += TRANSACTION_SIZE) {
+                    entityManager.getTransaction().begin();
+                    repository.saveAll(readings(from, Math.min(from + TRANSACTION_SIZE, ROWS)));
+                    entityManager.getTransaction().commit();
+                    entityManager.clear();
+                }
+            });
+            Run run = new Run(rowsPerSecond, JdbcCounter.STATEMENTS.get(), JdbcCounter.BATCHES.get());
+            assertEquals(ROWS, repository.count());
+            return run;
+        }
+    }
+
+    private static long expectedBatches() {
+        long batches = 0;
+        for (int from = 0; from < ROWS; from += TRANSACTION_SIZE) {
+            int rows = Math.min(TRANSACTION_SIZE, ROWS - from);
+            batches += (rows + BATCH_SIZE - 1) / BATCH_SIZE;
+        }
+        return batches;
+    }
+
+    private static List<WaterLevelMetric> readings(int from, int to) {
+        List<WaterLevelMetric> readings = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            readings.add(WaterLevelMetric.builder()
+                    .stationId("station-" + (i % 200))
+                    .stationName("Benchmark Station " + (i % 200))
+                    .source("usgs_water")
+                    .locationType("river")
+                    .latitude(38.0 + (i % 100) / 100.0)
+                    .longitude(-77.0 - (i % 100) / 100.0)
+                    .waterLevelFeet((double) (i % 17))
+                    .timestamp(Instant.now())
+                    .build());
+        }
+        return readings;
+    }
+
+    private double measure(String label, Runnable insert) {
+        long start = System.nanoTime();
+        insert.run();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        double rowsPerSecond = ROWS / seconds;
+        System.out.printf("%-55s %,8d rows in %6.2fs = %,10.0f rows/sec%n", label, ROWS, seconds, rowsPerSecond);
+        return rowsPerSecond;
+    }
+
+    private record Run(double rowsPerSecond, long statements, long batches) {
+    }
+
+    /**
+     * Counts the JDBC statement and batch executions of every session; registered through
+     * hibernate.session.events.auto, which instantiates it per session
+     */
+    public static class JdbcCounter extends BaseSessionEventListener {
+
+        static final AtomicLong STATEMENTS = new AtomicLong();
+        static final AtomicLong BATCHES = new AtomicLong();
+
+        static void reset() {
+            STATEMENTS.set(0);
+            BATCHES.set(0);
+        }
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            STATEMENTS.incrementAndGet();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            BATCHES.incrementAndGet();
+        }
+    }
+}
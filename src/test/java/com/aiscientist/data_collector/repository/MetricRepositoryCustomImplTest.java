@@ -0,0 +1,87 @@
+package com.aiscientist.data_collector.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aiscientist.data_collector.model.Metric;
+import com.aiscientist.data_collector.model.OutboxEvent;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class MetricRepositoryCustomImplTest {
+
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-10T12:00:00Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private RawPayloadRepository rawPayloadRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upsertAll_shouldQueueEventsOnlyForRowsTheUpsertChanged() {
+        MetricRepositoryCustomImpl repository = new MetricRepositoryCustomImpl(
+                jdbcTemplate, rawPayloadRepository, outboxEventRepository);
+        ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+
+        Metric superseded = kpIndex(TIMESTAMP, "superseded");
+        Metric revised = kpIndex(TIMESTAMP, "revised");
+        Metric unchanged = kpIndex(TIMESTAMP.plusSeconds(60), "unchanged");
+        Metric cme = metric(MetricRepositoryCustomImpl.CME, "cme");
+        cme.setExternalId("2024-05-10T12:00:00-CME-001");
+        Metric other = metric("solar_wind", "other");
+        List<Metric> metrics = List.of(superseded, other, revised, cme, unchanged);
+
+        when(rawPayloadRepository.storeAll(anyList())).thenReturn(Arrays.asList(new String[metrics.size()]));
+        when(jdbcTemplate.batchUpdate(contains("'kp_index'"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] {{1, 0}});
+        when(jdbcTemplate.batchUpdate(contains("'cme'"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] {{1}});
+
+        repository.upsertAll(new ArrayList<>(metrics));
+
+        ArgumentCaptor<List<OutboxEvent>> queued = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).insertAll(queued.capture());
+        assertEquals(List.of("other", "revised", "cme"),
+                queued.getValue().stream().map(OutboxEvent::getMessageKey).toList());
+        verify(entityManager).persist(other);
+    }
+
+    private static Metric kpIndex(Instant timestamp, String key) {
+        Metric metric = metric(MetricRepositoryCustomImpl.KP_INDEX, key);
+        metric.setTimestamp(timestamp);
+        return metric;
+    }
+
+    private static Metric metric(String metricType, String key) {
+        return Metric.builder()
+                .timestamp(TIMESTAMP)
+                .source("NOAA")
+                .metricType(metricType)
+                .outboxEvent(OutboxEvent.builder().topic("space-weather").messageKey(key).build())
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.aiscientist.data_collector.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.aiscientist.data_collector.exception.InvalidRequestException;
+
+class ProjectionSpecTest {
+
+    @Test
+    void attributesFor_shouldSelectOnlyRequestedColumnsPlusCursorKeys() {
+        List<String> fields = Projections.EARTHQUAKE.resolveFields(List.of("earthquakeId", "severity"));
+
+        assertEquals(List.of("id", "eventTime", "earthquakeId", "magnitude"),
+                Projections.EARTHQUAKE.attributesFor(fields));
+    }
+
+    @Test
+    void toRow_shouldReturnRequestedFieldsInOrderWithDerivedValues() {
+        List<String> fields = Projections.EARTHQUAKE.resolveFields(List.of("severity", "earthquakeId"));
+
+        Map<String, Object> row = Projections.EARTHQUAKE.toRow(fields,
+                Map.of("id", 1L, "earthquakeId", "us7000abcd", "magnitude", 7.2));
+
+        assertEquals(List.of("severity", "earthquakeId"), List.copyOf(row.keySet()));
+        assertEquals("MAJOR", row.get("severity"));
+    }
+
+    @Test
+    void resolveFields_shouldDefaultToAllFieldsWithoutRawData() {
+        List<String> fields = Projections.WATER_LEVEL.resolveFields(null);
+
+        assertTrue(fields.containsAll(List.of("id", "timestamp", "stationId", "floodSeverity")));
+        assertFalse(fields.contains("rawData"));
+    }
+
+    @Test
+    void resolveFields_shouldRejectUnknownFields() {
+        assertThrows(InvalidRequestException.class,
+                () -> Projections.WATER_LEVEL.resolveFields(List.of("stationId", "rawData")));
+    }
+}
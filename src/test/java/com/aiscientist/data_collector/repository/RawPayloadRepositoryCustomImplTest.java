@@ -0,0 +1,67 @@
+package com.aiscientist.data_collector.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import com.aiscientist.data_collector.model.RawPayload;
+
+@ExtendWith(MockitoExtension.class)
+class RawPayloadRepositoryCustomImplTest {
+
+    private static final String RESPONSE = "{\"value\":{\"timeSeries\":[" + "{\"site\":\"01646500\"},".repeat(200) + "{}]}}";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void storeAll_shouldStoreEachDistinctContentOnceAndReturnHashesInOrder() {
+        RawPayloadRepositoryCustomImpl repository = new RawPayloadRepositoryCustomImpl(jdbcTemplate);
+
+        List<String> hashes = repository.storeAll(Arrays.asList(RESPONSE, null, "{\"kp\":3}", new String(RESPONSE)));
+
+        assertEquals(4, hashes.size());
+        assertEquals(RawPayload.hash(RESPONSE), hashes.get(0));
+        assertNull(hashes.get(1));
+        assertEquals(hashes.get(0), hashes.get(3));
+        assertEquals(64, hashes.get(2).length());
+
+        ArgumentCaptor<Collection<RawPayload>> stored = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), stored.capture(), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(hashes.get(0), hashes.get(2)),
+                stored.getValue().stream().map(RawPayload::getHash).toList());
+    }
+
+    @Test
+    void storeAll_shouldSkipTheInsertWithoutContent() {
+        RawPayloadRepositoryCustomImpl repository = new RawPayloadRepositoryCustomImpl(jdbcTemplate);
+
+        assertEquals(Arrays.asList(null, null), repository.storeAll(Arrays.asList(null, null)));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void rawPayload_shouldCompressAndRoundTripContent() {
+        RawPayload payload = RawPayload.of(RESPONSE);
+
+        assertEquals(RawPayload.GZIP, payload.getContentEncoding());
+        assertEquals(RESPONSE.length(), payload.getOriginalSize());
+        assertTrue(payload.getStoredSize() < payload.getOriginalSize() / 10);
+        assertEquals(RESPONSE, payload.getContent());
+        assertNull(RawPayload.of(null));
+    }
+}
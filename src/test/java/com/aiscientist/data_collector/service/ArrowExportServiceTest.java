@@ -0,0 +1,131 @@
+package com.aiscientist.data_collector.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.exception.InvalidRequestException;
+
+@ExtendWith(MockitoExtension.class)
+class ArrowExportServiceTest {
+
+    private static final OffsetDateTime T0 = OffsetDateTime.of(2026, 10, 1, 0, 0, 0, 123_456_000, ZoneOffset.UTC);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ResultSet rs;
+
+    private final AppConfig.ExportConfig settings = new AppConfig.ExportConfig();
+    private ArrowExportService service;
+
+    @BeforeEach
+    void setUp() {
+        settings.setBatchSize(2);
+        service = new ArrowExportService(jdbcTemplate, settings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void write_shouldStreamRowsInCompressedBatchesKeepingNulls() throws Exception {
+        when(rs.next()).thenReturn(true, true, true, false);
+        lenient().when(rs.getObject(anyInt())).thenReturn(null);
+        lenient().when(rs.getObject(anyInt(), eq(OffsetDateTime.class))).thenReturn(null);
+        when(rs.getObject(1)).thenReturn(1L, 2L, 3L);
+        when(rs.getObject(2, OffsetDateTime.class)).thenReturn(T0, T0.plusHours(3), T0.plusHours(6));
+        when(rs.getObject(3)).thenReturn("noaa");
+        when(rs.getObject(4)).thenReturn("kp_index");
+        when(rs.getObject(5)).thenReturn(3.0, null, 5.33);
+        when(rs.getObject(9)).thenReturn("abc", null, null);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = service.write(ArrowExportService.Dataset.METRIC, rs, ArrowExportService.Compression.ZSTD, out);
+
+        assertEquals(3, rows);
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()),
+                     allocator, CommonsCompressionFactory.INSTANCE)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertEquals("kpIndex", root.getSchema().getFields().get(4).getName());
+
+            assertTrue(reader.loadNextBatch());
+            assertEquals(2, root.getRowCount());
+            assertEquals(1L, ((BigIntVector) root.getVector("id")).get(0));
+            assertEquals(T0.toInstant().toEpochMilli() * 1000 + 456,
+                    ((TimeStampMicroTZVector) root.getVector("timestamp")).get(0));
+            assertEquals(3.0, ((Float8Vector) root.getVector("kpIndex")).get(0));
+            assertTrue(root.getVector("kpIndex").isNull(1));
+            assertEquals("abc", new String(((VarCharVector) root.getVector("rawPayloadHash")).get(0)));
+            assertTrue(root.getVector("cmeClass").isNull(0));
+
+            assertTrue(reader.loadNextBatch());
+            assertEquals(1, root.getRowCount());
+            assertEquals(3L, ((BigIntVector) root.getVector("id")).get(0));
+            assertEquals(5.33, ((Float8Vector) root.getVector("kpIndex")).get(0));
+            assertTrue(root.getVector("rawPayloadHash").isNull(0));
+
+            assertFalse(reader.loadNextBatch());
+        }
+    }
+
+    @Test
+    void write_shouldProduceSchemaOnlyStreamForEmptyRange() throws Exception {
+        when(rs.next()).thenReturn(false);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0, service.write(ArrowExportService.Dataset.EARTHQUAKE, rs,
+                ArrowExportService.Compression.NONE, out));
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            assertEquals("eventTime", reader.getVectorSchemaRoot().getSchema().getFields().get(1).getName());
+            assertFalse(reader.loadNextBatch());
+        }
+    }
+
+    @Test
+    void selectSql_shouldMapFieldNamesToColumnsAndOrderByTime() {
+        String sql = ArrowExportService.Dataset.WATER_LEVEL.selectSql();
+
+        assertTrue(sql.startsWith("SELECT id, timestamp, station_id, station_name,"));
+        assertTrue(sql.contains("moderate_flood_stage_feet"));
+        assertTrue(sql.endsWith("FROM water_level_metrics WHERE timestamp >= ? AND timestamp < ? ORDER BY timestamp, id"));
+    }
+
+    @Test
+    void parse_shouldRejectUnknownDatasetsAndCodecs() {
+        assertEquals(ArrowExportService.Dataset.EARTHQUAKE, ArrowExportService.Dataset.fromPath("earthquakes"));
+        assertEquals(ArrowExportService.Compression.NONE, ArrowExportService.Compression.parse("None"));
+        assertThrows(InvalidRequestException.class, () -> ArrowExportService.Dataset.fromPath("raw_payloads"));
+        assertThrows(InvalidRequestException.class, () -> ArrowExportService.Compression.parse("lz4"));
+    }
+}
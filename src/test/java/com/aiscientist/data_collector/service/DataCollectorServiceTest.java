@@ -1,10 +1,18 @@
 package com.aiscientist.data_collector.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -12,9 +20,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import com.aiscientist.data_collector.dto.CMEEvent;
 import com.aiscientist.data_collector.dto.KpIndexEvent;
 import com.aiscientist.data_collector.kafka.SpaceWeatherProducer;
+import com.aiscientist.data_collector.model.Metric;
+import com.aiscientist.data_collector.model.OutboxEvent;
 import com.aiscientist.data_collector.repository.MetricRepository;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @ExtendWith(MockitoExtension.class)
 class DataCollectorServiceTest {
@@ -28,6 +39,9 @@ class DataCollectorServiceTest {
     @Mock
     private SpaceWeatherProducer spaceWeatherProducer;
     
+    @Mock
+    private WriteBehindBuffer<Metric> metricWriteBehind;
+    
     @Mock
     private MetricRepository metricRepository;
     
@@ -43,15 +57,70 @@ class DataCollectorServiceTest {
                 .source("noaa")
                 .build();
         
+        OutboxEvent outboxEvent = OutboxEvent.builder().topic("raw.spaceweather.kp").build();
+        
         when(noaaApiService.fetchKpIndexData()).thenReturn(Flux.just(event));
-        when(metricRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(spaceWeatherProducer.kpIndexOutboxEvent(event)).thenReturn(outboxEvent);
+        when(metricWriteBehind.enqueue(any())).thenReturn(Mono.empty());
         
         // When
         dataCollectorService.collectKpIndexData();
         
-        // Then
+        // Then: the Kafka record travels with the row instead of being sent directly
+        ArgumentCaptor<Metric> metric = ArgumentCaptor.forClass(Metric.class);
+        verify(metricWriteBehind, timeout(1000).times(1)).enqueue(metric.capture());
+        assertSame(outboxEvent, metric.getValue().getOutboxEvent());
         verify(noaaApiService, times(1)).fetchKpIndexData();
-        verify(spaceWeatherProducer, times(1)).sendKpIndexEvent(any());
+    }
+
+    @Test
+    void collectKpIndexData_shouldSkipAlreadyIngestedTimeTags() {
+        // Given
+        KpIndexEvent seen = KpIndexEvent.builder().timeTag("2024-12-07T00:00:00").kpIndex(3.0).source("noaa").build();
+        KpIndexEvent fresh = KpIndexEvent.builder().timeTag("2024-12-07 03:00:00.000").kpIndex(4.3).source("noaa").build();
+        
+        when(metricRepository.findLatestTimestamp("noaa", "kp_index"))
+                .thenReturn(Optional.of(Instant.parse("2024-12-07T00:00:00Z")));
+        when(noaaApiService.fetchKpIndexData()).thenReturn(Flux.just(seen, fresh));
+        when(metricWriteBehind.enqueue(any())).thenReturn(Mono.empty());
+        
+        // When
+        dataCollectorService.collectKpIndexData();
+        
+        // Then
+        ArgumentCaptor<Metric> metric = ArgumentCaptor.forClass(Metric.class);
+        verify(metricWriteBehind, timeout(1000).times(1)).enqueue(metric.capture());
+        verify(spaceWeatherProducer, times(1)).kpIndexOutboxEvent(fresh);
+        assertEquals(Instant.parse("2024-12-07T03:00:00Z"), metric.getValue().getTimestamp());
+        
+        // Second run reuses the in-memory watermark, advanced by the flush, instead of querying again
+        dataCollectorService.onMetricsFlushed(List.of(metric.getValue()));
+        when(noaaApiService.fetchKpIndexData()).thenReturn(Flux.just(seen, fresh));
+        dataCollectorService.collectKpIndexData();
+        
+        verify(noaaApiService, timeout(1000).times(2)).fetchKpIndexData();
+        verify(spaceWeatherProducer, after(200).times(1)).kpIndexOutboxEvent(any());
+        verify(metricRepository, times(1)).findLatestTimestamp(any(), any());
+    }
+
+    @Test
+    void collectKpIndexData_shouldCollectAgainWhenRowsWereNotFlushed() {
+        // Given
+        KpIndexEvent fresh = KpIndexEvent.builder().timeTag("2024-12-07T03:00:00").kpIndex(4.3).source("noaa").build();
+        
+        when(metricRepository.findLatestTimestamp("noaa", "kp_index"))
+                .thenReturn(Optional.of(Instant.parse("2024-12-07T00:00:00Z")));
+        when(noaaApiService.fetchKpIndexData()).thenReturn(Flux.just(fresh));
+        when(metricWriteBehind.enqueue(any())).thenReturn(Mono.empty());
+        
+        // When: the first batch never reaches the database
+        dataCollectorService.collectKpIndexData();
+        verify(metricWriteBehind, timeout(1000).times(1)).enqueue(any(Metric.class));
+        dataCollectorService.collectKpIndexData();
+        
+        // Then
+        verify(metricWriteBehind, timeout(1000).times(2)).enqueue(any(Metric.class));
+        verify(spaceWeatherProducer, times(2)).kpIndexOutboxEvent(fresh);
     }
 
     @Test
@@ -64,13 +133,81 @@ class DataCollectorServiceTest {
                 .build();
         
         when(nasaApiService.fetchCMEData()).thenReturn(Flux.just(event));
-        when(metricRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(metricWriteBehind.enqueue(any())).thenReturn(Mono.empty());
         
         // When
         dataCollectorService.collectCMEData();
         
         // Then
+        verify(metricWriteBehind, timeout(1000).times(1)).enqueue(any(Metric.class));
+        verify(spaceWeatherProducer, times(1)).cmeOutboxEvent(any());
         verify(nasaApiService, times(1)).fetchCMEData();
-        verify(spaceWeatherProducer, times(1)).sendCMEEvent(any());
+    }
+
+    @Test
+    void collectCMEData_shouldOnlyPublishNewOrRevisedCMEs() {
+        // Given
+        Instant startTime = Instant.now().minusSeconds(3600).truncatedTo(java.time.temporal.ChronoUnit.MINUTES);
+        CMEEvent unchanged = cme("CME-001", startTime, "hash-a");
+        CMEEvent revised = cme("CME-002", startTime, "hash-b2");
+        CMEEvent added = cme("CME-003", startTime, "hash-c");
+        
+        when(metricRepository.findContentFingerprints(eq("nasa"), eq("cme"), any())).thenReturn(List.of(
+                fingerprint("CME-001", "hash-a", startTime),
+                fingerprint("CME-002", "hash-b1", startTime)));
+        when(nasaApiService.fetchCMEData()).thenReturn(Flux.just(unchanged, revised, added));
+        when(metricWriteBehind.enqueue(any())).thenReturn(Mono.empty());
+        
+        // When
+        dataCollectorService.collectCMEData();
+        
+        // Then
+        ArgumentCaptor<Metric> metrics = ArgumentCaptor.forClass(Metric.class);
+        verify(metricWriteBehind, timeout(1000).times(2)).enqueue(metrics.capture());
+        verify(spaceWeatherProducer, times(2)).cmeOutboxEvent(any());
+        verify(spaceWeatherProducer).cmeOutboxEvent(revised);
+        verify(spaceWeatherProducer).cmeOutboxEvent(added);
+        Metric stored = metrics.getAllValues().get(0);
+        assertEquals("CME-002", stored.getExternalId());
+        assertEquals("hash-b2", stored.getContentHash());
+        assertEquals(startTime, stored.getTimestamp());
+        
+        // Once stored, a re-poll with identical content publishes nothing
+        dataCollectorService.onMetricsFlushed(metrics.getAllValues());
+        when(nasaApiService.fetchCMEData()).thenReturn(Flux.just(unchanged, revised, added));
+        dataCollectorService.collectCMEData();
+        
+        verify(nasaApiService, timeout(1000).times(2)).fetchCMEData();
+        verify(spaceWeatherProducer, after(200).times(2)).cmeOutboxEvent(any());
+        verify(metricRepository, times(1)).findContentFingerprints(any(), any(), any());
+    }
+
+    private CMEEvent cme(String activityId, Instant startTime, String analysesHash) {
+        return CMEEvent.builder()
+                .activityId(activityId)
+                .startTime(startTime.toString().replace(":00Z", "Z"))
+                .analysesHash(analysesHash)
+                .speed(600)
+                .source("nasa")
+                .build();
+    }
+
+    private MetricRepository.ContentFingerprint fingerprint(String externalId, String contentHash, Instant timestamp) {
+        return new MetricRepository.ContentFingerprint() {
+            @Override
+            public String getExternalId() {
+                return externalId;
+            }
+
+            @Override
+            public String getContentHash() {
+                return contentHash;
+            }
+
+            @Override
+            public Instant getTimestamp() {
+                return timestamp;
+            }
+        };
     }
 }
@@ -0,0 +1,70 @@
+package com.aiscientist.data_collector.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class EarthquakeFeatureStreamParserTest {
+
+    private static final String GEOJSON = """
+            {"type":"FeatureCollection",
+             "metadata":{"generated":1733565600000,"title":"USGS Earthquakes","count":2},
+             "features":[
+               {"type":"Feature","properties":{"mag":5.4,"place":"23 km SW of Tokyo, Japan","time":1733565000000,
+                 "updated":1733565300000,"tsunami":0,"sig":449,"net":"us","magType":"mww","ids":",us7000abcd,"},
+                "geometry":{"type":"Point","coordinates":[139.5,35.5,10.0]},"id":"us7000abcd"},
+               {"type":"Feature","properties":{"mag":4.6,"place":"Fiji region","time":1733564000000,
+                 "updated":1733564500000,"tsunami":1,"nested":{"list":[1,[2,3],{"x":"}]"}]}},
+                "geometry":{"type":"Point","coordinates":[-178.1,-17.9,550.2]},"id":"us7000efgh"}
+             ],
+             "bbox":[-178.1,-17.9,10.0,139.5,35.5,550.2]}
+            """;
+
+    private final EarthquakeFeatureStreamParser parser = new EarthquakeFeatureStreamParser(new ObjectMapper());
+
+    @Test
+    void parse_shouldEmitFeaturesAcrossChunkBoundaries() {
+        StepVerifier.create(parser.parse(chunked(GEOJSON, 7)))
+                .assertNext(feature -> {
+                    assertEquals("us7000abcd", feature.getId());
+                    assertEquals(5.4, feature.getProperties().getMagnitude());
+                    assertEquals(1733565300000L, feature.getProperties().getUpdated());
+                    assertEquals(List.of(139.5, 35.5, 10.0), feature.getGeometry().getCoordinates());
+                })
+                .assertNext(feature -> {
+                    assertEquals("us7000efgh", feature.getId());
+                    assertEquals(1, feature.getProperties().getTsunami());
+                    assertEquals(550.2, feature.getGeometry().getCoordinates().get(2));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void parse_shouldCompleteEmptyWhenNoFeatures() {
+        StepVerifier.create(parser.parse(chunked("{\"type\":\"FeatureCollection\",\"features\":[]}", 5)))
+                .verifyComplete();
+    }
+
+    private Flux<DataBuffer> chunked(String json, int chunkSize) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            int length = Math.min(chunkSize, bytes.length - offset);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(bytes, offset, offset + length)));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
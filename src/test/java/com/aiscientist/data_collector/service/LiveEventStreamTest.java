@@ -0,0 +1,122 @@
+package com.aiscientist.data_collector.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.exception.InvalidRequestException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.test.StepVerifier;
+
+class LiveEventStreamTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LiveEventStream<Integer> stream;
+
+    @BeforeEach
+    void setUp() {
+        AppConfig.LiveStreamConfig settings = new AppConfig.LiveStreamConfig();
+        settings.setSubscriberBufferSize(2);
+        settings.setHeartbeatInterval(Duration.ofHours(1));
+        stream = new LiveEventStream<>("test", settings, meterRegistry);
+    }
+
+    @Test
+    void subscribe_shouldDeliverOnlyMatchingEventsPublishedAfterSubscribing() {
+        stream.publish(0);
+
+        StepVerifier.create(stream.subscribe(n -> n % 2 == 1, LiveEventStream.Overflow.LATEST))
+                .then(() -> {
+                    assertEquals(1.0, gauge("live.stream.subscribers"));
+                    publish(1, 2, 3);
+                })
+                .expectNext(1, 3)
+                .thenCancel()
+                .verify();
+
+        assertEquals(0.0, gauge("live.stream.subscribers"));
+        assertEquals(3.0, counter("live.stream.events.published"));
+    }
+
+    @Test
+    void subscribe_shouldKeepNewestEventsForSlowSubscriberWithLatestPolicy() {
+        StepVerifier.create(stream.subscribe(n -> true, LiveEventStream.Overflow.LATEST), 0)
+                .then(() -> publish(1, 2, 3, 4))
+                .thenRequest(10)
+                .expectNext(3, 4)
+                .thenCancel()
+                .verify();
+
+        assertEquals(2.0, counter("live.stream.events.dropped"));
+    }
+
+    @Test
+    void subscribe_shouldKeepBufferedEventsForSlowSubscriberWithDropPolicy() {
+        StepVerifier.create(stream.subscribe(n -> true, LiveEventStream.Overflow.DROP), 0)
+                .then(() -> publish(1, 2, 3, 4))
+                .thenRequest(10)
+                .expectNext(1, 2)
+                .thenCancel()
+                .verify();
+
+        assertEquals(2.0, counter("live.stream.events.dropped"));
+    }
+
+    @Test
+    void subscribe_shouldIsolateSlowSubscriberFromFastOne() {
+        StepVerifier.create(stream.subscribe(n -> true, LiveEventStream.Overflow.DROP), 0)
+                .then(() -> StepVerifier.create(stream.subscribe(n -> true, LiveEventStream.Overflow.DROP))
+                        .then(() -> publish(1, 2, 3))
+                        .expectNext(1, 2, 3)
+                        .thenCancel()
+                        .verify())
+                .thenRequest(10)
+                .expectNext(1, 2)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void subscribeSse_shouldNameEventsAndSendHeartbeats() {
+        StepVerifier.withVirtualTime(() -> stream.subscribeSse(n -> true, LiveEventStream.Overflow.LATEST,
+                        n -> "n" + n))
+                .then(() -> stream.publish(7))
+                .assertNext(event -> {
+                    assertEquals("n7", event.event());
+                    assertEquals(7, event.data());
+                })
+                .thenAwait(Duration.ofHours(1))
+                .assertNext(event -> {
+                    assertEquals("heartbeat", event.comment());
+                    assertNull(event.data());
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void parse_shouldRejectUnknownPolicy() {
+        assertEquals(LiveEventStream.Overflow.DROP, LiveEventStream.Overflow.parse(" Drop"));
+        assertThrows(InvalidRequestException.class, () -> LiveEventStream.Overflow.parse("block"));
+    }
+
+    private void publish(int... events) {
+        for (int event : events) {
+            stream.publish(event);
+        }
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("stream", "test").gauge().value();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).tag("stream", "test").counter().count();
+    }
+}
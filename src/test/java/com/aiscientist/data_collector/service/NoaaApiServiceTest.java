@@ -32,7 +32,7 @@ class NoaaApiServiceTest {
     private WebClient noaaWebClient;
     
     @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
+    private WebClient.RequestHeadersUriSpec<?> requestHeadersUriSpec;
     
     @Mock
     private WebClient.ResponseSpec responseSpec;
@@ -61,8 +61,8 @@ class NoaaApiServiceTest {
         String jsonResponse = "[{\"time_tag\":\"2024-12-07T00:00:00Z\",\"Kp\":3.0,\"estimated_Kp\":null}]";
         ArrayNode arrayNode = (ArrayNode) objectMapper.readTree(jsonResponse);
         
-        when(noaaWebClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersUriSpec);
+        doReturn(requestHeadersUriSpec).when(noaaWebClient).get();
+        doReturn(requestHeadersUriSpec).when(requestHeadersUriSpec).uri(anyString());
         when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(arrayNode));
         
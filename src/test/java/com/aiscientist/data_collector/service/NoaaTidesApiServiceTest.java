@@ -0,0 +1,137 @@
+package com.aiscientist.data_collector.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriBuilder;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.dto.NoaaTidesResponse;
+import com.aiscientist.data_collector.model.WaterLevelMetric;
+import com.aiscientist.data_collector.repository.WaterLevelMetricRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class NoaaTidesApiServiceTest {
+
+    @Mock
+    private WebClient noaaTidesWebClient;
+
+    @Mock
+    private WebClient.RequestHeadersUriSpec<?> requestHeadersUriSpec;
+
+    @Mock
+    private WebClient.ResponseSpec responseSpec;
+
+    @Mock
+    private WaterLevelMetricRepository waterLevelRepository;
+
+    @Mock
+    private WriteBehindBuffer<WaterLevelMetric> waterLevelWriteBehind;
+
+    @Mock
+    private StationStateStore stationStateStore;
+
+    private final AppConfig appConfig = new AppConfig();
+    private NoaaTidesApiService service;
+
+    @BeforeEach
+    void setUp() {
+        AppConfig.NoaaConfig noaa = new AppConfig.NoaaConfig();
+        noaa.setTides(new AppConfig.NoaaConfig.TidesConfig());
+        appConfig.setNoaa(noaa);
+        service = new NoaaTidesApiService(noaaTidesWebClient, waterLevelRepository, waterLevelWriteBehind,
+                stationStateStore, new ObjectMapper(), appConfig);
+    }
+
+    @Test
+    void getMonitoringStations_shouldUseConfiguredCatalogOrDefaultList() {
+        assertEquals(14, service.getMonitoringStations().size());
+        assertEquals("8518750", service.getMonitoringStations().get(0));
+
+        appConfig.getNoaa().getTides().setStations(List.of("9414290", "1612340"));
+
+        assertEquals(List.of("9414290", "1612340"), service.getMonitoringStations());
+    }
+
+    @Test
+    void fetchAllMonitoringStations_shouldBoundConcurrentRequests() {
+        appConfig.getNoaa().getTides().setStations(List.of("1", "2", "3", "4", "5", "6"));
+        appConfig.getNoaa().getTides().setConcurrency(2);
+        mockRequests();
+        when(waterLevelWriteBehind.enqueue(any())).thenReturn(Mono.empty());
+
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        when(responseSpec.bodyToMono(NoaaTidesResponse.class)).thenAnswer(invocation -> Mono.defer(() -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    return Mono.delay(Duration.ofMillis(50)).thenReturn(response("1.25"));
+                })
+                .doOnTerminate(active::decrementAndGet));
+
+        StepVerifier.create(service.fetchAllMonitoringStations())
+                .expectNextCount(6)
+                .verifyComplete();
+
+        assertEquals(2, maxActive.get());
+        verify(waterLevelWriteBehind, times(6)).enqueue(any(WaterLevelMetric.class));
+    }
+
+    @Test
+    void fetchAllMonitoringStations_shouldSkipFailedStationAndKeepOthers() {
+        appConfig.getNoaa().getTides().setStations(List.of("8518750", "8454000", "8575512"));
+        appConfig.getNoaa().getTides().setConcurrency(1);
+        mockRequests();
+        when(waterLevelWriteBehind.enqueue(any())).thenReturn(Mono.empty());
+        when(responseSpec.bodyToMono(NoaaTidesResponse.class)).thenReturn(Mono.just(response("1.25")))
+                .thenReturn(Mono.error(WebClientResponseException.create(503, "Service Unavailable", null, null, null)))
+                .thenReturn(Mono.just(response("0.80")));
+
+        List<WaterLevelMetric> metrics = new ArrayList<>();
+        StepVerifier.create(service.fetchAllMonitoringStations())
+                .recordWith(() -> metrics)
+                .expectNextCount(2)
+                .verifyComplete();
+
+        assertEquals(List.of("8518750", "8575512"), metrics.stream().map(WaterLevelMetric::getStationId).toList());
+        assertEquals(0.80, metrics.get(1).getWaterLevelMeters());
+        assertEquals(Instant.parse("2025-12-11T13:06:00Z"), metrics.get(0).getTimestamp());
+        verify(waterLevelWriteBehind, times(2)).enqueue(any(WaterLevelMetric.class));
+        verify(stationStateStore, times(2)).update(any(WaterLevelMetric.class));
+    }
+
+    private void mockRequests() {
+        doReturn(requestHeadersUriSpec).when(noaaTidesWebClient).get();
+        doReturn(requestHeadersUriSpec).when(requestHeadersUriSpec).uri(ArgumentMatchers.<Function<UriBuilder, URI>>any());
+        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
+    }
+
+    private NoaaTidesResponse response(String meters) {
+        return NoaaTidesResponse.builder()
+                .metadata(NoaaTidesResponse.Metadata.builder().name("Station").lat(40.7).lon(-74.0).build())
+                .data(new NoaaTidesResponse.Data[] {
+                        NoaaTidesResponse.Data.builder().t("2025-12-11 13:06").v(meters).q("p").build()
+                })
+                .build();
+    }
+}
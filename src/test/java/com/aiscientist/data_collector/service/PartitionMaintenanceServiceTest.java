@@ -0,0 +1,94 @@
+package com.aiscientist.data_collector.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aiscientist.data_collector.config.AppConfig;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RollupService rollupService;
+
+    @Test
+    void maintain_shouldDropExpiredMonthsOnlyOnceRolledUp() {
+        AppConfig.PersistenceConfig.PartitioningConfig settings = new AppConfig.PersistenceConfig.PartitioningConfig();
+        settings.setMonthsAhead(0);
+        settings.setWaterLevelRetentionMonths(3);
+        PartitionMaintenanceService service = new PartitionMaintenanceService(jdbcTemplate, transactionTemplate,
+                rollupService, settings, Clock.fixed(Instant.parse("2026-10-17T12:00:00Z"), ZoneOffset.UTC));
+        when(jdbcTemplate.queryForList(contains("relkind"), eq(String.class), eq("water_level_metrics")))
+                .thenReturn(List.of("p"));
+        when(jdbcTemplate.queryForList(contains("relkind"), eq(String.class), eq("earthquake_metrics")))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(contains("relkind"), eq(String.class), eq("water_level_metrics_default")))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq("water_level_metrics")))
+                .thenReturn(List.of("water_level_metrics_default", "water_level_metrics_p2026_06",
+                        "water_level_metrics_p2026_07", "water_level_metrics_p2026_08"));
+        when(rollupService.rolledUpBefore(RollupService.Series.WATER_LEVEL))
+                .thenReturn(Instant.parse("2026-07-15T00:00:00Z"));
+
+        service.maintain();
+
+        verify(jdbcTemplate).execute("DROP TABLE water_level_metrics_p2026_06");
+        verify(jdbcTemplate, never()).execute("DROP TABLE water_level_metrics_p2026_07");
+        verify(jdbcTemplate, never()).execute("DROP TABLE water_level_metrics_p2026_08");
+    }
+
+    @Test
+    void partitionName_shouldUseTableAndZeroPaddedMonth() {
+        assertEquals("water_level_metrics_p2026_03",
+                PartitionMaintenanceService.partitionName("water_level_metrics", YearMonth.of(2026, 3)));
+    }
+
+    @Test
+    void partitionedIndexSql_shouldKeepUniqueIndexContainingPartitionKey() {
+        String sql = PartitionMaintenanceService.partitionedIndexSql(
+                "CREATE UNIQUE INDEX uk_earthquake_event ON public.earthquake_metrics USING btree (earthquake_id, event_time)",
+                "earthquake_metrics", "event_time");
+
+        assertEquals("CREATE UNIQUE INDEX IF NOT EXISTS uk_earthquake_event ON earthquake_metrics "
+                + "USING btree (earthquake_id, event_time)", sql);
+    }
+
+    @Test
+    void partitionedIndexSql_shouldDowngradeUniqueIndexWithoutPartitionKey() {
+        String sql = PartitionMaintenanceService.partitionedIndexSql(
+                "CREATE UNIQUE INDEX idx_earthquake_id ON ONLY public.earthquake_metrics USING btree (earthquake_id)",
+                "earthquake_metrics", "event_time");
+
+        assertEquals("CREATE INDEX IF NOT EXISTS idx_earthquake_id ON earthquake_metrics USING btree (earthquake_id)", sql);
+    }
+
+    @Test
+    void partitionedIndexSql_shouldMatchQuotedColumns() {
+        String sql = PartitionMaintenanceService.partitionedIndexSql(
+                "CREATE INDEX idx_water_level_station_time ON public.water_level_metrics USING btree (station_id, \"timestamp\")",
+                "water_level_metrics", "timestamp");
+
+        assertEquals("CREATE INDEX IF NOT EXISTS idx_water_level_station_time ON water_level_metrics "
+                + "USING btree (station_id, \"timestamp\")", sql);
+    }
+}
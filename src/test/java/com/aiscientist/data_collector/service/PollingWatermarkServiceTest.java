@@ -0,0 +1,64 @@
+package com.aiscientist.data_collector.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.aiscientist.data_collector.model.PollingWatermark;
+import com.aiscientist.data_collector.repository.PollingWatermarkRepository;
+
+@ExtendWith(MockitoExtension.class)
+class PollingWatermarkServiceTest {
+
+    private static final String PROFILE = "usgs-earthquake:24h:m4.5";
+
+    @Mock
+    private PollingWatermarkRepository watermarkRepository;
+
+    @InjectMocks
+    private PollingWatermarkService watermarkService;
+
+    @Test
+    void get_shouldLoadPersistedWatermarkOnce() {
+        Instant stored = Instant.parse("2024-12-07T10:00:00Z");
+        when(watermarkRepository.findById(PROFILE)).thenReturn(Optional.of(
+                PollingWatermark.builder().profile(PROFILE).highWaterMark(stored).build()));
+
+        assertEquals(Optional.of(stored), watermarkService.get(PROFILE));
+        assertEquals(Optional.of(stored), watermarkService.get(PROFILE));
+
+        verify(watermarkRepository, times(1)).findById(PROFILE);
+    }
+
+    @Test
+    void advance_shouldOnlyMoveForward() {
+        Instant first = Instant.parse("2024-12-07T10:00:00Z");
+        when(watermarkRepository.findById(PROFILE)).thenReturn(Optional.empty());
+
+        watermarkService.advance(PROFILE, first);
+        watermarkService.advance(PROFILE, first.minusSeconds(60));
+        watermarkService.advance(PROFILE, first);
+
+        ArgumentCaptor<PollingWatermark> saved = ArgumentCaptor.forClass(PollingWatermark.class);
+        verify(watermarkRepository, times(1)).save(saved.capture());
+        assertEquals(first, saved.getValue().getHighWaterMark());
+        assertEquals(Optional.of(first), watermarkService.get(PROFILE));
+    }
+
+    @Test
+    void advance_shouldIgnoreNullCandidate() {
+        watermarkService.advance(PROFILE, null);
+
+        verify(watermarkRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,121 @@
+package com.aiscientist.data_collector.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.aiscientist.data_collector.config.AppConfig;
+import com.aiscientist.data_collector.model.RollupResolution;
+import com.aiscientist.data_collector.repository.MetricRollupRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RollupServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T12:34:00Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MetricRollupRepository rollupRepository;
+
+    private final AppConfig.PersistenceConfig.RollupConfig settings = new AppConfig.PersistenceConfig.RollupConfig();
+    private final AppConfig.PersistenceConfig.PartitioningConfig partitioning =
+            new AppConfig.PersistenceConfig.PartitioningConfig();
+    private RollupService service;
+
+    @BeforeEach
+    void setUp() {
+        settings.setHourlyRetention(Duration.ofDays(730));
+        partitioning.setWaterLevelRetentionMonths(3);
+        service = new RollupService(jdbcTemplate, rollupRepository, settings, partitioning,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void resolve_shouldPickCoarsestRollupNoWiderThanRequested() {
+        Instant since = NOW.minus(Duration.ofDays(30));
+
+        assertEquals(Optional.of(RollupResolution.HOUR),
+                service.resolve(RollupService.Series.WATER_LEVEL, Duration.ofHours(6), since));
+        assertEquals(Optional.of(RollupResolution.DAY),
+                service.resolve(RollupService.Series.WATER_LEVEL, Duration.ofDays(7), since));
+        assertEquals(Optional.empty(),
+                service.resolve(RollupService.Series.WATER_LEVEL, Duration.ofMinutes(15), since));
+    }
+
+    @Test
+    void resolve_shouldFallBackToRollupsWhenRawRowsHaveExpired() {
+        // Three months of partitions: August to October
+        assertEquals(Optional.empty(),
+                service.resolve(RollupService.Series.WATER_LEVEL, null, Instant.parse("2026-08-01T00:00:00Z")));
+        assertEquals(Optional.of(RollupResolution.HOUR),
+                service.resolve(RollupService.Series.WATER_LEVEL, null, Instant.parse("2026-07-31T23:00:00Z")));
+        assertEquals(Optional.of(RollupResolution.DAY),
+                service.resolve(RollupService.Series.WATER_LEVEL, Duration.ofHours(1), NOW.minus(Duration.ofDays(1000))));
+    }
+
+    @Test
+    void rollup_shouldRecomputeFromLateArrivalWindowAndDayStart() {
+        when(rollupRepository.findLatestBucketStart("water_level", RollupResolution.HOUR))
+                .thenReturn(Optional.of(Instant.parse("2026-10-17T12:00:00Z")));
+
+        Instant from = service.rollup(RollupService.Series.WATER_LEVEL);
+
+        assertEquals(Instant.parse("2026-10-17T06:00:00Z"), from);
+        verify(jdbcTemplate).update(eq(RollupService.hourlySql(RollupService.Series.WATER_LEVEL)),
+                eq(Timestamp.from(from)), eq(Timestamp.from(from.plus(Duration.ofDays(7)))));
+        verify(jdbcTemplate).update(RollupService.dailySql(), "water_level",
+                Timestamp.from(Instant.parse("2026-10-17T00:00:00Z")));
+    }
+
+    @Test
+    void rolledUpBefore_shouldStopAtLateArrivalWindowOrLatestBucket() {
+        when(rollupRepository.findLatestBucketStart("water_level", RollupResolution.HOUR))
+                .thenReturn(Optional.of(Instant.parse("2026-10-17T12:00:00Z")))
+                .thenReturn(Optional.of(Instant.parse("2026-09-01T00:00:00Z")))
+                .thenReturn(Optional.empty());
+
+        assertEquals(Instant.parse("2026-10-17T06:00:00Z"), service.rolledUpBefore(RollupService.Series.WATER_LEVEL));
+        assertEquals(Instant.parse("2026-09-01T00:00:00Z"), service.rolledUpBefore(RollupService.Series.WATER_LEVEL));
+        assertEquals(Instant.EPOCH, service.rolledUpBefore(RollupService.Series.WATER_LEVEL));
+
+        settings.setEnabled(false);
+        assertNull(service.rolledUpBefore(RollupService.Series.WATER_LEVEL));
+    }
+
+    @Test
+    void rollupAndExpire_shouldDeleteRawKpRowsButLeaveWaterLevelToPartitions() {
+        when(rollupRepository.findLatestBucketStart(anyString(), eq(RollupResolution.HOUR)))
+                .thenReturn(Optional.of(Instant.parse("2026-10-17T12:00:00Z")));
+
+        service.rollupAndExpire();
+
+        verify(jdbcTemplate).update(startsWith("DELETE FROM metrics "),
+                eq(Timestamp.from(Instant.parse("2025-10-17T12:00:00Z"))), eq(settings.getDeleteBatchSize()));
+        verify(jdbcTemplate, never()).update(startsWith("DELETE FROM water_level_metrics"), any(), any());
+    }
+
+    @Test
+    void parseResolution_shouldAcceptSimpleAndIsoDurations() {
+        assertEquals(Duration.ofHours(6), RollupService.parseResolution("6h"));
+        assertEquals(Duration.ofMinutes(15), RollupService.parseResolution("PT15M"));
+        assertNull(RollupService.parseResolution("raw"));
+        assertNull(RollupService.parseResolution(null));
+        assertThrows(IllegalArgumentException.class, () -> RollupService.parseResolution("hourly"));
+    }
+}
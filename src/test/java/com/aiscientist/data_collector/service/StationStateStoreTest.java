@@ -0,0 +1,114 @@
+package com.aiscientist.data_collector.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.aiscientist.data_collector.model.WaterLevelMetric;
+import com.aiscientist.data_collector.repository.WaterLevelMetricRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class StationStateStoreTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T12:00:00Z");
+
+    @Mock
+    private WaterLevelMetricRepository waterLevelRepository;
+
+    private StationStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new StationStateStore(waterLevelRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void afterSingletonsInstantiated_shouldRebuildFromDatabase() {
+        when(waterLevelRepository.findLatestPerStation())
+                .thenReturn(List.of(reading("8518750", NOW, 3.0, 40.7, -74.0)));
+
+        store.afterSingletonsInstantiated();
+
+        assertEquals(1, store.size());
+        assertEquals(3.0, store.getLatest("8518750").orElseThrow().getWaterLevelFeet());
+    }
+
+    @Test
+    void update_shouldKeepNewestReadingPerStation() {
+        store.update(reading("01646500", NOW, 5.0, 38.9, -77.1));
+        store.update(reading("01646500", NOW.minusSeconds(900), 4.0, 38.9, -77.1));
+
+        assertEquals(5.0, store.getLatest("01646500").orElseThrow().getWaterLevelFeet());
+
+        store.update(reading("01646500", NOW.plusSeconds(900), 6.0, 38.9, -77.1));
+
+        assertEquals(6.0, store.getLatest("01646500").orElseThrow().getWaterLevelFeet());
+        assertTrue(store.getLatest("unknown").isEmpty());
+    }
+
+    @Test
+    void update_shouldHoldASnapshotWithoutRawData() {
+        WaterLevelMetric collected = reading("8518750", NOW, 3.0, 40.7, -74.0);
+        collected.setRawData("{\"data\":[]}");
+
+        store.update(collected);
+        collected.setRawPayloadHash("hash");
+        collected.setId(42L);
+        collected.setWaterLevelFeet(99.0);
+
+        WaterLevelMetric held = store.getLatest("8518750").orElseThrow();
+        assertNotSame(collected, held);
+        assertNull(held.getRawData());
+        assertNull(held.getRawPayloadHash());
+        assertNull(held.getId());
+        assertEquals(3.0, held.getWaterLevelFeet());
+    }
+
+    @Test
+    void findFlooding_shouldReturnStationsAtOrAboveMinorFloodStage() {
+        store.update(reading("flooding", NOW, 12.0, 38.9, -77.1));
+        store.update(reading("action-only", NOW, 9.5, 38.9, -77.1));
+        store.update(reading("normal", NOW, 2.0, 38.9, -77.1));
+
+        assertEquals(List.of("flooding"), stationIds(store.findFlooding()));
+    }
+
+    @Test
+    void findWithinRadius_shouldReturnNearestFirstAndSkipStationsWithoutCoordinates() {
+        store.update(reading("further", NOW, 2.0, 39.3, -77.1));
+        store.update(reading("nearest", NOW, 2.0, 38.9, -77.1));
+        store.update(reading("outside", NOW, 2.0, 45.0, -77.1));
+        store.update(reading("no-coordinates", NOW, 2.0, null, null));
+
+        assertEquals(List.of("nearest", "further"), stationIds(store.findWithinRadius(38.9, -77.0, 100)));
+    }
+
+    private static WaterLevelMetric reading(String stationId, Instant timestamp, double feet,
+                                            Double latitude, Double longitude) {
+        return WaterLevelMetric.builder()
+                .stationId(stationId)
+                .timestamp(timestamp)
+                .waterLevelFeet(feet)
+                .actionStageFeet(9.0)
+                .minorFloodStageFeet(10.0)
+                .moderateFloodStageFeet(14.0)
+                .majorFloodStageFeet(18.0)
+                .latitude(latitude)
+                .longitude(longitude)
+                .build();
+    }
+
+    private static List<String> stationIds(List<WaterLevelMetric> metrics) {
+        return metrics.stream().map(WaterLevelMetric::getStationId).toList();
+    }
+}
@@ -0,0 +1,125 @@
+package com.aiscientist.data_collector.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.aiscientist.data_collector.model.EarthquakeMetric;
+import com.aiscientist.data_collector.repository.EarthquakeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class UsgsEarthquakeApiServiceTest {
+
+    private static final String PROFILE = "usgs-earthquake:24h:m4.5";
+
+    @Mock
+    private WebClient usgsWebClient;
+
+    @Mock
+    private WebClient.RequestHeadersUriSpec<?> requestHeadersUriSpec;
+
+    @Mock
+    private WebClient.ResponseSpec responseSpec;
+
+    @Mock
+    private EarthquakeRepository earthquakeRepository;
+
+    @Mock
+    private PollingWatermarkService watermarkService;
+
+    private UsgsEarthquakeApiService usgsEarthquakeApiService;
+
+    @BeforeEach
+    void setUp() {
+        usgsEarthquakeApiService = new UsgsEarthquakeApiService(usgsWebClient, earthquakeRepository,
+                new EarthquakeFeatureStreamParser(new ObjectMapper()), watermarkService);
+        ReflectionTestUtils.setField(usgsEarthquakeApiService, "baseUrl", "https://earthquake.usgs.gov");
+        ReflectionTestUtils.setField(usgsEarthquakeApiService, "minMagnitude", 4.5);
+        ReflectionTestUtils.setField(usgsEarthquakeApiService, "incremental", true);
+        ReflectionTestUtils.setField(usgsEarthquakeApiService, "writeChunkSize", 2);
+
+        doReturn(requestHeadersUriSpec).when(usgsWebClient).get();
+        doReturn(requestHeadersUriSpec).when(requestHeadersUriSpec).uri(anyString());
+        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
+    }
+
+    @Test
+    void fetchRecentEarthquakes_shouldUpsertInChunksAndAdvanceWatermark() {
+        // Given
+        Instant watermark = Instant.ofEpochMilli(1733560000000L);
+        when(watermarkService.get(PROFILE)).thenReturn(Optional.of(watermark));
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(
+                feature("us1", 5.1, 1733565300000L),
+                feature("us2", 4.6, 1733565400000L),
+                feature("us3", 4.8, 1733565100000L)));
+        // First chunk: us2 unchanged, second chunk: us3 new
+        when(earthquakeRepository.upsertRevisions(anyList()))
+                .thenAnswer(invocation -> {
+                    List<EarthquakeMetric> chunk = invocation.getArgument(0);
+                    return chunk.size() == 2 ? List.of(chunk.get(0)) : chunk;
+                });
+
+        // When & Then
+        StepVerifier.create(usgsEarthquakeApiService.fetchRecentEarthquakes())
+                .assertNext(metric -> {
+                    assertEquals("us1", metric.getEarthquakeId());
+                    assertEquals(Instant.ofEpochMilli(1733565300000L), metric.getSourceUpdatedAt());
+                })
+                .assertNext(metric -> assertEquals("us3", metric.getEarthquakeId()))
+                .verifyComplete();
+
+        ArgumentCaptor<String> url = ArgumentCaptor.forClass(String.class);
+        verify(requestHeadersUriSpec).uri(url.capture());
+        assertTrue(url.getValue().contains("&updatedafter=" + watermark));
+        verify(earthquakeRepository, times(2)).upsertRevisions(anyList());
+        verify(watermarkService).advance(PROFILE, Instant.ofEpochMilli(1733565400000L));
+    }
+
+    @Test
+    void fetchRecentEarthquakes_shouldKeepWatermarkWhenStoreFails() {
+        // Given
+        when(watermarkService.get(PROFILE)).thenReturn(Optional.empty());
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(feature("us1", 5.1, 1733565300000L)));
+        when(earthquakeRepository.upsertRevisions(anyList())).thenThrow(new IllegalStateException("db down"));
+
+        // When & Then
+        StepVerifier.create(usgsEarthquakeApiService.fetchRecentEarthquakes())
+                .verifyComplete();
+
+        verify(requestHeadersUriSpec).uri(argThat((String uri) -> !uri.contains("updatedafter")));
+        verify(watermarkService, never()).advance(anyString(), any());
+    }
+
+    private Flux<DataBuffer> body(String... features) {
+        String json = "{\"type\":\"FeatureCollection\",\"features\":[" + String.join(",", features) + "]}";
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String feature(String id, double magnitude, long updated) {
+        return """
+                {"type":"Feature","id":"%s","properties":{"mag":%s,"place":"10 km N of Somewhere, Chile",
+                 "time":1733560000000,"updated":%d,"tsunami":0,"net":"us"},
+                 "geometry":{"type":"Point","coordinates":[-70.5,-30.2,35.0]}}
+                """.formatted(id, magnitude, updated);
+    }
+}
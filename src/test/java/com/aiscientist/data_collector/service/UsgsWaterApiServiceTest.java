@@ -0,0 +1,131 @@
+package com.aiscientist.data_collector.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
+
+import com.aiscientist.data_collector.dto.UsgsWaterResponse;
+import com.aiscientist.data_collector.model.WaterLevelMetric;
+import com.aiscientist.data_collector.repository.WaterLevelMetricRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class UsgsWaterApiServiceTest {
+
+    @Mock
+    private WebClient usgsWaterWebClient;
+
+    @Mock
+    private WebClient.RequestHeadersUriSpec<?> requestHeadersUriSpec;
+
+    @Mock
+    private WebClient.ResponseSpec responseSpec;
+
+    @Mock
+    private WaterLevelMetricRepository waterLevelRepository;
+
+    @Mock
+    private WriteBehindBuffer<WaterLevelMetric> waterLevelWriteBehind;
+
+    @Mock
+    private StationStateStore stationStateStore;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private UsgsWaterApiService usgsWaterApiService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(usgsWaterApiService, "batchSize", 100);
+
+        doReturn(requestHeadersUriSpec).when(usgsWaterWebClient).get();
+        doReturn(requestHeadersUriSpec).when(requestHeadersUriSpec).uri(ArgumentMatchers.<Function<UriBuilder, URI>>any());
+        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
+    }
+
+    @Test
+    void fetchWaterDataBatch_shouldSplitTimeSeriesPerSite() {
+        // Given
+        UsgsWaterResponse response = UsgsWaterResponse.builder()
+                .value(UsgsWaterResponse.Value.builder()
+                        .timeSeries(new UsgsWaterResponse.TimeSeries[] {
+                                timeSeries("01646500", "Potomac River", "00065", "4.12"),
+                                timeSeries("01646500", "Potomac River", "00060", "2410"),
+                                timeSeries("02035000", "James River", "00065", "7.50")
+                        })
+                        .build())
+                .build();
+
+        when(responseSpec.bodyToMono(UsgsWaterResponse.class)).thenReturn(Mono.just(response));
+        when(waterLevelWriteBehind.enqueue(any())).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(usgsWaterApiService.fetchWaterDataBatch(List.of("01646500", "02035000")))
+                .assertNext(metric -> {
+                    assertEquals("01646500", metric.getStationId());
+                    assertEquals("Potomac River", metric.getStationName());
+                    assertEquals(4.12, metric.getGageHeightFeet());
+                    assertEquals(2410.0, metric.getDischargeCfs());
+                })
+                .assertNext(metric -> {
+                    assertEquals("02035000", metric.getStationId());
+                    assertEquals(7.50, metric.getGageHeightFeet());
+                    assertNull(metric.getDischargeCfs());
+                })
+                .verifyComplete();
+
+        verify(usgsWaterWebClient, times(1)).get();
+        verify(waterLevelWriteBehind, times(2)).enqueue(any(WaterLevelMetric.class));
+        verifyNoInteractions(waterLevelRepository);
+    }
+
+    private UsgsWaterResponse.TimeSeries timeSeries(String siteCode, String siteName,
+                                                    String parameterCode, String value) {
+        return UsgsWaterResponse.TimeSeries.builder()
+                .name("USGS:" + siteCode + ":" + parameterCode + ":00000")
+                .sourceInfo(UsgsWaterResponse.SourceInfo.builder()
+                        .siteName(siteName)
+                        .siteCode(new UsgsWaterResponse.SiteCode[] {
+                                UsgsWaterResponse.SiteCode.builder().value(siteCode).network("NWIS").build()
+                        })
+                        .build())
+                .variable(UsgsWaterResponse.Variable.builder()
+                        .variableCode(new UsgsWaterResponse.VariableCode[] {
+                                UsgsWaterResponse.VariableCode.builder().value(parameterCode).build()
+                        })
+                        .build())
+                .values(new UsgsWaterResponse.TimeSeriesValue[] {
+                        UsgsWaterResponse.TimeSeriesValue.builder()
+                                .value(new UsgsWaterResponse.DataValue[] {
+                                        UsgsWaterResponse.DataValue.builder()
+                                                .value(value)
+                                                .qualifiers(new String[] {"P"})
+                                                .dateTime("2024-12-07T10:15:00.000-05:00")
+                                                .build()
+                                })
+                                .build()
+                })
+                .build();
+    }
+}
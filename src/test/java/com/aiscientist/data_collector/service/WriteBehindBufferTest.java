@@ -0,0 +1,180 @@
+package com.aiscientist.data_collector.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aiscientist.data_collector.config.AppConfig;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.test.StepVerifier;
+
+class WriteBehindBufferTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<String>> flushed = new CopyOnWriteArrayList<>();
+    private WriteBehindBuffer<String> buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    void shouldFlushFullBatchesAndRemainderAfterInterval() throws InterruptedException {
+        CountDownLatch flushes = new CountDownLatch(2);
+        buffer = newBuffer(100, 3, Duration.ofMillis(200), batch -> {
+            flushed.add(new ArrayList<>(batch));
+            flushes.countDown();
+        });
+        buffer.start();
+
+        for (String item : List.of("a", "b", "c", "d")) {
+            StepVerifier.create(buffer.enqueue(item)).verifyComplete();
+        }
+
+        assertTrue(flushes.await(5, TimeUnit.SECONDS));
+        // Joins the flush thread, so the second flush has also been recorded in the metrics
+        buffer.stop();
+        assertEquals(List.of(List.of("a", "b", "c"), List.of("d")), flushed);
+        assertEquals(4.0, meterRegistry.get("write.behind.items.written").counter().count());
+        assertEquals(2, meterRegistry.get("write.behind.flush").timer().count());
+        assertEquals(0.0, meterRegistry.get("write.behind.queue.depth").gauge().value());
+    }
+
+    @Test
+    void enqueue_shouldFailWhenQueueStaysFull() {
+        // Not started: nothing drains the queue
+        buffer = newBuffer(1, 10, Duration.ofSeconds(1), flushed::add);
+
+        StepVerifier.create(buffer.enqueue("a")).verifyComplete();
+        StepVerifier.create(buffer.enqueue("b")).verifyError(IllegalStateException.class);
+
+        assertEquals(1, buffer.queueDepth());
+        assertEquals(1.0, meterRegistry.get("write.behind.backpressure").counter().count());
+    }
+
+    @Test
+    void stop_shouldFlushQueuedItems() {
+        buffer = newBuffer(100, 50, Duration.ofMinutes(1), batch -> flushed.add(new ArrayList<>(batch)));
+        buffer.start();
+
+        StepVerifier.create(buffer.enqueue("a")).verifyComplete();
+        StepVerifier.create(buffer.enqueue("b")).verifyComplete();
+        buffer.stop();
+
+        assertEquals(List.of("a", "b"), flushed.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void shouldCountFailedFlushesAndKeepRunning() throws InterruptedException {
+        CountDownLatch attempts = new CountDownLatch(2);
+        buffer = newBuffer(100, 1, Duration.ofMillis(50), batch -> {
+            attempts.countDown();
+            if (batch.contains("bad")) {
+                throw new IllegalStateException("constraint violation");
+            }
+        });
+        buffer.addFlushListener(batch -> flushed.add(new ArrayList<>(batch)));
+        buffer.start();
+
+        StepVerifier.create(buffer.enqueue("bad")).verifyComplete();
+        StepVerifier.create(buffer.enqueue("good")).verifyComplete();
+
+        assertTrue(attempts.await(5, TimeUnit.SECONDS));
+        buffer.stop();
+        assertEquals(1.0, meterRegistry.get("write.behind.items.failed").counter().count());
+        assertEquals(1.0, meterRegistry.get("write.behind.items.written").counter().count());
+        // Listeners only hear about committed batches
+        assertEquals(List.of(List.of("good")), flushed);
+    }
+
+    @Test
+    void shouldRetryBatchOnTransientFailure() {
+        AtomicInteger attempts = new AtomicInteger();
+        buffer = newBuffer(100, 50, Duration.ofMillis(50), batch -> {
+            if (attempts.incrementAndGet() <= 2) {
+                throw new TransientDataAccessResourceException("connection reset");
+            }
+        });
+        buffer.addFlushListener(batch -> flushed.add(new ArrayList<>(batch)));
+
+        // Queued before start, so they are drained as one batch
+        StepVerifier.create(buffer.enqueue("a")).verifyComplete();
+        StepVerifier.create(buffer.enqueue("b")).verifyComplete();
+        buffer.start();
+        buffer.stop();
+
+        assertEquals(3, attempts.get());
+        assertEquals(List.of(List.of("a", "b")), flushed);
+        assertEquals(2.0, meterRegistry.get("write.behind.items.written").counter().count());
+        assertEquals(0.0, meterRegistry.get("write.behind.items.failed").counter().count());
+    }
+
+    @Test
+    void shouldSplitFailingBatchAndDropOnlyTheBadRow() {
+        List<Integer> attempted = new CopyOnWriteArrayList<>();
+        buffer = newBuffer(100, 50, Duration.ofMillis(50), batch -> {
+            attempted.add(batch.size());
+            if (batch.contains("bad")) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+        });
+        buffer.addFlushListener(batch -> flushed.add(new ArrayList<>(batch)));
+
+        for (String item : List.of("a", "b", "bad", "c", "d")) {
+            StepVerifier.create(buffer.enqueue(item)).verifyComplete();
+        }
+        buffer.start();
+        buffer.stop();
+
+        // [a, b, bad, c, d] -> [a, b] + [bad, c, d] -> [bad] + [c, d]; no retries of the bad halves
+        assertEquals(List.of(5, 2, 3, 1, 2), attempted);
+
+        assertEquals(List.of("a", "b", "c", "d"), flushed.stream().flatMap(List::stream).toList());
+        assertEquals(4.0, meterRegistry.get("write.behind.items.written").counter().count());
+        assertEquals(1.0, meterRegistry.get("write.behind.items.failed").counter().count());
+    }
+
+    @Test
+    void isTransient_shouldRecognizeConnectionAndDeadlockErrors() {
+        assertTrue(WriteBehindBuffer.isTransient(new CannotCreateTransactionException("no connection")));
+        assertTrue(WriteBehindBuffer.isTransient(
+                new UncategorizedSQLException("flush", "INSERT", new SQLException("deadlock detected", "40P01"))));
+        assertFalse(WriteBehindBuffer.isTransient(
+                new UncategorizedSQLException("flush", "INSERT", new SQLException("not-null violation", "23502"))));
+        assertFalse(WriteBehindBuffer.isTransient(new IllegalStateException("bug")));
+    }
+
+    private WriteBehindBuffer<String> newBuffer(int capacity, int batchSize, Duration flushInterval,
+                                                Consumer<List<String>> writer) {
+        AppConfig.PersistenceConfig.WriteBehindConfig settings = new AppConfig.PersistenceConfig.WriteBehindConfig();
+        settings.setCapacity(capacity);
+        settings.setBatchSize(batchSize);
+        settings.setFlushInterval(flushInterval);
+        settings.setOfferTimeout(Duration.ofMillis(50));
+        settings.setRetryBackoff(Duration.ofMillis(1));
+        return new WriteBehindBuffer<>("test", writer,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), settings, meterRegistry);
+    }
+}
@@ -0,0 +1,78 @@
+package com.aiscientist.data_collector.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class GeoUtilsTest {
+
+    @Test
+    void distanceKm_shouldMatchKnownGreatCircleDistances() {
+        // Tokyo -> San Francisco, ~8,270 km
+        assertEquals(8270, GeoUtils.distanceKm(35.68, 139.69, 37.77, -122.42), 20);
+        // Across the antimeridian: Fiji -> Samoa, ~1,150 km rather than ~39,000 km the long way
+        assertEquals(1150, GeoUtils.distanceKm(-18.1, 178.4, -13.8, -171.8), 30);
+        assertEquals(0, GeoUtils.distanceKm(10, 20, 10, 20), 1e-9);
+    }
+
+    @Test
+    void cellId_shouldWrapLongitudeAndClampLatitude() {
+        assertEquals(GeoUtils.cellId(0.5, -180.0), GeoUtils.cellId(0.5, 180.0));
+        assertEquals(GeoUtils.cellId(89.5, 10.0), GeoUtils.cellId(90.0, 10.0));
+        assertEquals(90 * 360 + 180, GeoUtils.cellId(0.2, 0.7));
+        assertNull(GeoUtils.cellId(null, 1.0));
+    }
+
+    @Test
+    void boundingBox_shouldWidenLongitudeSpanAtHighLatitudes() {
+        GeoUtils.BoundingBox equator = GeoUtils.boundingBox(0, 0, 500);
+        GeoUtils.BoundingBox north = GeoUtils.boundingBox(60, 0, 500);
+
+        double equatorSpan = equator.maxLon() - equator.minLon();
+        assertEquals(2 * 500 / GeoUtils.KM_PER_DEGREE, equatorSpan, 0.01);
+        assertEquals(2 * equatorSpan, north.maxLon() - north.minLon(), 0.5);
+    }
+
+    @Test
+    void boundingBox_shouldWrapAcrossAntimeridian() {
+        GeoUtils.BoundingBox box = GeoUtils.boundingBox(-17.9, 179.5, 200);
+
+        assertTrue(box.crossesAntimeridian());
+        List<Integer> cells = box.cells();
+        assertTrue(cells.contains(GeoUtils.cellId(-17.9, 179.5)));
+        assertTrue(cells.contains(GeoUtils.cellId(-17.9, -179.5)));
+        assertFalse(cells.contains(GeoUtils.cellId(-17.9, 0.0)));
+    }
+
+    @Test
+    void boundingBox_shouldCoverAllLongitudesNearPoles() {
+        GeoUtils.BoundingBox box = GeoUtils.boundingBox(89, 45, 300);
+
+        assertTrue(box.coversAllLongitudes());
+        assertEquals(90.0, box.maxLat());
+    }
+
+    @Test
+    void cells_shouldCoverEveryPointWithinRadius() {
+        double lat = 35.5;
+        double lon = 139.5;
+        double radiusKm = 400;
+        List<Integer> cells = GeoUtils.boundingBox(lat, lon, radiusKm).cells();
+
+        for (double pointLat = lat - 5; pointLat <= lat + 5; pointLat += 0.25) {
+            for (double pointLon = lon - 6; pointLon <= lon + 6; pointLon += 0.25) {
+                if (GeoUtils.distanceKm(lat, lon, pointLat, pointLon) <= radiusKm) {
+                    assertTrue(cells.contains(GeoUtils.cellId(pointLat, pointLon)),
+                            "missing cell for " + pointLat + "," + pointLon);
+                }
+            }
+        }
+    }
+
+    @Test
+    void cells_shouldBeEmptyWhenTooManyToList() {
+        assertTrue(GeoUtils.boundingBox(0, 0, 5000).cells().isEmpty());
+    }
+}